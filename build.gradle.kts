@@ -70,8 +70,14 @@ plugins {
 
 spinePublishing {
     modules = setOf(
-        // We only publish one module because it produces a fat JAR publication.
-        "model-check"
+        // `model-check` produces a fat JAR publication.
+        "model-check",
+        // `model-assembler` produces the slim annotation processor JAR.
+        "model-assembler",
+        // `model-assembler-ksp` is the symbol processor for the Kotlin receivers.
+        "model-assembler-ksp",
+        // `model-runtime` is the non-shaded runtime part of the model tools.
+        "model-runtime"
     )
     destinations = with(PublishingRepos) {
         setOf(
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble.ksp
+
+import com.google.devtools.ksp.processing.CodeGenerator
+import com.google.devtools.ksp.processing.Dependencies
+import com.google.devtools.ksp.processing.KSPLogger
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.processing.SymbolProcessor
+import com.google.devtools.ksp.symbol.KSAnnotated
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.symbol.KSFile
+import com.google.devtools.ksp.symbol.KSFunctionDeclaration
+import com.google.devtools.ksp.validate
+import io.spine.model.CommandReceiver
+import io.spine.model.CommandReceivers
+import io.spine.model.ModelUpdate
+import io.spine.model.assemble.AssignLookup.DEFAULT_OUTPUT_OPTION
+import io.spine.model.assemble.AssignLookup.DESTINATION_PATH
+import io.spine.model.assemble.AssignLookup.MODULE_OPTION_NAME
+import io.spine.model.assemble.AssignLookup.OUTPUT_OPTION_NAME
+import io.spine.model.assemble.AssignLookup.STORAGE_OPTION_NAME
+import io.spine.model.assemble.HandlerConventions.ASSIGN_ANNOTATION
+import io.spine.model.assemble.ModelBytes.toBytes
+import io.spine.model.assemble.ModelFragments.FRAGMENT_PATH
+import io.spine.model.assemble.ModelJournal
+import io.spine.model.assemble.ProcessingStats
+import io.spine.model.assemble.ReceiverIndex
+import io.spine.model.assemble.SharedModelFile
+import io.spine.model.assemble.StorageMode
+import io.spine.protobuf.Messages.isDefault
+import java.io.File
+
+/**
+ * Collects the command receivers of the module into the Spine model.
+ *
+ * The receivers found in all the rounds are accumulated in memory and are flushed to
+ * the storage selected by the `spineModelStorage` option only once, when the processing
+ * is [finished][finish].
+ *
+ * In the [fragment][StorageMode.FRAGMENT] mode, the fragment is an aggregating output of all
+ * the files declaring the receivers, so that the incremental processing re-creates it when
+ * any of them changes. In the shared and the journal modes, the receivers of the files
+ * processed by the compilation, which were not found again, are dropped from the model.
+ *
+ * If the `spineModule` option is set, the receivers of the module are dropped only when
+ * all the files of the module are processed. An incremental compilation processes only
+ * the changed files, so it cannot tell which receivers of the module are gone. The receivers
+ * removed by such a compilation stay in the model until the module is compiled as a whole.
+ */
+internal class KspAssignLookup(
+    private val codeGenerator: CodeGenerator,
+    private val logger: KSPLogger,
+    private val options: Map<String, String>
+) : SymbolProcessor {
+
+    private val receivers = sortedMapOf<String, CommandReceiver.Builder>()
+    private val origins = sortedMapOf<String, String>()
+    private val originatingFiles = linkedSetOf<KSFile>()
+    private val processedFiles = sortedSetOf<String>()
+    private var moduleFiles: Set<String>? = null
+
+    override fun process(resolver: Resolver): List<KSAnnotated> {
+        if (moduleFiles == null) {
+            moduleFiles = resolver.getAllFiles().map { sourceFileOf(it) }.toSet()
+        }
+        resolver.getNewFiles().forEach { processedFiles.add(sourceFileOf(it)) }
+        val scanner = KspHandlerScanner(resolver)
+        val (valid, deferred) = resolver.getSymbolsWithAnnotation(ASSIGN_ANNOTATION)
+            .partition { it.validate() }
+        valid.filterIsInstance<KSFunctionDeclaration>()
+            .forEach { record(it, scanner) }
+        return deferred
+    }
+
+    private fun record(method: KSFunctionDeclaration, scanner: KspHandlerScanner) {
+        val type = method.parentDeclaration as? KSClassDeclaration ?: return
+        val typeName = scanner.nameOf(type)
+        val receiver = receivers.getOrPut(typeName) { scanner.receiverOf(type) }
+        receiver.addMethod(scanner.methodOf(method))
+        type.containingFile?.let {
+            origins[typeName] = originOf(it)
+            originatingFiles.add(it)
+        }
+    }
+
+    override fun finish() {
+        val value = options[STORAGE_OPTION_NAME] ?: StorageMode.SHARED.optionValue()
+        val mode = StorageMode.forOptionValue(value)
+        if (mode.isEmpty) {
+            logger.error("Unknown value `$value` of the `$STORAGE_OPTION_NAME` option.")
+            return
+        }
+        when (mode.get()) {
+            StorageMode.FRAGMENT -> writeFragment()
+            StorageMode.JOURNAL -> appendToJournal()
+            else -> SharedModelFile(sharedModelFile(), ProcessingStats()).apply(update())
+        }
+    }
+
+    /**
+     * Creates the update of the model made by this compilation.
+     *
+     * See [processedOrigins] for the origins processed by the compilation.
+     */
+    private fun update(): ModelUpdate {
+        val found = CommandReceivers.newBuilder()
+            .addAllCommandReceivingType(receivers.keys)
+            .putAllOrigin(origins)
+            .addAllReceiver(receivers.values.map { it.build() })
+            .build()
+        val processed = processedOrigins(
+            options[MODULE_OPTION_NAME], processedFiles, moduleFiles ?: setOf()
+        )
+        return ModelUpdate.newBuilder()
+            .setReceivers(ReceiverIndex.of(found).toModel())
+            .addAllProcessedOrigin(processed)
+            .build()
+    }
+
+    private fun originOf(file: KSFile): String =
+        options[MODULE_OPTION_NAME] ?: sourceFileOf(file)
+
+    private fun sharedModelFile(): File {
+        val root = options[OUTPUT_OPTION_NAME] ?: DEFAULT_OUTPUT_OPTION
+        return File("$root/$DESTINATION_PATH")
+    }
+
+    private fun appendToJournal() {
+        val update = update()
+        if (!isDefault(update)) {
+            ModelJournal(sharedModelFile().toPath()).append(update)
+        }
+    }
+
+    private fun writeFragment() {
+        val fragment = update().receivers
+        if (isDefault(fragment)) {
+            return
+        }
+        val dependencies = Dependencies(aggregating = true, *originatingFiles.toTypedArray())
+        val directory = FRAGMENT_PATH.substringBeforeLast('/').replace('/', '.')
+        val fileName = FRAGMENT_PATH.substringAfterLast('/')
+        codeGenerator.createNewFile(
+            dependencies,
+            directory,
+            fileName.substringBeforeLast('.'),
+            fileName.substringAfterLast('.')
+        ).use { it.write(toBytes(fragment)) }
+    }
+}
+
+/**
+ * Obtains the origins whose receivers are to be replaced by the ones found by a compilation.
+ *
+ * Without a [module], the origins are the processed files. With a module, the origin is
+ * the module, but only if all of its files are processed. Otherwise, no origin is processed,
+ * so that the receivers of the unchanged files are not dropped.
+ *
+ * @param module
+ *         the value of the `spineModule` option, if set
+ * @param processedFiles
+ *         the files processed in all the rounds of the compilation
+ * @param moduleFiles
+ *         all the files of the module, as seen in the first round
+ */
+internal fun processedOrigins(
+    module: String?,
+    processedFiles: Set<String>,
+    moduleFiles: Set<String>
+): List<String> = when {
+    module == null -> processedFiles.toList()
+    processedFiles.containsAll(moduleFiles) -> listOf(module)
+    else -> listOf()
+}
+
+/**
+ * Obtains the path to the given source file relative to the source root, as
+ * [AssignLookup][io.spine.model.assemble.AssignLookup] records the origins of the receivers.
+ *
+ * The path is deduced from the package of the file.
+ */
+private fun sourceFileOf(file: KSFile): String {
+    val packageName = file.packageName.asString()
+    return if (packageName.isEmpty()) {
+        file.fileName
+    } else {
+        packageName.replace('.', '/') + '/' + file.fileName
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble.ksp
+
+import com.google.devtools.ksp.KspExperimental
+import com.google.devtools.ksp.getAllSuperTypes
+import com.google.devtools.ksp.getVisibility
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.symbol.ClassKind
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.symbol.KSDeclaration
+import com.google.devtools.ksp.symbol.KSFunctionDeclaration
+import com.google.devtools.ksp.symbol.KSType
+import com.google.devtools.ksp.symbol.Visibility
+import io.spine.model.AccessLevel
+import io.spine.model.CommandHandlerMethod
+import io.spine.model.CommandReceiver
+import io.spine.model.ReturnKind
+import io.spine.model.assemble.HandlerConventions.OPTIONAL_TYPE
+import io.spine.model.assemble.HandlerConventions.TUPLE_PACKAGE
+import io.spine.model.assemble.HandlerConventions.receiverKind
+
+/**
+ * Collects the details of the command receivers and their handler methods from
+ * the declarations resolved by KSP.
+ *
+ * The Kotlin types are described by the names of the Java types they are compiled to,
+ * so that the details are the same as the ones collected by
+ * [AssignLookup][io.spine.model.assemble.AssignLookup] from the Java code.
+ */
+@OptIn(KspExperimental::class)
+internal class KspHandlerScanner(private val resolver: Resolver) {
+
+    /**
+     * Creates a builder of the receiver declared by the given class.
+     *
+     * The builder has the type name, the kind, and the superclasses of the receiver
+     * populated. The methods are to be added by the caller.
+     */
+    fun receiverOf(type: KSClassDeclaration): CommandReceiver.Builder {
+        val superclasses = generateSequence(superclassOf(type)) { superclassOf(it) }
+            .map { nameOf(it) }
+            .takeWhile { it != OBJECT }
+            .toList()
+        return CommandReceiver.newBuilder()
+            .setType(nameOf(type))
+            .addAllSuperclass(superclasses)
+            .setKind(receiverKind(superclasses))
+    }
+
+    /**
+     * Collects the signature of the given command handling method.
+     */
+    fun methodOf(method: KSFunctionDeclaration): CommandHandlerMethod {
+        val parameterTypes = method.parameters.map { nameOf(it.type.resolve()) }
+        val returnType = method.returnType?.resolve()
+        val result = CommandHandlerMethod.newBuilder()
+            .setName(resolver.getJvmName(method) ?: method.simpleName.asString())
+            .addAllParameterType(parameterTypes)
+            .addAllThrownType(resolver.getJvmCheckedException(method).map { nameOf(it) }.toList())
+            .setReturnType(if (returnType == null) VOID else javaNameOf(returnType))
+            .setReturnKind(returnKindOf(returnType))
+            .setAccess(accessOf(method))
+        parameterTypes.firstOrNull()?.let { result.setCommandType(it) }
+        return result.build()
+    }
+
+    /**
+     * Obtains the name of the Java type the given declaration is compiled to.
+     */
+    fun nameOf(declaration: KSDeclaration): String {
+        val name = declaration.qualifiedName ?: return declaration.simpleName.asString()
+        return (resolver.mapKotlinNameToJava(name) ?: name).asString()
+    }
+
+    private fun nameOf(type: KSType): String = nameOf(type.declaration)
+
+    private fun javaNameOf(type: KSType): String =
+        if (nameOf(type) == UNIT) VOID else nameOf(type)
+
+    private fun superclassOf(type: KSClassDeclaration): KSClassDeclaration? =
+        type.superTypes
+            .map { it.resolve().declaration }
+            .filterIsInstance<KSClassDeclaration>()
+            .firstOrNull { it.classKind == ClassKind.CLASS }
+
+    private fun returnKindOf(type: KSType?): ReturnKind {
+        if (type == null || nameOf(type) == UNIT) {
+            return ReturnKind.RETURNS_VOID
+        }
+        val declaration = type.declaration as? KSClassDeclaration
+            ?: return ReturnKind.SINGLE_MESSAGE
+        return when {
+            nameOf(declaration) == OPTIONAL_TYPE -> ReturnKind.OPTIONAL
+            declaration.packageName.asString() == TUPLE_PACKAGE -> ReturnKind.TUPLE
+            isIterable(declaration) -> ReturnKind.ITERABLE
+            else -> ReturnKind.SINGLE_MESSAGE
+        }
+    }
+
+    private fun isIterable(declaration: KSClassDeclaration): Boolean {
+        val types = sequenceOf(declaration) + declaration.getAllSuperTypes().map { it.declaration }
+        return types.any { it.qualifiedName?.asString() in ITERABLE_TYPES }
+    }
+
+    private companion object {
+
+        const val OBJECT = "java.lang.Object"
+        const val UNIT = "kotlin.Unit"
+        const val VOID = "void"
+
+        val ITERABLE_TYPES = setOf(
+            "kotlin.collections.Iterable",
+            "kotlin.collections.MutableIterable",
+            "java.lang.Iterable"
+        )
+    }
+}
+
+private fun accessOf(method: KSFunctionDeclaration): AccessLevel =
+    when (method.getVisibility()) {
+        Visibility.PROTECTED -> AccessLevel.PROTECTED
+        Visibility.PRIVATE -> AccessLevel.PRIVATE
+        Visibility.JAVA_PACKAGE -> AccessLevel.PACKAGE_PRIVATE
+        else -> AccessLevel.PUBLIC
+    }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble.ksp
+
+import com.google.common.io.Resources
+import com.google.common.truth.Truth.assertThat
+import com.google.devtools.ksp.processing.SymbolProcessorProvider
+import com.tschuchort.compiletesting.KotlinCompilation.ExitCode.COMPILATION_ERROR
+import com.tschuchort.compiletesting.KotlinCompilation.ExitCode.OK
+import com.tschuchort.compiletesting.SourceFile
+import com.tschuchort.compiletesting.kspSourcesDir
+import io.spine.model.CommandReceivers
+import io.spine.model.ModelUpdate
+import io.spine.model.assemble.AssignLookup.DESTINATION_PATH
+import io.spine.model.assemble.AssignLookup.OUTPUT_OPTION_NAME
+import io.spine.model.assemble.AssignLookup.STORAGE_OPTION_NAME
+import io.spine.model.assemble.ModelFragments.FRAGMENT_PATH
+import io.spine.model.assemble.ModelJournal
+import io.spine.model.assemble.ReceiverIndex
+import io.spine.model.assemble.StorageMode
+import io.spine.model.assemble.ksp.given.NO_RECEIVERS
+import io.spine.model.assemble.ksp.given.ORDERS
+import io.spine.model.assemble.ksp.given.compilation
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import kotlin.text.Charsets.UTF_8
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Nested
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+
+@DisplayName("`KspAssignLookup` should")
+internal class KspAssignLookupTest {
+
+    private lateinit var rootDir: Path
+    private lateinit var modelFile: Path
+
+    @BeforeEach
+    fun setUp(@TempDir rootDir: Path) {
+        this.rootDir = rootDir
+        modelFile = rootDir.resolve(DESTINATION_PATH)
+    }
+
+    @Test
+    @DisplayName("be registered as a symbol processor provider")
+    fun registerProvider() {
+        val registry = Resources.getResource(
+            "META-INF/services/" + SymbolProcessorProvider::class.java.name
+        )
+        val lines = Resources.readLines(registry, UTF_8)
+
+        assertThat(lines).contains(AssignLookupProvider::class.java.name)
+    }
+
+    @Test
+    @DisplayName("report an unknown storage mode")
+    fun rejectUnknownMode() {
+        val result = compile(storage = "unknown", ORDERS)
+
+        assertThat(result.exitCode).isEqualTo(COMPILATION_ERROR)
+        assertThat(result.messages).contains("Unknown value `unknown`")
+    }
+
+    @Nested
+    @DisplayName("in the shared storage mode")
+    internal inner class SharedStorage {
+
+        @Test
+        @DisplayName("record the receivers along with their origins")
+        fun recordReceivers() {
+            assertThat(compile(storage = null, ORDERS).exitCode).isEqualTo(OK)
+
+            val model = readModel()
+            assertThat(model.commandReceivingTypeList).containsExactly("org.example.Orders")
+            assertThat(model.originMap)
+                .containsExactly("org.example.Orders", "org/example/Orders.kt")
+            assertThat(model.receiverList.single().methodList.single().commandType)
+                .isEqualTo("org.example.PlaceOrder")
+        }
+
+        @Test
+        @DisplayName("not rewrite the model file if the model is not changed")
+        fun skipUnchanged() {
+            writeModel("org.example.A", "org.example.B")
+            val modified = FileTime.fromMillis(0)
+            Files.setLastModifiedTime(modelFile, modified)
+
+            assertThat(compile(storage = null, NO_RECEIVERS).exitCode).isEqualTo(OK)
+
+            assertThat(Files.getLastModifiedTime(modelFile)).isEqualTo(modified)
+        }
+
+        @Test
+        @DisplayName("rewrite the model file if the model is changed")
+        fun rewriteChanged() {
+            writeModel("org.example.B", "org.example.A", "org.example.B")
+
+            assertThat(compile(storage = null, NO_RECEIVERS).exitCode).isEqualTo(OK)
+
+            assertThat(readModel().commandReceivingTypeList)
+                .containsExactly("org.example.A", "org.example.B")
+                .inOrder()
+        }
+
+        private fun writeModel(vararg types: String) {
+            val model = CommandReceivers.newBuilder()
+                .addAllCommandReceivingType(types.toList())
+                .build()
+            Files.createDirectories(modelFile.parent)
+            Files.newOutputStream(modelFile).use { model.writeTo(it) }
+        }
+    }
+
+    @Nested
+    @DisplayName("with the module option set")
+    internal inner class ModuleOrigin {
+
+        private val module = ":orders"
+        private val files = setOf("org/example/Orders.kt", "org/example/Catalog.kt")
+
+        @Test
+        @DisplayName("replace the receivers of the module processed as a whole")
+        fun replaceModule() {
+            assertThat(processedOrigins(module, files, files)).containsExactly(module)
+        }
+
+        @Test
+        @DisplayName("keep the receivers of the unchanged files in an incremental compilation")
+        fun keepUnchanged() {
+            val index = ReceiverIndex.empty()
+            index.apply(
+                update(listOf(module), "org.example.Orders", "org.example.Catalog")
+            )
+
+            val changed = setOf("org/example/Orders.kt")
+            index.apply(update(processedOrigins(module, changed, files), "org.example.Orders"))
+
+            assertThat(index.toModel().commandReceivingTypeList)
+                .containsExactly("org.example.Catalog", "org.example.Orders")
+                .inOrder()
+        }
+
+        private fun update(processed: List<String>, vararg types: String): ModelUpdate {
+            val receivers = CommandReceivers.newBuilder()
+                .addAllCommandReceivingType(types.toList())
+                .putAllOrigin(types.associateWith { module })
+            return ModelUpdate.newBuilder()
+                .setReceivers(receivers)
+                .addAllProcessedOrigin(processed)
+                .build()
+        }
+    }
+
+    @Test
+    @DisplayName("append the update to the journal in the journal storage mode")
+    fun appendToJournal() {
+        val result = compile(StorageMode.JOURNAL.optionValue(), ORDERS)
+
+        assertThat(result.exitCode).isEqualTo(OK)
+        assertThat(Files.exists(modelFile)).isFalse()
+        assertThat(ModelJournal(modelFile).read().commandReceivingTypeList)
+            .containsExactly("org.example.Orders")
+    }
+
+    @Test
+    @DisplayName("write a model fragment in the fragment storage mode")
+    fun writeFragment() {
+        val compilation = compilation(
+            rootDir, AssignLookupProvider(), options(StorageMode.FRAGMENT.optionValue()), ORDERS
+        )
+
+        assertThat(compilation.compile().exitCode).isEqualTo(OK)
+
+        val fragment = compilation.kspSourcesDir
+            .resolve("resources")
+            .resolve(FRAGMENT_PATH)
+        val model = CommandReceivers.parseFrom(fragment.readBytes())
+        assertThat(model.commandReceivingTypeList).containsExactly("org.example.Orders")
+        assertThat(Files.exists(modelFile)).isFalse()
+    }
+
+    private fun compile(storage: String?, vararg sources: SourceFile) =
+        compilation(rootDir, AssignLookupProvider(), options(storage), *sources).compile()
+
+    private fun options(storage: String?): Map<String, String> {
+        val result = mutableMapOf(OUTPUT_OPTION_NAME to rootDir.toString())
+        storage?.let { result[STORAGE_OPTION_NAME] = it }
+        return result
+    }
+
+    private fun readModel(): CommandReceivers =
+        Files.newInputStream(modelFile).use { CommandReceivers.parseFrom(it) }
+}
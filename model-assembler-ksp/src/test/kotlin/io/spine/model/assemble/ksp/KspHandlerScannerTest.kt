@@ -0,0 +1,168 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble.ksp
+
+import com.google.common.truth.Truth.assertThat
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.processing.SymbolProcessor
+import com.google.devtools.ksp.processing.SymbolProcessorEnvironment
+import com.google.devtools.ksp.processing.SymbolProcessorProvider
+import com.google.devtools.ksp.symbol.KSAnnotated
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.symbol.KSFunctionDeclaration
+import com.tschuchort.compiletesting.KotlinCompilation.ExitCode.OK
+import com.tschuchort.compiletesting.SourceFile
+import io.spine.model.AccessLevel
+import io.spine.model.CommandHandlerMethod
+import io.spine.model.CommandReceiver
+import io.spine.model.ReceiverKind
+import io.spine.model.ReturnKind
+import io.spine.model.assemble.HandlerConventions.ASSIGN_ANNOTATION
+import io.spine.model.assemble.ksp.given.compilation
+import java.nio.file.Path
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.DisplayName
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+
+@DisplayName("`KspHandlerScanner` should")
+internal class KspHandlerScannerTest {
+
+    private lateinit var receiver: CommandReceiver
+
+    @BeforeEach
+    fun scan(@TempDir workingDir: Path) {
+        val provider = ScanningProvider()
+        val result = compilation(workingDir, provider, mapOf(), ORDERS).compile()
+        assertThat(result.exitCode).isEqualTo(OK)
+        receiver = provider.receivers.getValue("org.example.Orders").build()
+    }
+
+    @Test
+    @DisplayName("record the superclasses and the kind of the receiver")
+    fun recordReceiver() {
+        assertThat(receiver.superclassList)
+            .containsExactly("io.spine.server.command.AbstractAssignee")
+        assertThat(receiver.kind).isEqualTo(ReceiverKind.ASSIGNEE)
+    }
+
+    @Test
+    @DisplayName("record the signature of a handler")
+    fun recordSignature() {
+        val place = method("place")
+
+        assertThat(place.parameterTypeList).containsExactly("org.example.PlaceOrder")
+        assertThat(place.commandType).isEqualTo("org.example.PlaceOrder")
+        assertThat(place.returnType).isEqualTo("org.example.OrderPlaced")
+        assertThat(place.returnKind).isEqualTo(ReturnKind.SINGLE_MESSAGE)
+        assertThat(place.access).isEqualTo(AccessLevel.PUBLIC)
+    }
+
+    @Test
+    @DisplayName("record a handler returning `Unit` as returning `void`")
+    fun recordUnit() {
+        val cancel = method("cancel")
+
+        assertThat(cancel.returnType).isEqualTo("void")
+        assertThat(cancel.returnKind).isEqualTo(ReturnKind.RETURNS_VOID)
+        assertThat(cancel.access).isEqualTo(AccessLevel.PROTECTED)
+    }
+
+    @Test
+    @DisplayName("record the checked exceptions declared by a handler")
+    fun recordThrown() {
+        assertThat(method("cancel").thrownTypeList)
+            .containsExactly("org.example.OrderRejection")
+    }
+
+    @Test
+    @DisplayName("record the Java types of a handler returning a Kotlin collection")
+    fun recordIterable() {
+        val split = method("split")
+
+        assertThat(split.parameterTypeList)
+            .containsExactly("org.example.SplitOrder", "io.spine.core.CommandContext")
+            .inOrder()
+        assertThat(split.returnType).isEqualTo("java.util.List")
+        assertThat(split.returnKind).isEqualTo(ReturnKind.ITERABLE)
+    }
+
+    private fun method(name: String): CommandHandlerMethod =
+        receiver.methodList.single { it.name == name }
+
+    /**
+     * Collects the receivers found by [KspHandlerScanner] in a compilation.
+     */
+    private class ScanningProvider : SymbolProcessorProvider {
+
+        val receivers = mutableMapOf<String, CommandReceiver.Builder>()
+
+        override fun create(environment: SymbolProcessorEnvironment): SymbolProcessor =
+            object : SymbolProcessor {
+                override fun process(resolver: Resolver): List<KSAnnotated> {
+                    val scanner = KspHandlerScanner(resolver)
+                    resolver.getSymbolsWithAnnotation(ASSIGN_ANNOTATION)
+                        .filterIsInstance<KSFunctionDeclaration>()
+                        .forEach { method ->
+                            val type = method.parentDeclaration as KSClassDeclaration
+                            receivers.getOrPut(scanner.nameOf(type)) { scanner.receiverOf(type) }
+                                .addMethod(scanner.methodOf(method))
+                        }
+                    return listOf()
+                }
+            }
+    }
+
+    private companion object {
+
+        val ORDERS: SourceFile = SourceFile.kotlin(
+            "Orders.kt", """
+            package org.example
+
+            import io.spine.core.CommandContext
+            import io.spine.server.command.AbstractAssignee
+            import io.spine.server.command.Assign
+
+            open class Orders : AbstractAssignee() {
+
+                @Assign
+                fun place(command: PlaceOrder): OrderPlaced = OrderPlaced()
+
+                @Assign
+                @Throws(OrderRejection::class)
+                protected fun cancel(command: CancelOrder) {
+                    throw OrderRejection()
+                }
+
+                @Assign
+                fun split(command: SplitOrder, context: CommandContext): List<OrderPlaced> =
+                    listOf(OrderPlaced(), OrderPlaced())
+            }
+            """.trimIndent()
+        )
+    }
+}
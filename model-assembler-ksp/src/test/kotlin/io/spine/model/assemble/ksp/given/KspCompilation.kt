@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble.ksp.given
+
+import com.google.devtools.ksp.processing.SymbolProcessorProvider
+import com.tschuchort.compiletesting.KotlinCompilation
+import com.tschuchort.compiletesting.SourceFile
+import com.tschuchort.compiletesting.kspArgs
+import com.tschuchort.compiletesting.symbolProcessorProviders
+import java.nio.file.Path
+
+/**
+ * Creates a compilation of the given Kotlin sources by the given symbol processor.
+ *
+ * The sources are compiled along with the stubs of the Spine types the receivers refer to.
+ */
+internal fun compilation(
+    workingDir: Path,
+    provider: SymbolProcessorProvider,
+    options: Map<String, String>,
+    vararg sources: SourceFile
+): KotlinCompilation = KotlinCompilation().apply {
+    this.workingDir = workingDir.resolve("compilation").toFile()
+    this.sources = STUBS + sources
+    symbolProcessorProviders = listOf(provider)
+    kspArgs = options.toMutableMap()
+    inheritClassPath = true
+}
+
+/**
+ * The receiver handling the `PlaceOrder` command.
+ */
+internal val ORDERS: SourceFile = SourceFile.kotlin(
+    "Orders.kt", """
+    package org.example
+
+    import io.spine.server.command.AbstractAssignee
+    import io.spine.server.command.Assign
+
+    class Orders : AbstractAssignee() {
+
+        @Assign
+        fun place(command: PlaceOrder): OrderPlaced = OrderPlaced()
+    }
+    """.trimIndent()
+)
+
+/**
+ * A source file without command receivers.
+ */
+internal val NO_RECEIVERS: SourceFile = SourceFile.kotlin(
+    "Catalog.kt", """
+    package org.example
+
+    class Catalog
+    """.trimIndent()
+)
+
+private val STUBS: List<SourceFile> = listOf(
+    SourceFile.kotlin(
+        "Assign.kt", """
+        package io.spine.server.command
+
+        annotation class Assign
+        """.trimIndent()
+    ),
+    SourceFile.kotlin(
+        "AbstractAssignee.kt", """
+        package io.spine.server.command
+
+        abstract class AbstractAssignee
+        """.trimIndent()
+    ),
+    SourceFile.kotlin(
+        "CommandContext.kt", """
+        package io.spine.core
+
+        class CommandContext
+        """.trimIndent()
+    ),
+    SourceFile.kotlin(
+        "Messages.kt", """
+        package org.example
+
+        class PlaceOrder
+        class CancelOrder
+        class SplitOrder
+        class OrderPlaced
+        class OrderRejection : Exception()
+        """.trimIndent()
+    )
+)
@@ -24,15 +24,210 @@
  * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import io.spine.internal.dependency.JavaPoet
 import io.spine.internal.dependency.Spine
+import io.spine.internal.gradle.publish.SpinePublishing
+import java.util.zip.ZipFile
 
 plugins {
+    `maven-publish`
     `detekt-code-analysis`
+    id("com.github.johnrengelman.shadow").version("7.1.2")
 }
 
 dependencies {
     val spine = Spine(project)
-    implementation(spine.server)
+    api(project(":model-runtime"))
+    implementation(spine.base)
     implementation(spine.validation.runtime)
+    implementation(JavaPoet.lib)
     testImplementation(spine.testlib)
 }
+
+/** The publishing settings from the root project. */
+val spinePublishing = rootProject.the<SpinePublishing>()
+
+/**
+ * The ID of the slim artifact to be put on the annotation processor path.
+ *
+ * Unlike `model-check-bundle`, the artifact contains neither the Spine server nor
+ * the Gradle plugin, and has no dependencies.
+ */
+val processorArtifact = spinePublishing.artifactPrefix + "model-check-processor"
+
+/**
+ * The package under which the bundled third-party libraries are relocated.
+ *
+ * Relocating the libraries makes sure the processor does not clash with the other
+ * processors sharing the same class loader.
+ */
+val shadedPackage = "io.spine.model.assemble.shaded"
+
+/**
+ * The maximum size of the slim processor artifact in bytes.
+ *
+ * The [measureProcessorFootprint] task fails if the artifact is larger, so that a new
+ * dependency or a dropped keep rule does not bloat the JAR put on every processor path.
+ * Override with `-PprocessorSizeBudget=<bytes>`.
+ */
+val processorSizeBudget = (findProperty("processorSizeBudget") as String?)?.toLong()
+    ?: (6L * 1024 * 1024)
+
+publishing {
+    publications {
+        create("processor", MavenPublication::class) {
+            artifactId = processorArtifact
+            artifact(tasks.shadowJar) {
+                classifier = null
+            }
+        }
+    }
+}
+
+tasks.shadowJar {
+    archiveClassifier.set("processor")
+
+    /**
+     * Drop the classes unreachable from the processor.
+     *
+     * The keep rules list the dependencies of which the classes are loaded only by name.
+     * The Flogger API looks up its backend by the class name, so the backend is kept whole.
+     * The rest of Flogger, the Spine libraries, Protobuf, Guava, and JavaPoet are referenced
+     * from the code directly and are minimized.
+     */
+    minimize {
+        exclude(dependency("com.google.flogger:flogger-system-backend:.*"))
+    }
+
+    relocate("com.google.protobuf", "$shadedPackage.com.google.protobuf")
+    relocate("com.google.common", "$shadedPackage.com.google.common") {
+        exclude("com.google.common.flogger.**")
+    }
+    relocate("com.google.thirdparty", "$shadedPackage.com.google.thirdparty")
+    relocate("com.squareup.javapoet", "$shadedPackage.com.squareup.javapoet")
+
+    exclude(
+        /**
+         * Exclude the annotations which are not needed at runtime.
+         */
+        "org/checkerframework/**",
+        "com/google/errorprone/**",
+        "com/google/j2objc/**",
+        "javax/annotation/*",
+        "javax/annotation/concurrent/**",
+
+        /**
+         * Exclude Kotlin runtime.
+         */
+        "kotlin/**",
+        "META-INF/*.kotlin_module",
+
+        /**
+         * Exclude the Protobuf definitions of the well-known types.
+         *
+         * The compiled descriptors are available from the bundled Protobuf runtime.
+         */
+        "google/protobuf/**",
+
+        /**
+         * Exclude the providers of the custom Protobuf options.
+         *
+         * The processor does not parse the options, and the minimization does not keep
+         * the providers, which are found by the service loader.
+         */
+        "META-INF/services/io.spine.option.OptionsProvider"
+    )
+
+    mergeServiceFiles("desc.ref")
+}
+
+tasks.publish {
+    dependsOn(tasks.shadowJar)
+}
+
+/**
+ * Measures the footprint of the slim processor artifact.
+ *
+ * Runs `javac` with the artifact on the processor path over a single command receiver and
+ * counts the classes loaded from the artifact. The report is written to
+ * `build/reports/processor/footprint.txt` along with the size of the artifact and
+ * the number of its entries.
+ *
+ * The compilation also checks that the minimized artifact has all the classes the processor
+ * needs. The task fails if the compilation fails, or if the artifact exceeds
+ * the [processorSizeBudget].
+ */
+val measureProcessorFootprint by tasks.registering(Exec::class) {
+    group = "verification"
+    description = "Measures the class-loading footprint of the slim processor artifact."
+
+    val processorJar = tasks.shadowJar.flatMap { it.archiveFile }
+    val workDir = layout.buildDirectory.dir("tmp/processor-footprint")
+    val report = layout.buildDirectory.file("reports/processor/footprint.txt")
+    val toolchain = the<JavaPluginExtension>().toolchain
+    val javac = the<JavaToolchainService>().compilerFor(toolchain)
+        .map { it.executablePath.asFile.absolutePath }
+
+    inputs.file(processorJar)
+    inputs.property("budget", processorSizeBudget)
+    outputs.file(report)
+
+    doFirst {
+        val dir = workDir.get().asFile
+        dir.deleteRecursively()
+        dir.mkdirs()
+        val assign = dir.resolve("io/spine/server/command/Assign.java")
+        assign.parentFile.mkdirs()
+        assign.writeText("package io.spine.server.command;\npublic @interface Assign {}\n")
+        val receiver = dir.resolve("Orders.java")
+        receiver.writeText(
+            "class Orders { @io.spine.server.command.Assign void place(String command) {} }\n"
+        )
+        val jar = processorJar.get().asFile
+        commandLine(
+            javac.get(),
+            "-J-Xlog:class+load=info:file=${dir.resolve("classes.log")}",
+            "-proc:only",
+            "-processorpath", jar.absolutePath,
+            "-processor", "io.spine.model.assemble.AssignLookup",
+            "-AspineDirRoot=${dir.absolutePath}",
+            "-d", dir.absolutePath,
+            receiver.absolutePath,
+            assign.absolutePath
+        )
+    }
+
+    doLast {
+        val dir = workDir.get().asFile
+        val jar = processorJar.get().asFile
+        val loaded = dir.resolve("classes.log")
+            .readLines()
+            .count { it.contains(jar.name) }
+        val (entries, classes) = ZipFile(jar).use { zip ->
+            val names = zip.entries().toList().map { it.name }
+            names.size to names.count { it.endsWith(".class") }
+        }
+        val text = """
+            artifact: ${jar.name}
+            size.bytes: ${jar.length()}
+            entries: $entries
+            classes: $classes
+            classes.loaded: $loaded
+        """.trimIndent()
+        report.get().asFile.run {
+            parentFile.mkdirs()
+            writeText(text + System.lineSeparator())
+        }
+        logger.lifecycle(text)
+        if (jar.length() > processorSizeBudget) {
+            throw GradleException(
+                "The processor artifact `${jar.name}` takes ${jar.length()} bytes, " +
+                        "which exceeds the budget of $processorSizeBudget bytes."
+            )
+        }
+    }
+}
+
+tasks.check {
+    dependsOn(measureProcessorFootprint)
+}
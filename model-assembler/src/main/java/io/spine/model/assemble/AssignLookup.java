@@ -27,47 +27,144 @@
 package io.spine.model.assemble;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.spine.annotation.Internal;
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
 import io.spine.model.CommandReceivers;
-import io.spine.server.command.Assign;
+import io.spine.model.ModelUpdate;
+import io.spine.model.SnapshotEntry;
+import io.spine.model.runtime.DispatcherRegistry;
+import io.spine.model.runtime.ModelSnapshots;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.lang.annotation.Annotation;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
-import static com.google.common.collect.Sets.newTreeSet;
-import static io.spine.io.Ensure.ensureFile;
-import static io.spine.io.Files2.existsNonEmpty;
+import static com.google.common.collect.Maps.newTreeMap;
+import static io.spine.model.assemble.HandlerConventions.ASSIGN_ANNOTATION;
+import static io.spine.model.assemble.ModelBytes.toBytes;
+import static io.spine.model.assemble.ModelFragments.FRAGMENT_PATH;
 import static io.spine.protobuf.Messages.isDefault;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toList;
+import static javax.tools.StandardLocation.CLASS_OUTPUT;
+import static javax.tools.StandardLocation.CLASS_PATH;
 
 /**
- * An annotation processor for the {@link Assign @Assign} annotation.
+ * An annotation processor for the {@code @io.spine.server.command.Assign} annotation.
  *
- * <p>Collects the types, which contain methods {@linkplain Assign assigned} to handle commands
+ * <p>Collects the types, which contain methods assigned to handle commands
  * and writes them into the {@code ${spineDirRoot}/.spine/spine_model.ser} file,
  * where "{@code spineDirRoot}" is the value of the <b>spineDirRoot</b> annotator option.
  *
- * <p><b>spineDirRoot</b> is the only supported option of the processor.
- * Use {@code javac -AspineDirRoot=/path/to/project/root [...]} to set the value of the option.
+ * <p>Use {@code javac -AspineDirRoot=/path/to/project/root [...]} to set the value of the option.
  * If none is set, the option will default to current directory (denoted with "{@code ./}").
+ *
+ * <p>Alternatively, the model may be written into the class output of each compilation.
+ * To do so, pass {@code -AspineModelStorage=fragment}. In this mode, every compilation writes
+ * its own fragment of the model through the {@link javax.annotation.processing.Filer Filer},
+ * so that parallel compilations do not contend on a single file, and the fragment is shipped
+ * inside the module JAR. See {@link ModelFragments} for reading the fragments.
+ *
+ * <p>With {@code -AspineModelStorage=journal}, each compilation appends its part of the model
+ * to the journal residing next to {@code spine_model.ser} instead of rewriting the whole file.
+ * See {@link ModelJournal} for details.
+ *
+ * <p>Along with the names of the receiving types, the processor records their kinds,
+ * superclasses, and the signatures of the command handling methods, so that the tools could
+ * work with the model without loading the classes.
+ *
+ * <p>If a {@link ModelDaemon} serves the shared model file, the compilations send their
+ * updates to the daemon instead of writing the file or the journal. If the daemon does not
+ * answer, the update is appended to the journal, which the daemon drains. If the daemon is not
+ * running, the file is used directly.
+ *
+ * <p>With {@code -AspineGenerateDispatchers=true}, the processor generates a dispatcher class
+ * for each receiver, which calls the handler methods without reflection, and writes
+ * the {@linkplain DispatcherRegistry registry} of the generated dispatchers into the class
+ * output. The receivers with the handlers which cannot be called from the generated code,
+ * such as the {@code private} ones, are left to the reflective dispatching.
+ *
+ * <p>With {@code -AspineModelSnapshot=true}, the processor writes the {@linkplain ModelSnapshots
+ * snapshot} of the receivers found by the compilation into the class output, so that
+ * the runtime could obtain the handler metadata without scanning the classes reflectively.
+ *
+ * <p>With {@code -AspineCheckDuplicateHandlers=true}, the processor reports an error against
+ * each handler method of a command type which is already handled by another method. Both
+ * the methods found by the compilation and the methods recorded in the shared model by
+ * the compilations of other modules are taken into account. In the fragment mode, the methods
+ * of other modules are read from their fragments on the classpath.
+ *
+ * <p>For each receiver, the processor records its origin. If the {@code spineModule} option is
+ * set, its value is used as the origin of all the receivers found by the compilation. Otherwise,
+ * the origin is the path to the source file declaring the receiver, relative to the source root.
+ * When the model is merged, the previously recorded receivers of the origins processed by
+ * the compilation, which were not found again, are dropped. Since deleted source files are
+ * not processed by the compilation, passing the name of the module is required to drop
+ * the receivers of the deleted files.
+ *
+ * <p>The processor is registered as a
+ * <a href="https://docs.gradle.org/current/userguide/java_plugin.html#sec:incremental_annotation_processing">
+ * dynamic</a> incremental annotation processor. In the fragment mode, all its outputs are
+ * written through the {@code Filer}, and it reports itself to Gradle as an aggregating one, so
+ * that Gradle keeps the Java compilation incremental for the modules which use it. For each
+ * recorded receiver, the processor memoizes the {@linkplain #originatingElements() originating
+ * type}. In the other modes, the processor writes the model outside of the {@code Filer},
+ * which Gradle cannot track. So, the processor does not report itself as incremental, and
+ * Gradle recompiles the whole module when any of its sources changes.
  */
 public class AssignLookup extends ModelAnnotationProcessor {
 
     @Internal
     public static final String DESTINATION_PATH = ".spine/spine_model.ser";
+    @Internal
+    public static final String OUTPUT_OPTION_NAME = "spineDirRoot";
+    @Internal
+    public static final String DEFAULT_OUTPUT_OPTION = ".";
+    @Internal
+    public static final String STORAGE_OPTION_NAME = "spineModelStorage";
+    @Internal
+    public static final String MODULE_OPTION_NAME = "spineModule";
+    @VisibleForTesting
+    static final String DUPLICATES_OPTION_NAME = "spineCheckDuplicateHandlers";
+    @VisibleForTesting
+    static final String DISPATCHERS_OPTION_NAME = "spineGenerateDispatchers";
+    @VisibleForTesting
+    static final String SNAPSHOT_OPTION_NAME = "spineModelSnapshot";
+
+    /**
+     * The name of the phase of sorting the found receivers and dropping their duplicates.
+     */
+    private static final String DEDUP_PHASE = "dedup";
+
+    /**
+     * The name of the phase of sending the update to the model daemon.
+     */
+    private static final String DAEMON_PHASE = "daemon";
+
+    /**
+     * The option by which a dynamic incremental annotation processor tells Gradle it is
+     * an aggregating one.
+     */
     @VisibleForTesting
-    static final String OUTPUT_OPTION_NAME = "spineDirRoot";
-    private static final String DEFAULT_OUTPUT_OPTION = ".";
+    static final String GRADLE_AGGREGATING_OPTION = "org.gradle.annotation.processing.aggregating";
+
 
     /**
-     * List of {@linkplain io.spine.server.command.Assignee assignee}s.
+     * List of {@code io.spine.server.command.Assignee}s.
      *
      * @implNote The type of this field implies that it can store {@code CommandReceiver}s,
      *           which could be either {@code Assignee} or {@code Commander}. But we are
@@ -75,119 +172,527 @@ public class AssignLookup extends ModelAnnotationProcessor {
      */
     private final CommandReceivers.Builder assignees = CommandReceivers.newBuilder();
 
+    /**
+     * The types declaring the command receiving methods, mapped by their fully-qualified names.
+     */
+    private final Map<String, TypeElement> originatingElements = newTreeMap();
+
+    /**
+     * The details of the command receiving types, mapped by their fully-qualified names.
+     */
+    private final Map<String, CommandReceiver.Builder> receivers = newTreeMap();
+
+    /**
+     * The scanner of the handler methods, created lazily when the first method is processed.
+     */
+    private @MonotonicNonNull HandlerScanner scanner;
+
+    /**
+     * The source files of the compiled types, created lazily when the first origin
+     * is obtained.
+     */
+    private @MonotonicNonNull SourceFiles sourceFiles;
+
+    /**
+     * The handlers known to this processor, created lazily if the check for duplicate
+     * handlers is enabled.
+     */
+    private @MonotonicNonNull DuplicateHandlers handlers;
+
+    /**
+     * The generator of the dispatchers, created lazily if the generation is enabled.
+     */
+    private @MonotonicNonNull DispatcherGenerator generator;
+
+    /**
+     * The binary names of the generated dispatchers, mapped by the binary names of
+     * their receivers.
+     */
+    private final Map<String, String> dispatchers = newTreeMap();
+
+    /**
+     * The receivers for which the dispatchers are generated.
+     */
+    private final Set<TypeElement> dispatchedReceivers = new LinkedHashSet<>();
+
     @Override
-    protected Class<? extends Annotation> getAnnotationType() {
-        return Assign.class;
+    protected ImmutableSet<String> getAnnotationTypes() {
+        return ImmutableSet.of(ASSIGN_ANNOTATION);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In the fragment mode, the options of an initialized processor include
+     * the {@linkplain #GRADLE_AGGREGATING_OPTION option} telling Gradle the processor is
+     * an aggregating incremental one.
+     */
     @Override
     public Set<String> getSupportedOptions() {
         var result = ImmutableSet.<String>builder()
                 .addAll(super.getSupportedOptions())
-                .add(OUTPUT_OPTION_NAME);
+                .add(OUTPUT_OPTION_NAME)
+                .add(STORAGE_OPTION_NAME)
+                .add(MODULE_OPTION_NAME)
+                .add(DUPLICATES_OPTION_NAME)
+                .add(DISPATCHERS_OPTION_NAME)
+                .add(SNAPSHOT_OPTION_NAME);
+        if (isInitialized() && writesFragments()) {
+            result.add(GRADLE_AGGREGATING_OPTION);
+        }
         return result.build();
     }
 
-    @SuppressWarnings("CheckReturnValue") // calling builder
-    @Override
-    protected void processElement(Element element) {
-        var enclosingTypeElement = (TypeElement) element.getEnclosingElement();
-        var typeName = enclosingTypeElement.getQualifiedName()
-                                           .toString();
-        assignees.addCommandReceivingType(typeName);
+    /**
+     * Tells if the model is written into the class output in the fragment mode.
+     *
+     * <p>Unlike {@link #storageMode()}, does not report an unknown mode, as it is called
+     * by the build tools along with the other options.
+     */
+    private boolean writesFragments() {
+        return getOption(STORAGE_OPTION_NAME)
+                .flatMap(StorageMode::forOptionValue)
+                .filter(StorageMode.FRAGMENT::equals)
+                .isPresent();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Records the types declaring the {@code @Assign} methods, and the signatures of
+     * the methods.
+     *
+     * <p>If the check for duplicate handlers is enabled, reports an error if the command
+     * handled by a method is already handled by another method.
+     */
     @Override
-    protected void onRoundFinished() {
-        var spineOutput = getOption(OUTPUT_OPTION_NAME).orElse(DEFAULT_OUTPUT_OPTION);
-        var fileName = spineOutput + '/' + DESTINATION_PATH;
-        var serializedModelStorage = new File(fileName);
-        mergeOldAssigneesFrom(serializedModelStorage);
-        writeAssigneesTo(serializedModelStorage);
+    protected void processBatch(ElementBatch batch) {
+        for (var type : batch.types()) {
+            var methods = batch.elementsOf(type, ASSIGN_ANNOTATION);
+            if (!methods.isEmpty()) {
+                processReceiver(type, methods);
+            }
+        }
+    }
+
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    private void processReceiver(TypeElement type, ImmutableList<Element> methods) {
+        var typeName = type.getQualifiedName()
+                           .toString();
+        assignees.addCommandReceivingType(typeName)
+                 .putOrigin(typeName, originOf(type));
+        originatingElements.put(typeName, type);
+        var receiver = receivers.computeIfAbsent(typeName, name -> scanner().receiverOf(type));
+        for (var element : methods) {
+            var method = scanner().methodOf((ExecutableElement) element);
+            receiver.addMethod(method);
+            if (checksDuplicates()) {
+                checkDuplicate(typeName, method, element);
+            }
+        }
+        if (generatesDispatchers()) {
+            generateDispatcher(type, methods);
+        }
+    }
+
+    private boolean generatesDispatchers() {
+        var value = getOption(DISPATCHERS_OPTION_NAME).orElse(Boolean.FALSE.toString());
+        return Boolean.parseBoolean(value);
     }
 
     /**
-     * Merges the currently built {@link AssignLookup#assignees} with the pre-built one.
+     * Generates the dispatcher of the given receiver, if the receiver can be dispatched
+     * without reflection.
      *
-     * <p>If the file exists and is not empty, the message of type {@link CommandReceivers} is
-     * read from it and merged with the current {@code assignees} by the rules of
-     * {@link com.google.protobuf.Message.Builder#mergeFrom(com.google.protobuf.Message)
-     * Message.Builder.mergeFrom()}.
+     * @see DispatcherGenerator
+     */
+    private void generateDispatcher(TypeElement type, ImmutableList<Element> methods) {
+        var handlers = methods.stream()
+                              .map(ExecutableElement.class::cast)
+                              .collect(toList());
+        var file = generator().generate(type, handlers);
+        if (file.isEmpty()) {
+            return;
+        }
+        var javaFile = file.get();
+        try {
+            javaFile.writeTo(filer());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        var receiver = processingEnv.getElementUtils()
+                                    .getBinaryName(type)
+                                    .toString();
+        dispatchers.put(receiver, javaFile.packageName.isEmpty()
+                                  ? javaFile.typeSpec.name
+                                  : javaFile.packageName + '.' + javaFile.typeSpec.name);
+        dispatchedReceivers.add(type);
+    }
+
+    private DispatcherGenerator generator() {
+        if (generator == null) {
+            generator = new DispatcherGenerator(processingEnv);
+        }
+        return generator;
+    }
+
+    private boolean checksDuplicates() {
+        var value = getOption(DUPLICATES_OPTION_NAME).orElse(Boolean.FALSE.toString());
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Reports an error against the given element if the command handled by the given method
+     * is already handled by another known method.
+     */
+    private void checkDuplicate(String receiver, CommandHandlerMethod method, Element element) {
+        handlers().register(receiver, method)
+                  .ifPresent(registered -> error(format(
+                          "The command `%s` is already handled by `%s`.",
+                          method.getCommandType(), registered), element));
+    }
+
+    /**
+     * Obtains the handlers known to this processor.
      *
-     * @param file
-     *         the file, which may or may not contain the pre-assembled {@code assignees}
+     * <p>When first called, registers the handlers of the model recorded by the previous
+     * compilations, except the receivers of the origins processed by this compilation,
+     * which are to be found again.
      */
-    @SuppressWarnings("CheckReturnValue") // calling builder
-    private void mergeOldAssigneesFrom(File file) {
-        var fileWithData = existsNonEmpty(file);
-        if (fileWithData) {
-            var preexistingModel = readExisting(file);
-            assignees.mergeFrom(preexistingModel);
+    private DuplicateHandlers handlers() {
+        if (handlers == null) {
+            var recorded = ReceiverIndex.of(recordedModel());
+            recorded.apply(ModelUpdate.newBuilder()
+                                   .addAllProcessedOrigin(processedOrigins())
+                                   .build());
+            handlers = DuplicateHandlers.of(recorded.toModel());
         }
+        return handlers;
     }
 
     /**
-     * Writes the {@link AssignLookup#assignees} to the given file.
+     * Reads the model recorded by the previous compilations in the selected storage.
      *
-     * <p>If the given file does not exist, this method creates it.
+     * <p>In the {@linkplain StorageMode#FRAGMENT fragment} mode, the model is merged from
+     * the {@linkplain #classpathFragments() fragments} of other modules on the classpath.
+     */
+    private CommandReceivers recordedModel() {
+        var mode = storageMode();
+        var journal = new ModelJournal(sharedModelFile().toPath());
+        switch (mode) {
+            case JOURNAL:
+                return journal.read();
+            case SHARED:
+                // The journal may hold the updates not yet drained by the model daemon.
+                return journal.hasRecords() ? journal.read() : sharedModel().read();
+            case FRAGMENT:
+                return classpathFragments();
+            default:
+                return CommandReceivers.getDefaultInstance();
+        }
+    }
+
+    /**
+     * Reads and merges the model fragments of other modules found on the classpath.
+     *
+     * <p>The {@link javax.annotation.processing.Filer Filer} finds only the first fragment on
+     * the compilation classpath. So, the fragments visible to the class loader of this processor
+     * are merged too, which covers the builds putting the dependencies of the module onto
+     * the processor path.
+     */
+    private CommandReceivers classpathFragments() {
+        var index = ReceiverIndex.of(ModelFragments.collect(AssignLookup.class.getClassLoader()));
+        try {
+            var resource = filer().getResource(CLASS_PATH, "", FRAGMENT_PATH);
+            try (var in = resource.openInputStream()) {
+                index.merge(CommandReceivers.parseFrom(in));
+            }
+        } catch (FileNotFoundException | IllegalArgumentException ignored) {
+            // There is no fragment on the classpath, or the compiler does not look it up.
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Unable to read the model fragment from the classpath.", e);
+        }
+        return index.toModel();
+    }
+
+    private HandlerScanner scanner() {
+        if (scanner == null) {
+            scanner = new HandlerScanner(processingEnv);
+        }
+        return scanner;
+    }
+
+    /**
+     * Obtains the origin of the given type.
+     *
+     * <p>The origin is the value of the {@code spineModule} option, if it is set.
+     * Otherwise, it is the source file of the type.
+     */
+    private String originOf(TypeElement type) {
+        return getOption(MODULE_OPTION_NAME).orElseGet(() -> sourceFileOf(type));
+    }
+
+    /**
+     * Obtains the path to the source file declaring the given type, relative to
+     * the source root.
+     */
+    private String sourceFileOf(TypeElement type) {
+        if (sourceFiles == null) {
+            sourceFiles = new SourceFiles(processingEnv);
+        }
+        return sourceFiles.pathOf(type);
+    }
+
+    /**
+     * Creates the update of the model made by this compilation.
      *
-     * <p>The written {@code assignees} will be cleaned from duplications in the repeated fields.
+     * <p>The update contains the receivers found in all the processing rounds. The processed
+     * origins are the module, if the {@code spineModule} option is set, or the source files of
+     * the {@linkplain #rootTypes() compiled types} otherwise.
+     */
+    private ModelUpdate update() {
+        var details = receivers.values()
+                               .stream()
+                               .map(CommandReceiver.Builder::build)
+                               .collect(toList());
+        var found = assignees.build()
+                             .toBuilder()
+                             .addAllReceiver(details)
+                             .build();
+        var index = stats().measure(DEDUP_PHASE, () -> ReceiverIndex.of(found));
+        var result = ModelUpdate.newBuilder()
+                .setReceivers(index.toModel())
+                .addAllProcessedOrigin(processedOrigins())
+                .build();
+        return result;
+    }
+
+    /**
+     * Obtains the origins processed by this compilation.
+     */
+    private Set<String> processedOrigins() {
+        var module = getOption(MODULE_OPTION_NAME);
+        Set<String> result = module.isPresent()
+                             ? ImmutableSet.of(module.get())
+                             : rootTypes().stream()
+                                          .map(this::sourceFileOf)
+                                          .collect(toCollection(TreeSet::new));
+        return result;
+    }
+
+    /**
+     * Obtains the types which contributed the command receivers recorded by this processor.
      *
-     * <p>The I/O errors are handled by rethrowing them as {@link IllegalStateException}.
+     * <p>The returned elements are ordered by their fully-qualified names.
+     */
+    ImmutableList<TypeElement> originatingElements() {
+        return ImmutableList.copyOf(originatingElements.values());
+    }
+
+    /**
+     * {@inheritDoc}
      *
-     * @param file
-     *         an existing file to write the {@code assignees} into
+     * <p>The receivers found in all the rounds are accumulated in memory and are flushed
+     * to the selected storage only once, when the processing is over.
      */
-    private void writeAssigneesTo(File file) {
-        ensureFile(file);
-        removeDuplicates();
-        var serializedModel = assignees.build();
-        if (!isDefault(serializedModel)) {
-            try (var out = new FileOutputStream(file)) {
-                serializedModel.writeTo(out);
-            } catch (IOException e) {
-                throw new IllegalStateException(e);
+    @Override
+    protected void onProcessingOver() {
+        if (!dispatchers.isEmpty()) {
+            writeDispatcherRegistry();
+        }
+        if (writesSnapshot() && !receivers.isEmpty()) {
+            writeSnapshot();
+        }
+        var mode = storageMode();
+        if (mode != StorageMode.FRAGMENT && servedByDaemon()) {
+            if (!sendToDaemon()) {
+                appendToJournal();
             }
+            return;
+        }
+        switch (mode) {
+            case FRAGMENT:
+                writeFragment();
+                break;
+            case JOURNAL:
+                appendToJournal();
+                break;
+            case SHARED:
+            default:
+                writeSharedModel();
         }
     }
 
     /**
-     * Cleans the currently built {@link AssignLookup#assignees} from the duplicates.
+     * Tells if a {@link ModelDaemon} serves the shared model file.
+     */
+    private boolean servedByDaemon() {
+        return ModelDaemon.isRunning(sharedModelFile().toPath());
+    }
+
+    /**
+     * Sends the {@linkplain #update() update} made by this compilation to
+     * the {@link ModelDaemon} serving the shared model file.
      *
-     * <p>Calling this method will cause the current list of assignees not to contain
-     * duplicate entries in any {@code repeated} field.
+     * @return {@code true} if the daemon has written the update, {@code false} if
+     *         the daemon did not answer or rejected the update
      */
-    @SuppressWarnings("CheckReturnValue") // calling builder
-    private void removeDuplicates() {
-        var list = assignees.getCommandReceivingTypeList();
-        Set<String> types = newTreeSet(list);
-        assignees.clearCommandReceivingType()
-                 .addAllCommandReceivingType(types);
+    private boolean sendToDaemon() {
+        var update = update();
+        var sent = stats().measure(DAEMON_PHASE,
+                                   () -> ModelDaemon.send(sharedModelFile().toPath(), update));
+        if (sent) {
+            stats().addBytesWritten(update.getSerializedSize());
+        }
+        return sent;
     }
 
     /**
-     * Reads the existing {@link AssignLookup#assignees} from the given file.
+     * Obtains the storage mode set by the {@code spineModelStorage} option.
      *
-     * <p>The given file should exist.
+     * <p>If the option is not set, the {@linkplain StorageMode#SHARED shared} mode is used.
+     * If the option value is not recognized, an error is reported.
+     */
+    private StorageMode storageMode() {
+        var value = getOption(STORAGE_OPTION_NAME);
+        if (value.isEmpty()) {
+            return StorageMode.SHARED;
+        }
+        var mode = StorageMode.forOptionValue(value.get());
+        if (mode.isEmpty()) {
+            error(format("Unknown value `%s` of the `%s` option.",
+                         value.get(), STORAGE_OPTION_NAME));
+            return StorageMode.SHARED;
+        }
+        return mode.get();
+    }
+
+    /**
+     * Obtains the shared model file under the directory set by the {@code spineDirRoot} option.
+     */
+    private File sharedModelFile() {
+        var spineOutput = getOption(OUTPUT_OPTION_NAME).orElse(DEFAULT_OUTPUT_OPTION);
+        var fileName = spineOutput + '/' + DESTINATION_PATH;
+        return new File(fileName);
+    }
+
+    private SharedModelFile sharedModel() {
+        return new SharedModelFile(sharedModelFile(), stats());
+    }
+
+    /**
+     * Applies the {@linkplain #update() update} made by this compilation to the model stored
+     * in the shared model file.
      *
-     * <p>If the given file is empty,
-     * the {@link CommandReceivers#getDefaultInstance() CommandAssignees.getDefaultInstance()} is
-     * returned.
+     * @see SharedModelFile#apply(ModelUpdate)
+     */
+    private void writeSharedModel() {
+        sharedModel().apply(update());
+    }
+
+    /**
+     * Appends the {@linkplain #update() update} made by this compilation to the journal
+     * of the shared model file.
      *
-     * @param file
-     *         an existing file with a {@link CommandReceivers} message
-     * @return the read {@code assignees}
+     * <p>If the compilation neither found receivers nor processed any origins,
+     * the journal is not touched.
      */
-    private static CommandReceivers readExisting(File file) {
-        if (file.length() == 0) {
-            return CommandReceivers.getDefaultInstance();
-        } else {
-            try (InputStream in = new FileInputStream(file)) {
-                var preexistingModel = CommandReceivers.parseFrom(in);
-                return preexistingModel;
-            } catch (IOException e) {
-                throw new IllegalStateException(e);
+    private void appendToJournal() {
+        var update = update();
+        if (isDefault(update)) {
+            return;
+        }
+        var journal = new ModelJournal(sharedModelFile().toPath());
+        if (journal.append(update)) {
+            stats().addBytesWritten(update.getSerializedSize());
+        }
+    }
+
+    /**
+     * Writes the {@linkplain DispatcherRegistry registry} of the dispatchers generated by
+     * this compilation into the class output.
+     */
+    private void writeDispatcherRegistry() {
+        var origins = dispatchedReceivers.toArray(new Element[0]);
+        try {
+            var file = filer().createResource(CLASS_OUTPUT, "",
+                                              DispatcherRegistry.REGISTRY_PATH, origins);
+            var bytes = DispatcherRegistry.toContent(dispatchers)
+                                          .getBytes(UTF_8);
+            try (var out = file.openOutputStream()) {
+                out.write(bytes);
+            }
+            stats().addBytesWritten(bytes.length);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean writesSnapshot() {
+        var value = getOption(SNAPSHOT_OPTION_NAME).orElse(Boolean.FALSE.toString());
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Writes the {@linkplain ModelSnapshots snapshot} of the receivers found by this
+     * compilation into the class output.
+     *
+     * <p>The entries are left without the hashes of the class files, since the files are
+     * not written yet. The hashes are {@linkplain ModelSnapshots#stamp(java.nio.file.Path)
+     * stamped} after the compilation.
+     */
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    private void writeSnapshot() {
+        var elements = processingEnv.getElementUtils();
+        var entries = new TreeMap<String, SnapshotEntry>();
+        for (var receiver : receivers.entrySet()) {
+            var type = originatingElements.get(receiver.getKey());
+            var binaryName = elements.getBinaryName(type)
+                                     .toString();
+            entries.put(binaryName, SnapshotEntry.newBuilder()
+                    .setBinaryName(binaryName)
+                    .setReceiver(receiver.getValue().build())
+                    .build());
+        }
+        var snapshot = ModelSnapshots.create(entries.values());
+        var origins = originatingElements().toArray(new Element[0]);
+        try {
+            var file = filer().createResource(CLASS_OUTPUT, "",
+                                              ModelSnapshots.SNAPSHOT_PATH, origins);
+            var bytes = toBytes(snapshot);
+            try (var out = file.openOutputStream()) {
+                out.write(bytes);
+            }
+            stats().addBytesWritten(bytes.length);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the receivers found by this compilation as a model fragment into the class output.
+     *
+     * <p>The {@linkplain #originatingElements() originating types} of the receivers are passed
+     * to the {@code Filer}, so that the build tools could track the fragment.
+     *
+     * <p>If no receivers were found during the compilation, no fragment is written.
+     */
+    private void writeFragment() {
+        var fragment = update().getReceivers();
+        if (isDefault(fragment)) {
+            return;
+        }
+        var origins = originatingElements().toArray(new Element[0]);
+        try {
+            var file = filer().createResource(CLASS_OUTPUT, "", FRAGMENT_PATH, origins);
+            var bytes = toBytes(fragment);
+            try (var out = file.openOutputStream()) {
+                out.write(bytes);
             }
+            stats().addBytesWritten(bytes.length);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
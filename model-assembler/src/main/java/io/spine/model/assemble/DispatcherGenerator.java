@@ -0,0 +1,347 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.assemble;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import io.spine.model.runtime.DispatchWarmUp;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.spine.model.assemble.HandlerConventions.COMMAND_CONTEXT_TYPE;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.type.TypeKind.DECLARED;
+import static javax.lang.model.type.TypeKind.VOID;
+import static javax.lang.model.util.ElementFilter.methodsIn;
+
+/**
+ * Generates the dispatcher classes for the command receivers.
+ *
+ * <p>A dispatcher is generated in the package of its receiver and has a static
+ * {@code dispatch(receiver, command, context)} method. The method routes the command by
+ * the name of its class and calls the handler method declared by the receiver directly,
+ * without reflection.
+ *
+ * <p>If the commands are Protobuf messages, the dispatcher also has a static
+ * {@code warmUp(iterations)} method. The method routes the default instance of each handled
+ * command the given number of times, so that the JIT compiler compiles the routing before
+ * the application serves the commands. The warm-up needs no receiver and calls no handlers.
+ * See {@link DispatchWarmUp} for running the warm-up.
+ *
+ * <p>A dispatcher is not generated if any of the handler methods cannot be called from
+ * the generated code. This is the case for the {@code private} receivers and handlers,
+ * the generic receivers, the handlers with unexpected parameters, and the receivers handling
+ * the same command in several methods. Such receivers are dispatched reflectively.
+ */
+final class DispatcherGenerator {
+
+    /**
+     * The suffix appended to the name of the receiver to obtain the name of its dispatcher.
+     */
+    @VisibleForTesting
+    static final String DISPATCHER_SUFFIX = "_Dispatcher";
+
+    private static final String GENERATED_ANNOTATION = "javax.annotation.processing.Generated";
+    private static final String RECEIVER = "receiver";
+    private static final String COMMAND = "command";
+    private static final String CONTEXT = "context";
+    private static final String ITERATIONS = "iterations";
+    private static final String ROUTE_METHOD = "route";
+    private static final String COMMANDS = "commands";
+    private static final String ROUTED = "routed";
+    private static final String DEFAULT_INSTANCE_METHOD = "getDefaultInstance";
+
+    private final Types types;
+    private final Elements elements;
+    private final ClassName contextType;
+    private final boolean hasGenerated;
+
+    DispatcherGenerator(ProcessingEnvironment environment) {
+        this.types = environment.getTypeUtils();
+        this.elements = environment.getElementUtils();
+        this.contextType = ClassName.bestGuess(COMMAND_CONTEXT_TYPE);
+        this.hasGenerated = elements.getTypeElement(GENERATED_ANNOTATION) != null;
+    }
+
+    /**
+     * Generates the dispatcher for the given receiver and its handler methods.
+     *
+     * @return the source file of the dispatcher or {@code Optional.empty()} if
+     *         the receiver cannot be dispatched without reflection
+     */
+    Optional<JavaFile> generate(TypeElement receiver, List<ExecutableElement> handlers) {
+        if (!isAccessible(receiver) || !receiver.getTypeParameters().isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, ExecutableElement> byCommand = new LinkedHashMap<>();
+        for (var handler : handlers) {
+            var command = commandOf(handler);
+            if (command.isEmpty() || byCommand.containsKey(command.get())) {
+                return Optional.empty();
+            }
+            byCommand.put(command.get(), handler);
+        }
+        var receiverClass = ClassName.get(receiver);
+        var dispatcher = ClassName.get(receiverClass.packageName(),
+                                       simpleNames(receiverClass) + DISPATCHER_SUFFIX);
+        var type = TypeSpec.classBuilder(dispatcher)
+                .addModifiers(PUBLIC, FINAL)
+                .addOriginatingElement(receiver)
+                .addJavadoc("Dispatches the commands to the handlers of {@link $T} "
+                                    + "without reflection.\n", receiverClass)
+                .addMethod(MethodSpec.constructorBuilder()
+                                   .addModifiers(PRIVATE)
+                                   .build())
+                .addMethod(dispatchMethod(receiverClass, byCommand))
+                .addMethod(routeMethod(byCommand.keySet()));
+        if (byCommand.values()
+                     .stream()
+                     .allMatch(handler -> hasDefaultInstance(commandElement(handler)))) {
+            type.addMethod(warmUpMethod(byCommand.values()));
+        }
+        if (hasGenerated) {
+            type.addAnnotation(AnnotationSpec.builder(ClassName.bestGuess(GENERATED_ANNOTATION))
+                                       .addMember("value", "$S", AssignLookup.class.getName())
+                                       .build());
+        }
+        var file = JavaFile.builder(dispatcher.packageName(), type.build())
+                           .skipJavaLangImports(true)
+                           .build();
+        return Optional.of(file);
+    }
+
+    private MethodSpec dispatchMethod(ClassName receiver,
+                                      Map<String, ExecutableElement> byCommand) {
+        var body = CodeBlock.builder()
+                .beginControlFlow("switch ($N($N))", ROUTE_METHOD, COMMAND);
+        var thrown = new LinkedHashSet<TypeName>();
+        var route = 0;
+        for (var handler : byCommand.values()) {
+            var commandType = TypeName.get(commandElement(handler).asType());
+            var withContext = handler.getParameters().size() == 2;
+            var call = withContext
+                       ? CodeBlock.of("$N.$N(($T) $N, $N)", RECEIVER, handler.getSimpleName(),
+                                      commandType, COMMAND, CONTEXT)
+                       : CodeBlock.of("$N.$N(($T) $N)", RECEIVER, handler.getSimpleName(),
+                                      commandType, COMMAND);
+            body.add("case $L:\n", route++)
+                .indent();
+            if (handler.getReturnType().getKind() == VOID) {
+                body.addStatement("$L", call)
+                    .addStatement("return null");
+            } else {
+                body.addStatement("return $L", call);
+            }
+            body.unindent();
+            for (var thrownType : handler.getThrownTypes()) {
+                thrown.add(TypeName.get(thrownType));
+            }
+        }
+        body.add("default:\n")
+            .indent()
+            .addStatement("throw new $T($T.format($S, $T.class.getName(), "
+                                  + "$N.getClass().getName()))",
+                          IllegalArgumentException.class, String.class,
+                          "`%s` has no handler for `%s`.", receiver, COMMAND)
+            .unindent()
+            .endControlFlow();
+        var method = MethodSpec.methodBuilder("dispatch")
+                .addJavadoc("Calls the handler of the given command declared by "
+                                    + "the given receiver.\n")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(Object.class)
+                .addParameter(receiver, RECEIVER)
+                .addParameter(Object.class, COMMAND)
+                .addParameter(contextType, CONTEXT)
+                .addExceptions(thrown)
+                .addCode(body.build());
+        return method.build();
+    }
+
+    /**
+     * Creates the method obtaining the index of the handler of the given command.
+     *
+     * <p>The handlers are indexed in the order of the given commands. If there is no handler
+     * for the command, the method returns {@code -1}.
+     */
+    private static MethodSpec routeMethod(Collection<String> commands) {
+        var body = CodeBlock.builder()
+                .beginControlFlow("switch ($N.getClass().getName())", COMMAND);
+        var route = 0;
+        for (var command : commands) {
+            body.add("case $S:\n", command)
+                .indent()
+                .addStatement("return $L", route++)
+                .unindent();
+        }
+        body.add("default:\n")
+            .indent()
+            .addStatement("return -1")
+            .unindent()
+            .endControlFlow();
+        return MethodSpec.methodBuilder(ROUTE_METHOD)
+                .addModifiers(PRIVATE, STATIC)
+                .returns(int.class)
+                .addParameter(Object.class, COMMAND)
+                .addCode(body.build())
+                .build();
+    }
+
+    /**
+     * Creates the method routing the default instance of each handled command the given
+     * number of times.
+     *
+     * <p>The method returns the sum of the routes, so that the JIT compiler does not
+     * eliminate the routing as the dead code.
+     */
+    private MethodSpec warmUpMethod(Collection<ExecutableElement> handlers) {
+        var commands = handlers.stream()
+                .map(handler -> CodeBlock.of("$T.$N()", ClassName.get(commandElement(handler)),
+                                             DEFAULT_INSTANCE_METHOD))
+                .collect(CodeBlock.joining(", "));
+        var body = CodeBlock.builder()
+                .addStatement("$T[] $N = {$L}", Object.class, COMMANDS, commands)
+                .addStatement("int $N = 0", ROUTED)
+                .beginControlFlow("for (int i = 0; i < $N; i++)", ITERATIONS)
+                .beginControlFlow("for ($T $N : $N)", Object.class, COMMAND, COMMANDS)
+                .addStatement("$N += $N($N)", ROUTED, ROUTE_METHOD, COMMAND)
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return $N", ROUTED);
+        var method = MethodSpec.methodBuilder(DispatchWarmUp.WARM_UP_METHOD)
+                .addJavadoc("Routes the default instance of each handled command "
+                                    + "the given number of times.\n")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(int.class)
+                .addParameter(int.class, ITERATIONS)
+                .addCode(body.build());
+        return method.build();
+    }
+
+    /**
+     * Obtains the type of the command handled by the given method.
+     *
+     * <p>The method must be {@linkplain #commandOf(ExecutableElement) callable} by
+     * the generated dispatcher.
+     */
+    private TypeElement commandElement(ExecutableElement handler) {
+        var command = types.erasure(handler.getParameters()
+                                           .get(0)
+                                           .asType());
+        return (TypeElement) types.asElement(command);
+    }
+
+    /**
+     * Tells if the given type declares the static {@code getDefaultInstance()} method of
+     * the Protobuf messages.
+     */
+    private static boolean hasDefaultInstance(@Nullable TypeElement type) {
+        if (type == null) {
+            return false;
+        }
+        return methodsIn(type.getEnclosedElements())
+                .stream()
+                .anyMatch(method -> method.getSimpleName()
+                                          .contentEquals(DEFAULT_INSTANCE_METHOD)
+                        && method.getParameters().isEmpty()
+                        && method.getModifiers().contains(STATIC)
+                        && method.getModifiers().contains(PUBLIC));
+    }
+
+    /**
+     * Obtains the binary name of the command handled by the given method.
+     *
+     * @return the name or {@code Optional.empty()} if the method cannot be called by
+     *         the generated dispatcher
+     */
+    private Optional<String> commandOf(ExecutableElement handler) {
+        if (handler.getModifiers().contains(PRIVATE)) {
+            return Optional.empty();
+        }
+        var parameters = handler.getParameters();
+        if (parameters.isEmpty() || parameters.size() > 2) {
+            return Optional.empty();
+        }
+        if (parameters.size() == 2 && !isContext(parameters.get(1).asType())) {
+            return Optional.empty();
+        }
+        var command = types.erasure(parameters.get(0).asType());
+        if (command.getKind() != DECLARED) {
+            return Optional.empty();
+        }
+        var element = (TypeElement) types.asElement(command);
+        return Optional.of(elements.getBinaryName(element).toString());
+    }
+
+    private boolean isContext(TypeMirror type) {
+        return COMMAND_CONTEXT_TYPE.equals(types.erasure(type).toString());
+    }
+
+    /**
+     * Tells if the given type, and all the types enclosing it, are not {@code private}.
+     */
+    private static boolean isAccessible(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement) {
+            if (current.getModifiers().contains(PRIVATE)) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Joins the simple names of the given class and the classes enclosing it.
+     */
+    private static String simpleNames(ClassName className) {
+        return String.join("_", className.simpleNames());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceivers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+/**
+ * Finds the command types handled by more than one command handling method.
+ *
+ * <p>The handlers are {@linkplain #register registered} one by one, as they are found by
+ * the compilation. The handlers recorded in the model by the previous compilations of other
+ * modules may be registered upfront, so that the duplicates across the modules are found too.
+ *
+ * <p>The command types are compared by the names of their erasures, as recorded by
+ * the {@link HandlerScanner}.
+ */
+final class DuplicateHandlers {
+
+    /**
+     * The handlers mapped by the names of the command types they handle.
+     */
+    private final Map<String, String> handlers = new HashMap<>();
+
+    private DuplicateHandlers() {
+    }
+
+    /**
+     * Creates an instance which knows no handlers.
+     */
+    static DuplicateHandlers empty() {
+        return new DuplicateHandlers();
+    }
+
+    /**
+     * Creates an instance which knows the handlers of the given model.
+     *
+     * <p>If the given model already has several handlers of a command type, the first one
+     * is remembered.
+     */
+    static DuplicateHandlers of(CommandReceivers model) {
+        var result = empty();
+        for (var receiver : model.getReceiverList()) {
+            for (var method : receiver.getMethodList()) {
+                result.register(receiver.getType(), method);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers the given handler method.
+     *
+     * @param receiver
+     *         the name of the type declaring the method
+     * @param method
+     *         the signature of the handler method
+     * @return the handler of the same command type registered earlier, if any
+     */
+    Optional<String> register(String receiver, CommandHandlerMethod method) {
+        var handler = format("%s.%s()", receiver, method.getName());
+        var registered = handlers.putIfAbsent(method.getCommandType(), handler);
+        return Optional.ofNullable(registered);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import io.spine.annotation.SPI;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+
+/**
+ * The elements of a processing round annotated with any of the annotations supported by
+ * a {@link ModelAnnotationProcessor}, grouped by the types which declare them.
+ *
+ * <p>The batch is collected in a single pass over the round, regardless of the number of
+ * the supported annotations. An element annotated with several supported annotations is
+ * present in the batch once.
+ *
+ * <p>An annotated type is grouped under itself, so that a type and its annotated members
+ * come together. The annotated elements which are not enclosed by a type, such as packages
+ * and modules, are not included in the batch.
+ *
+ * <p>The annotations are referred to by their fully-qualified names. The annotation classes
+ * are never loaded by the processor, so they do not have to be on its classpath.
+ */
+@SPI
+public final class ElementBatch {
+
+    private final ImmutableListMultimap<TypeElement, Element> elementsByType;
+    private final ImmutableSetMultimap<Element, String> annotations;
+
+    private ElementBatch(ImmutableListMultimap<TypeElement, Element> elementsByType,
+                         ImmutableSetMultimap<Element, String> annotations) {
+        this.elementsByType = elementsByType;
+        this.annotations = annotations;
+    }
+
+    /**
+     * Collects the elements of the given round annotated with any of the given annotations.
+     *
+     * @param roundEnv
+     *         the environment of the processing round
+     * @param annotationTypes
+     *         the annotations present in the round, as passed to the processor
+     * @param elements
+     *         the utilities for obtaining the annotations of an element
+     */
+    static ElementBatch collect(RoundEnvironment roundEnv,
+                                Set<? extends TypeElement> annotationTypes,
+                                Elements elements) {
+        var elementsByType = ImmutableListMultimap.<TypeElement, Element>builder();
+        var annotations = ImmutableSetMultimap.<Element, String>builder();
+        var names = annotationTypes.stream()
+                                   .map(type -> type.getQualifiedName().toString())
+                                   .collect(toImmutableSet());
+        var typeArray = annotationTypes.toArray(new TypeElement[0]);
+        for (var element : roundEnv.getElementsAnnotatedWithAny(typeArray)) {
+            var type = typeOf(element);
+            if (type.isEmpty()) {
+                continue;
+            }
+            elementsByType.put(type.get(), element);
+            for (var mirror : elements.getAllAnnotationMirrors(element)) {
+                var annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+                var name = annotationType.getQualifiedName().toString();
+                if (names.contains(name)) {
+                    annotations.put(element, name);
+                }
+            }
+        }
+        return new ElementBatch(elementsByType.build(), annotations.build());
+    }
+
+    /**
+     * Obtains the type which is the given element or declares it.
+     *
+     * <p>Returns an empty {@code Optional} for the elements which are not enclosed by a type,
+     * such as packages and modules.
+     */
+    private static Optional<TypeElement> typeOf(Element element) {
+        var current = element;
+        while (current != null && !(current instanceof TypeElement)) {
+            current = current.getEnclosingElement();
+        }
+        return Optional.ofNullable((TypeElement) current);
+    }
+
+    /**
+     * Obtains the types having annotated elements, in the order of their discovery.
+     */
+    public ImmutableSet<TypeElement> types() {
+        return elementsByType.keySet();
+    }
+
+    /**
+     * Obtains the annotated elements grouped under the given type.
+     */
+    public ImmutableList<Element> elementsOf(TypeElement type) {
+        return elementsByType.get(type);
+    }
+
+    /**
+     * Obtains the elements grouped under the given type, which are annotated with
+     * the given annotation.
+     *
+     * @param type
+     *         the type grouping the elements
+     * @param annotationType
+     *         the fully-qualified name of the annotation
+     */
+    public ImmutableList<Element> elementsOf(TypeElement type, String annotationType) {
+        var result = elementsOf(type)
+                .stream()
+                .filter(element -> annotations.containsEntry(element, annotationType))
+                .collect(toImmutableList());
+        return result;
+    }
+
+    /**
+     * Obtains the fully-qualified names of the supported annotations the given element
+     * is annotated with.
+     */
+    public ImmutableSet<String> annotationsOf(Element element) {
+        return annotations.get(element);
+    }
+
+    /**
+     * Obtains the number of the annotated elements in this batch.
+     */
+    public int elementCount() {
+        return elementsByType.size();
+    }
+
+    /**
+     * Tells if the round has no annotated elements.
+     */
+    public boolean isEmpty() {
+        return elementsByType.isEmpty();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableMap;
+import io.spine.annotation.Internal;
+import io.spine.model.ReceiverKind;
+
+/**
+ * The conventions of the command receivers and their handler methods, shared by
+ * the model assemblers.
+ *
+ * <p>The assemblers work with different representations of the compiled code, but must
+ * describe the receivers in the same way.
+ */
+@Internal
+public final class HandlerConventions {
+
+    /**
+     * The fully-qualified name of the annotation marking the command handlers.
+     *
+     * <p>The annotation is referred to by name, so that the assemblers do not depend
+     * on the server library.
+     */
+    public static final String ASSIGN_ANNOTATION = "io.spine.server.command.Assign";
+
+    /**
+     * The name of the type of the context passed to a handler as the second parameter.
+     */
+    public static final String COMMAND_CONTEXT_TYPE = "io.spine.core.CommandContext";
+
+    /**
+     * The name of the type, returning which makes a handler
+     * {@linkplain io.spine.model.ReturnKind#OPTIONAL optional}.
+     */
+    public static final String OPTIONAL_TYPE = "java.util.Optional";
+
+    /**
+     * The package of the tuples, returning which makes a handler
+     * {@linkplain io.spine.model.ReturnKind#TUPLE produce a tuple}.
+     */
+    public static final String TUPLE_PACKAGE = "io.spine.server.tuple";
+
+    /**
+     * The receiver kinds mapped by the names of the base classes which define them.
+     */
+    private static final ImmutableMap<String, ReceiverKind> BASE_CLASSES = ImmutableMap.of(
+            "io.spine.server.aggregate.Aggregate", ReceiverKind.AGGREGATE,
+            "io.spine.server.aggregate.AggregatePart", ReceiverKind.AGGREGATE,
+            "io.spine.server.procman.ProcessManager", ReceiverKind.PROCESS_MANAGER,
+            "io.spine.server.command.AbstractAssignee", ReceiverKind.ASSIGNEE
+    );
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private HandlerConventions() {
+    }
+
+    /**
+     * Obtains the kind of the receiver with the given superclasses.
+     *
+     * @param superclasses
+     *         the names of the superclasses of the receiver, starting from the direct one
+     * @return the kind defined by the nearest known base class, or
+     *         {@link ReceiverKind#OTHER_RECEIVER OTHER_RECEIVER} if there is none
+     */
+    public static ReceiverKind receiverKind(Iterable<String> superclasses) {
+        for (var superclass : superclasses) {
+            var kind = BASE_CLASSES.get(superclass);
+            if (kind != null) {
+                return kind;
+            }
+        }
+        return ReceiverKind.OTHER_RECEIVER;
+    }
+}
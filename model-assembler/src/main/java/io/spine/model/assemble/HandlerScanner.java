@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.model.AccessLevel;
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
+import io.spine.model.ReturnKind;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import static io.spine.model.assemble.HandlerConventions.OPTIONAL_TYPE;
+import static io.spine.model.assemble.HandlerConventions.TUPLE_PACKAGE;
+import static io.spine.model.assemble.HandlerConventions.receiverKind;
+import static javax.lang.model.type.TypeKind.DECLARED;
+import static javax.lang.model.type.TypeKind.VOID;
+
+/**
+ * Collects the details of the command receiving types and their handler methods
+ * from the elements of the compiled code.
+ *
+ * <p>The details are obtained from the {@code javax.lang.model} API. Neither the compiled
+ * classes nor the types they refer to are loaded.
+ */
+final class HandlerScanner {
+
+    private static final String OBJECT = Object.class.getName();
+
+    private final Types types;
+    private final Elements elements;
+    private final TypeMirror iterable;
+
+    /**
+     * Creates a new scanner working with the utilities of the given environment.
+     */
+    HandlerScanner(ProcessingEnvironment environment) {
+        this.types = environment.getTypeUtils();
+        this.elements = environment.getElementUtils();
+        var iterableType = elements.getTypeElement(Iterable.class.getName());
+        this.iterable = types.erasure(iterableType.asType());
+    }
+
+    /**
+     * Creates a builder of the receiver with the given type.
+     *
+     * <p>The builder has the type name, the kind, and the superclasses of the receiver
+     * populated. The methods are to be added by the caller.
+     */
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    CommandReceiver.Builder receiverOf(TypeElement type) {
+        var result = CommandReceiver.newBuilder()
+                .setType(type.getQualifiedName().toString());
+        var superclass = type.getSuperclass();
+        while (superclass.getKind() == DECLARED) {
+            var element = (TypeElement) types.asElement(superclass);
+            var name = element.getQualifiedName().toString();
+            if (OBJECT.equals(name)) {
+                break;
+            }
+            result.addSuperclass(name);
+            superclass = element.getSuperclass();
+        }
+        return result.setKind(receiverKind(result.getSuperclassList()));
+    }
+
+    /**
+     * Collects the signature of the given command handling method.
+     */
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    CommandHandlerMethod methodOf(ExecutableElement method) {
+        var result = CommandHandlerMethod.newBuilder()
+                .setName(method.getSimpleName().toString());
+        var parameters = method.getParameters();
+        for (var parameter : parameters) {
+            result.addParameterType(nameOf(parameter.asType()));
+        }
+        if (!parameters.isEmpty()) {
+            result.setCommandType(nameOf(parameters.get(0).asType()));
+        }
+        for (var thrown : method.getThrownTypes()) {
+            result.addThrownType(nameOf(thrown));
+        }
+        var returnType = method.getReturnType();
+        return result.setReturnType(nameOf(returnType))
+                     .setReturnKind(returnKindOf(returnType))
+                     .setAccess(accessOf(method))
+                     .build();
+    }
+
+    private String nameOf(TypeMirror type) {
+        return types.erasure(type).toString();
+    }
+
+    private ReturnKind returnKindOf(TypeMirror type) {
+        if (type.getKind() == VOID) {
+            return ReturnKind.RETURNS_VOID;
+        }
+        if (type.getKind() != DECLARED) {
+            return ReturnKind.SINGLE_MESSAGE;
+        }
+        var element = (TypeElement) ((DeclaredType) type).asElement();
+        if (OPTIONAL_TYPE.equals(element.getQualifiedName().toString())) {
+            return ReturnKind.OPTIONAL;
+        }
+        var packageName = elements.getPackageOf(element)
+                                  .getQualifiedName()
+                                  .toString();
+        if (TUPLE_PACKAGE.equals(packageName)) {
+            return ReturnKind.TUPLE;
+        }
+        if (types.isAssignable(types.erasure(type), iterable)) {
+            return ReturnKind.ITERABLE;
+        }
+        return ReturnKind.SINGLE_MESSAGE;
+    }
+
+    private static AccessLevel accessOf(ExecutableElement method) {
+        var modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return AccessLevel.PUBLIC;
+        }
+        if (modifiers.contains(Modifier.PROTECTED)) {
+            return AccessLevel.PROTECTED;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return AccessLevel.PRIVATE;
+        }
+        return AccessLevel.PACKAGE_PRIVATE;
+    }
+}
@@ -28,22 +28,32 @@ package io.spine.model.assemble;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.spine.annotation.SPI;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
-import java.lang.annotation.Annotation;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
-import static java.util.Collections.singleton;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static javax.lang.model.util.ElementFilter.typesIn;
 import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.NOTE;
 import static javax.tools.Diagnostic.Kind.WARNING;
 
 /**
@@ -53,6 +63,15 @@ import static javax.tools.Diagnostic.Kind.WARNING;
  * <p>This class provides the handy lifecycle for the processors basing on their
  * round-oriented nature.
  *
+ * <p>A processor may support several annotations. In each round, the elements annotated with
+ * any of them are collected in a single pass and passed to the processor as one
+ * {@linkplain ElementBatch batch}, grouped by the types which declare them.
+ *
+ * <p>The processor collects its {@linkplain ProcessingStats performance statistics}. Use
+ * {@code javac -AspineModelStats=/path/to/stats.jsonl [...]} to append them as a JSON record
+ * to the given file when the processing is over. Pass {@code -AspineModelStatsNote=true} to
+ * also print a summary of the statistics as a compiler note.
+ *
  * <p>Be sure to add the fully qualified name of your implementation of this class to
  * {@code resources/META_INF/services/javax.annotation.processing.Processor} to make it visible
  * to the compiler.
@@ -65,6 +84,17 @@ import static javax.tools.Diagnostic.Kind.WARNING;
 @SPI
 public abstract class ModelAnnotationProcessor extends AbstractProcessor {
 
+    @VisibleForTesting
+    static final String STATS_OPTION_NAME = "spineModelStats";
+    @VisibleForTesting
+    static final String STATS_NOTE_OPTION_NAME = "spineModelStatsNote";
+
+    /**
+     * The name of the phase which includes the {@linkplain #onProcessingOver() final}
+     * processing.
+     */
+    static final String FLUSH_PHASE = "flush";
+
     @SuppressWarnings("FieldAccessedSynchronizedAndUnsynchronized")
         // Initialized in the synchronized `init` method.
     private Messager messager;
@@ -73,32 +103,49 @@ public abstract class ModelAnnotationProcessor extends AbstractProcessor {
         // Initialized in the synchronized `init` method.
     private ImmutableMap<String, String> options;
 
+    @SuppressWarnings("FieldAccessedSynchronizedAndUnsynchronized")
+        // Initialized in the synchronized `init` method.
+    private Filer filer;
+
+    /**
+     * The top-level types compiled in all the processing rounds.
+     */
+    private final Set<TypeElement> rootTypes = new LinkedHashSet<>();
+
+    private final ProcessingStats stats = new ProcessingStats();
+
     /**
-     * Retrieves the supported by this processor annotation type.
+     * Retrieves the annotation types supported by this processor.
      *
      * <p>Basic implementation example is:
      * <pre>
      *    {@code @Override
-     *     protected Class getAnnotationType() {
-     *         return Assign.class;
+     *     protected ImmutableSet<String> getAnnotationTypes() {
+     *         return ImmutableSet.of("io.spine.server.command.Assign",
+     *                                "io.spine.server.command.Command");
      *     }}
      * </pre>
      *
+     * <p>The annotations are referred to by name, so that the processor does not need
+     * the annotation classes on its classpath.
+     *
      * <p>Note: it's required that this method returns the same value on any invocation.
      *
-     * @return the {@link Class} of the target annotation
+     * @return the fully-qualified names of the target annotations
      */
-    protected abstract Class<? extends Annotation> getAnnotationType();
+    protected abstract ImmutableSet<String> getAnnotationTypes();
 
     /**
-     * Performs the processing of the given annotated {@linkplain Element code element}.
+     * Performs the processing of the annotated {@linkplain Element code elements} found
+     * in a round.
      *
-     * <p>It's guaranteed that the argument is annotated with
-     * the {@linkplain #getAnnotationType() processor target annotation}.
+     * <p>It's guaranteed that each element of the batch is annotated with at least one of
+     * the {@linkplain #getAnnotationTypes() processor target annotations}. The method is not
+     * called for a round without annotated elements.
      *
      * <p>The processing may include validation, code generation, etc.
      */
-    protected abstract void processElement(Element element);
+    protected abstract void processBatch(ElementBatch batch);
 
     /**
      * A lifecycle method called when a processing round is started.
@@ -120,17 +167,41 @@ public abstract class ModelAnnotationProcessor extends AbstractProcessor {
         // NoOp
     }
 
+    /**
+     * A lifecycle method called once, when all the processing rounds are finished.
+     *
+     * <p>The method is not called if an error was raised during the processing.
+     *
+     * <p>Does nothing by default. Override this method to produce the results which require
+     * the data collected from all the rounds.
+     */
+    @SuppressWarnings("NoopMethodInAbstractClass")
+    protected void onProcessingOver() {
+        // NoOp
+    }
+
     @Override
     public final synchronized void init(ProcessingEnvironment pe) {
         super.init(pe);
         this.messager = pe.getMessager();
         this.options = ImmutableMap.copyOf(pe.getOptions());
+        this.filer = pe.getFiler();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The implementations which support their own options must include the options
+     * supported by this class.
+     */
+    @Override
+    public Set<String> getSupportedOptions() {
+        return ImmutableSet.of(STATS_OPTION_NAME, STATS_NOTE_OPTION_NAME);
     }
 
     @Override
     public final Set<String> getSupportedAnnotationTypes() {
-        var names = singleton(getAnnotationType().getName());
-        return names;
+        return getAnnotationTypes();
     }
 
     @Override
@@ -141,19 +212,54 @@ public abstract class ModelAnnotationProcessor extends AbstractProcessor {
     @Override
     public final boolean process(Set<? extends TypeElement> annotations,
                                  RoundEnvironment roundEnv) {
-        if (!roundEnv.errorRaised() && !roundEnv.processingOver()) {
+        if (roundEnv.errorRaised()) {
+            return false;
+        }
+        if (roundEnv.processingOver()) {
+            stats.measure(FLUSH_PHASE, this::onProcessingOver);
+            reportStats();
+        } else {
+            var start = System.nanoTime();
+            rootTypes.addAll(typesIn(roundEnv.getRootElements()));
             onRoundStarted();
-            processAnnotation(getAnnotationType(), roundEnv);
+            var batch = ElementBatch.collect(roundEnv, annotations,
+                                             processingEnv.getElementUtils());
+            if (!batch.isEmpty()) {
+                processBatch(batch);
+            }
             onRoundFinished();
+            stats.recordRound(batch.types().size(), batch.elementCount(),
+                              System.nanoTime() - start);
         }
         return false;
     }
 
-    private void processAnnotation(Class<? extends Annotation> annotation,
-                                   RoundEnvironment roundEnv) {
-        var annotated = roundEnv.getElementsAnnotatedWith(annotation);
-        for (Element element : annotated) {
-            processElement(element);
+    /**
+     * Appends the statistics to the file set by the {@code spineModelStats} option and
+     * prints the summary, if requested by the {@code spineModelStatsNote} option.
+     *
+     * <p>The record is appended with a single write, so that the records of the compilations
+     * running in parallel are not interleaved.
+     */
+    private void reportStats() {
+        var processorName = getClass().getName();
+        var printNote = getOption(STATS_NOTE_OPTION_NAME).map(Boolean::parseBoolean);
+        if (printNote.orElse(false)) {
+            messager.printMessage(NOTE, stats.summary(processorName));
+        }
+        var path = getOption(STATS_OPTION_NAME);
+        if (path.isEmpty()) {
+            return;
+        }
+        var file = Paths.get(path.get());
+        var record = stats.toJson(processorName, options) + System.lineSeparator();
+        try {
+            var parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Files.write(file, record.getBytes(UTF_8), CREATE, APPEND);
+        } catch (IOException e) {
+            warn(format("Unable to write the model processing statistics to `%s`: %s",
+                        file, e.getMessage()));
         }
     }
 
@@ -169,6 +275,19 @@ public abstract class ModelAnnotationProcessor extends AbstractProcessor {
         messager.printMessage(ERROR, message);
     }
 
+    /**
+     * Prints an error message pointing to the given element.
+     *
+     * <p>A call to this method causes eventual compilation failure.
+     *
+     * @param message the error message to print
+     * @param element the element which the error is reported against
+     * @see Messager#printMessage for more details
+     */
+    protected final void error(String message, Element element) {
+        messager.printMessage(ERROR, message, element);
+    }
+
     /**
      * Prints a compiler warning.
      *
@@ -193,11 +312,40 @@ public abstract class ModelAnnotationProcessor extends AbstractProcessor {
         return Optional.ofNullable(optValue);
     }
 
+    /**
+     * Obtains the types which are the roots of the processing in all the rounds processed
+     * so far.
+     *
+     * <p>Typically, these are the top-level types declared in the compiled source files.
+     */
+    protected final ImmutableSet<TypeElement> rootTypes() {
+        return ImmutableSet.copyOf(rootTypes);
+    }
+
+    /**
+     * Obtains the performance statistics of this processor.
+     */
+    protected final ProcessingStats stats() {
+        return stats;
+    }
+
+    /**
+     * Obtains the {@link Filer} to create the files which are tracked by the compiler.
+     */
+    protected final Filer filer() {
+        return filer;
+    }
+
     @VisibleForTesting
     void setMessager(Messager messager) {
         this.messager = messager;
     }
 
+    @VisibleForTesting
+    void setFiler(Filer filer) {
+        this.filer = filer;
+    }
+
     @VisibleForTesting
     void setOptions(Map<String, String> options) {
         this.options = ImmutableMap.copyOf(options);
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Message;
+import io.spine.annotation.Internal;
+
+import java.io.IOException;
+
+/**
+ * Serializes the model messages.
+ *
+ * <p>The messages are serialized {@linkplain CodedOutputStream#useDeterministicSerialization()
+ * deterministically}, so that the same model is written as the same bytes on any machine.
+ * This keeps the model files comparable by their digests and reproducible across the builds.
+ */
+@Internal
+public final class ModelBytes {
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private ModelBytes() {
+    }
+
+    /**
+     * Serializes the given message deterministically.
+     */
+    public static byte[] toBytes(Message message) {
+        var result = new byte[message.getSerializedSize()];
+        var output = CodedOutputStream.newInstance(result);
+        output.useDeterministicSerialization();
+        try {
+            message.writeTo(output);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        output.checkNoSpaceLeft();
+        return result;
+    }
+}
@@ -0,0 +1,573 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.assemble;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.spine.annotation.Internal;
+import io.spine.logging.Logging;
+import io.spine.model.ModelUpdate;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static io.spine.model.assemble.ModelBytes.toBytes;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A local service which merges the model updates sent by concurrent compilations.
+ *
+ * <p>The daemon keeps the merged model in memory and is the only writer of the shared model
+ * file while it runs. The updates received while the model is being written are applied
+ * together, and the model is written once per such a batch. Each model write replaces
+ * the file atomically, along with writing its {@link ModelIndex}. A compilation
+ * {@linkplain #send sending} an update is answered only after the update is written.
+ *
+ * <p>The daemon listens on a loopback socket. The port and the secret the clients must present
+ * are written to the {@linkplain #portFileFor port file} next to the model file. The file is
+ * deleted when the daemon is {@linkplain #close() closed}. If there is no port file,
+ * the compilations use the model file directly. Each accepted connection is read by a separate
+ * thread, so a stalled client does not hold up the others.
+ *
+ * <p>While running, the daemon holds the lock of the lock file next to the model file.
+ * The lock is released by the operating system if the daemon process dies, so the compilations
+ * {@linkplain #isRunning tell} a running daemon from the port file left by a crashed one.
+ *
+ * <p>The daemon {@linkplain ModelJournal#drain drains} the {@linkplain ModelJournal journal}
+ * of the model when started and along with each model write. If the daemon does not answer
+ * a compilation, the compilation appends its update to the journal instead of writing
+ * the model file, so that the update is not overwritten by the daemon.
+ *
+ * <p>Run the daemon with {@code java io.spine.model.assemble.ModelDaemon <spineDirRoot>}.
+ */
+@Internal
+public final class ModelDaemon implements Closeable, Logging {
+
+    /**
+     * The extension appended to the name of the model file to obtain the port file name.
+     */
+    private static final String PORT_FILE_EXTENSION = ".daemon";
+
+    /**
+     * The extension appended to the name of the port file to obtain the lock file name.
+     */
+    private static final String LOCK_FILE_EXTENSION = ".lock";
+
+    /**
+     * The number of attempts to acquire the lock file, which may be held by a probe for
+     * a short time.
+     */
+    private static final int LOCK_ATTEMPTS = 3;
+
+    /**
+     * The delay between the attempts to acquire the lock file.
+     */
+    private static final long LOCK_RETRY_MILLIS = 10;
+
+    /**
+     * The answer to a client which tells that its update is written.
+     */
+    private static final int ACCEPTED = 1;
+
+    /**
+     * The answer to a client which tells that its update is rejected.
+     */
+    private static final int REJECTED = 0;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+    private static final int READ_TIMEOUT_MILLIS = 60_000;
+    private static final int SECRET_LENGTH = 16;
+
+    /**
+     * The time the writer waits for an update before checking if the daemon still accepts
+     * the updates.
+     */
+    private static final long POLL_MILLIS = 100;
+
+    private final Path model;
+    private final Path portFile;
+    private final String secret;
+    private final ServerSocket server;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final ModelJournal journal;
+    private final ReceiverIndex index = ReceiverIndex.empty();
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private final ExecutorService readers;
+    private final Thread acceptor;
+    private final Thread writer;
+    private HashCode written;
+    private volatile boolean closed;
+
+    private ModelDaemon(Path model, ServerSocket server, FileChannel lockChannel, FileLock lock) {
+        this.model = model;
+        this.portFile = portFileFor(model);
+        this.secret = newSecret();
+        this.server = server;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        this.journal = new ModelJournal(model);
+        this.written = Hashing.sha256().hashBytes(new byte[0]);
+        this.readers = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("spine-model-daemon-reader-%d")
+                .build());
+        this.acceptor = new Thread(this::acceptConnections, "spine-model-daemon-acceptor");
+        this.writer = new Thread(this::writeUpdates, "spine-model-daemon-writer");
+    }
+
+    /**
+     * Starts the daemon for the given model file.
+     *
+     * <p>The model and its journal are read and written back as a single model file, and
+     * the journal is truncated. Then the daemon starts accepting the updates.
+     *
+     * @param model
+     *         the shared model file, which may not exist yet
+     * @return the running daemon
+     * @throws IllegalStateException
+     *         if another daemon is serving the model file
+     */
+    public static ModelDaemon start(Path model) {
+        try {
+            Files.createDirectories(model.toAbsolutePath().getParent());
+            var lockChannel = FileChannel.open(lockFileFor(model), CREATE, WRITE);
+            var lock = tryLock(lockChannel);
+            if (lock == null) {
+                lockChannel.close();
+                throw new IllegalStateException(
+                        format("Another model daemon is serving `%s`.", model));
+            }
+            var server = new ServerSocket();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            var daemon = new ModelDaemon(model, server, lockChannel, lock);
+            daemon.journal.drain((snapshot, updates) -> {
+                daemon.index.merge(snapshot);
+                updates.forEach(daemon.index::apply);
+                daemon.writeModelFile();
+            });
+            daemon.writePortFile();
+            daemon.acceptor.start();
+            daemon.writer.start();
+            return daemon;
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to start the model daemon for `%s`.", model), e);
+        }
+    }
+
+    /**
+     * Starts the daemon for the shared model under the given root directory and waits
+     * until the JVM is terminated.
+     *
+     * @param args
+     *         the single argument which is the value of the {@code spineDirRoot} option
+     * @throws IllegalArgumentException
+     *         if the number of the arguments is not one
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException(
+                    "Usage: java io.spine.model.assemble.ModelDaemon <spineDirRoot>");
+        }
+        var model = Paths.get(args[0], AssignLookup.DESTINATION_PATH);
+        var daemon = start(model);
+        Runtime.getRuntime()
+               .addShutdownHook(new Thread(daemon::close));
+        daemon._info().log("Model daemon for `%s` is listening on port %d.",
+                           model, daemon.port());
+        daemon.acceptor.join();
+    }
+
+    /**
+     * Obtains the path to the file with the port of the daemon serving the given model file.
+     */
+    public static Path portFileFor(Path model) {
+        return model.resolveSibling(model.getFileName() + PORT_FILE_EXTENSION);
+    }
+
+    private static Path lockFileFor(Path model) {
+        var portFile = portFileFor(model);
+        return portFile.resolveSibling(portFile.getFileName() + LOCK_FILE_EXTENSION);
+    }
+
+    /**
+     * Tells if a daemon serving the given model file is running.
+     *
+     * <p>The daemon is running if its port file exists and its lock file is locked. If the lock
+     * is free, the port file is left by a daemon which did not stop properly, and is deleted.
+     */
+    public static boolean isRunning(Path model) {
+        var portFile = portFileFor(model);
+        if (!Files.exists(portFile)) {
+            return false;
+        }
+        try (var channel = FileChannel.open(lockFileFor(model), CREATE, WRITE)) {
+            var lock = tryLock(channel);
+            if (lock == null) {
+                return true;
+            }
+            try (lock) {
+                Files.deleteIfExists(portFile);
+            }
+            return false;
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to check the model daemon for `%s`.", model), e);
+        }
+    }
+
+    /**
+     * Attempts to acquire the lock of the given lock file channel a few times.
+     *
+     * @return the acquired lock or {@code null} if the lock is held by someone else
+     */
+    private static @Nullable FileLock tryLock(FileChannel channel) throws IOException {
+        for (var attempt = 1; ; attempt++) {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock != null || attempt == LOCK_ATTEMPTS) {
+                return lock;
+            }
+            try {
+                Thread.sleep(LOCK_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Sends the given update to the daemon serving the given model file.
+     *
+     * <p>Returns when the daemon has written the update.
+     *
+     * @return {@code true} if the update is written by the daemon, {@code false} if there is
+     *         no running daemon or it failed to accept the update
+     */
+    public static boolean send(Path model, ModelUpdate update) {
+        var address = readPortFile(portFileFor(model));
+        if (address == null) {
+            return false;
+        }
+        try (var socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), address.port),
+                           CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            var out = new DataOutputStream(socket.getOutputStream());
+            var bytes = toBytes(update);
+            out.writeUTF(address.secret);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.flush();
+            var answer = socket.getInputStream().read();
+            return answer == ACCEPTED;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Obtains the port the daemon listens on.
+     */
+    @VisibleForTesting
+    int port() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Stops accepting the updates, writes the ones already accepted, deletes
+     * the port file, and releases the lock file.
+     *
+     * <p>The port file is deleted last, so that the compilations which fail to reach
+     * the daemon meanwhile append their updates to the journal rather than write
+     * the model file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            server.close();
+            acceptor.join();
+            writer.join();
+            Files.deleteIfExists(portFile);
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to stop the model daemon for `%s`.", model), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Accepts the connections and hands each of them off to a reader thread.
+     */
+    private void acceptConnections() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    _warn().withCause(e).log("Model daemon failed to accept a connection.");
+                }
+                continue;
+            }
+            readers.execute(() -> receive(socket));
+        }
+        readers.shutdown();
+    }
+
+    /**
+     * Reads the request from the given socket and queues it for writing.
+     */
+    private void receive(Socket socket) {
+        try {
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            var request = readRequest(socket);
+            if (request == null) {
+                answer(socket, REJECTED);
+            } else {
+                requests.add(request);
+            }
+        } catch (IOException e) {
+            _warn().withCause(e).log("Model daemon failed to read an update.");
+            answer(socket, REJECTED);
+        }
+    }
+
+    /**
+     * Reads the request from the given socket.
+     *
+     * @return the request or {@code null} if the client did not present the secret
+     */
+    private @Nullable Request readRequest(Socket socket) throws IOException {
+        var in = new DataInputStream(socket.getInputStream());
+        if (!secret.equals(in.readUTF())) {
+            return null;
+        }
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new Request(socket, ModelUpdate.parseFrom(bytes));
+    }
+
+    /**
+     * Applies the accepted updates in batches and answers the clients when the batch
+     * is written.
+     *
+     * <p>If there are no accepted updates, but the journal has records, the journal is
+     * drained.
+     */
+    private void writeUpdates() {
+        List<Request> batch = new ArrayList<>();
+        while (!readers.isTerminated() || !requests.isEmpty()) {
+            try {
+                var first = requests.poll(POLL_MILLIS, MILLISECONDS);
+                if (first == null) {
+                    drainJournalIfAny();
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            requests.drainTo(batch);
+            var result = ACCEPTED;
+            try {
+                batch.forEach(request -> index.apply(request.update));
+                writeModel();
+            } catch (IllegalStateException e) {
+                _error().withCause(e).log("Model daemon failed to write `%s`.", model);
+                result = REJECTED;
+            }
+            for (var request : batch) {
+                answer(request.socket, result);
+            }
+            batch.clear();
+        }
+        drainJournalIfAny();
+    }
+
+    private void drainJournalIfAny() {
+        try {
+            if (journal.hasRecords()) {
+                writeModel();
+            }
+        } catch (IllegalStateException e) {
+            _error().withCause(e).log("Model daemon failed to write `%s`.", model);
+        }
+    }
+
+    private static void answer(Socket socket, int result) {
+        try (socket) {
+            socket.getOutputStream().write(result);
+        } catch (IOException ignored) {
+            // The client gave up waiting, and would use the model file directly.
+        }
+    }
+
+    /**
+     * Applies the updates appended to the journal by the compilations which did not reach
+     * the daemon, and writes the model file.
+     */
+    private void writeModel() {
+        journal.drain((snapshot, updates) -> {
+            updates.forEach(index::apply);
+            writeModelFile();
+        });
+    }
+
+    /**
+     * Atomically replaces the model file with the merged model, unless the model
+     * is not changed since the last write.
+     */
+    private void writeModelFile() {
+        var merged = index.toModel();
+        var bytes = toBytes(merged);
+        var digest = Hashing.sha256().hashBytes(bytes);
+        if (digest.equals(written)) {
+            return;
+        }
+        try {
+            Files.createDirectories(model.getParent());
+            var temp = model.resolveSibling(model.getFileName() + ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, model, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to write the model file `%s`.", model), e);
+        }
+        ModelIndex.write(ModelIndex.pathFor(model), merged.getCommandReceivingTypeList(), model);
+        written = digest;
+    }
+
+    private void writePortFile() throws IOException {
+        var temp = portFile.resolveSibling(portFile.getFileName() + ".tmp");
+        Files.write(temp, (port() + System.lineSeparator() + secret).getBytes(UTF_8));
+        try {
+            Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException ignored) {
+            // Not a POSIX file system.
+        }
+        Files.move(temp, portFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the address of the daemon from the given port file.
+     *
+     * @return the address or {@code null} if there is no valid port file
+     */
+    private static @Nullable Address readPortFile(Path portFile) {
+        if (!Files.exists(portFile)) {
+            return null;
+        }
+        try {
+            var lines = Files.readAllLines(portFile, UTF_8);
+            if (lines.size() != 2) {
+                return null;
+            }
+            return new Address(Integer.parseInt(lines.get(0).trim()), lines.get(1).trim());
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String newSecret() {
+        var bytes = new byte[SECRET_LENGTH];
+        new SecureRandom().nextBytes(bytes);
+        return HashCode.fromBytes(bytes).toString();
+    }
+
+    /**
+     * The location of a running daemon.
+     */
+    private static final class Address {
+
+        private final int port;
+        private final String secret;
+
+        private Address(int port, String secret) {
+            this.port = port;
+            this.secret = secret;
+        }
+    }
+
+    /**
+     * An update accepted from a client, which waits for the answer on the socket.
+     */
+    private static final class Request {
+
+        private final Socket socket;
+        private final ModelUpdate update;
+
+        private Request(Socket socket, ModelUpdate update) {
+            this.socket = socket;
+            this.update = update;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.annotation.Internal;
+import io.spine.model.CommandReceivers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.ZipFile;
+
+import static java.lang.String.format;
+
+/**
+ * Utilities for working with the model fragments written by {@link AssignLookup}
+ * in the {@linkplain StorageMode#FRAGMENT fragment} mode.
+ *
+ * <p>Each compilation writes its fragment into the class output, so that the fragment becomes
+ * a part of the module JAR. The consumers of the model merge the fragments found in
+ * the class directories and JARs they are interested in.
+ */
+@Internal
+public final class ModelFragments {
+
+    /**
+     * The path of the model fragment relative to the root of a class directory or a JAR.
+     */
+    public static final String FRAGMENT_PATH = "META-INF/spine/spine_model.ser";
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private ModelFragments() {
+    }
+
+    /**
+     * Reads and merges the model fragments found at the given locations.
+     *
+     * <p>Each location is either a class directory or a JAR file. The locations which do not
+     * exist or do not contain a fragment are skipped.
+     *
+     * <p>The resulting list of command receiving types is sorted and contains no duplicates.
+     *
+     * @param locations
+     *         class directories and JAR files to look for the fragments
+     * @return the merged model
+     */
+    public static CommandReceivers collect(Iterable<Path> locations) {
+        var index = ReceiverIndex.empty();
+        for (var location : locations) {
+            if (Files.isDirectory(location)) {
+                readFromDirectory(location).ifPresent(index::merge);
+            } else if (Files.isRegularFile(location)) {
+                readFromJar(location).ifPresent(index::merge);
+            }
+        }
+        return index.toModel();
+    }
+
+    /**
+     * Reads and merges the model fragments available as resources of the given class loader.
+     *
+     * <p>The resulting list of command receiving types is sorted and contains no duplicates.
+     *
+     * @param classLoader
+     *         the class loader to look for the fragments
+     * @return the merged model
+     */
+    public static CommandReceivers collect(ClassLoader classLoader) {
+        var index = ReceiverIndex.empty();
+        try {
+            var resources = classLoader.getResources(FRAGMENT_PATH);
+            while (resources.hasMoreElements()) {
+                var resource = resources.nextElement();
+                try (var in = resource.openStream()) {
+                    parse(in).ifPresent(index::merge);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read the model fragments.", e);
+        }
+        return index.toModel();
+    }
+
+    private static Optional<CommandReceivers> readFromDirectory(Path directory) {
+        var fragment = directory.resolve(FRAGMENT_PATH);
+        if (!Files.exists(fragment)) {
+            return Optional.empty();
+        }
+        try (var in = Files.newInputStream(fragment)) {
+            return parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to read the model fragment `%s`.", fragment), e);
+        }
+    }
+
+    private static Optional<CommandReceivers> readFromJar(Path jar) {
+        try (var zip = new ZipFile(jar.toFile())) {
+            var entry = zip.getEntry(FRAGMENT_PATH);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            try (var in = zip.getInputStream(entry)) {
+                return parse(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to read the model fragment from `%s`.", jar), e);
+        }
+    }
+
+    private static Optional<CommandReceivers> parse(InputStream in) throws IOException {
+        var fragment = CommandReceivers.parseFrom(in);
+        return Optional.of(fragment);
+    }
+}
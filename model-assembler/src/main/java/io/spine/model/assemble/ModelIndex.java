@@ -0,0 +1,487 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.primitives.UnsignedBytes;
+import io.spine.annotation.Internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A compact read-only index of the names of the command receiving types.
+ *
+ * <p>The index is an alternative to parsing the whole {@link io.spine.model.CommandReceivers
+ * CommandReceivers} message, suitable for the models with many receivers. The index file is
+ * {@linkplain #open memory-mapped}, so opening it takes constant time, and the names are decoded
+ * only when they are looked up or iterated.
+ *
+ * <p>The file consists of:
+ * <ol>
+ *     <li>the header: the magic number, the format version, the length and the modification
+ *         time of the model file the index is built for, the number of names, the number of
+ *         blocks, and the length of the blocks;
+ *     <li>the offset table, which holds the offset of each block relative to the start of
+ *         the blocks;
+ *     <li>the blocks of the front-coded names, sorted by their UTF-8 bytes.
+ * </ol>
+ *
+ * <p>Each block holds up to {@value #BLOCK_SIZE} names. The first name of a block is written
+ * in full, as its length followed by its bytes. Each of the following names is written as
+ * the length of the prefix it shares with the previous name, the length of the rest of
+ * the name, and the bytes of the rest. Since the types of the same package share long
+ * prefixes, most of the names take only a few bytes. The lengths are written as varints.
+ *
+ * <p>A name is {@linkplain #contains looked up} with a binary search over the first names of
+ * the blocks, followed by a scan of a single block.
+ */
+@Internal
+public final class ModelIndex implements Iterable<String> {
+
+    /**
+     * The extension appended to the name of the model file to obtain the index file name.
+     */
+    private static final String INDEX_EXTENSION = ".idx";
+
+    /**
+     * The first bytes of an index file, which spell {@code SPIX}.
+     */
+    private static final int MAGIC = 0x53504958;
+    private static final int VERSION = 3;
+    private static final int BLOCK_SIZE = 16;
+
+    /**
+     * The length and the modification time recorded for a model file which does not exist.
+     */
+    private static final long NO_MODEL = -1;
+
+    private static final int MODEL_LENGTH_POSITION = Integer.BYTES * 2;
+    private static final int MODEL_TIME_POSITION = MODEL_LENGTH_POSITION + Long.BYTES;
+    private static final int SIZE_POSITION = MODEL_TIME_POSITION + Long.BYTES;
+    private static final int BLOCK_COUNT_POSITION = SIZE_POSITION + Integer.BYTES;
+    private static final int BLOCKS_LENGTH_POSITION = BLOCK_COUNT_POSITION + Integer.BYTES;
+    private static final int HEADER_SIZE = BLOCKS_LENGTH_POSITION + Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int blockCount;
+    private final int blocksStart;
+
+    /**
+     * Creates an index over the given content of an index file.
+     *
+     * @throws IllegalStateException
+     *         if the content is not a model index or is truncated
+     */
+    private ModelIndex(ByteBuffer buffer, Path file) {
+        this.buffer = buffer;
+        checkHeader(buffer, file);
+        this.size = buffer.getInt(SIZE_POSITION);
+        this.blockCount = buffer.getInt(BLOCK_COUNT_POSITION);
+        var blocksLength = buffer.getInt(BLOCKS_LENGTH_POSITION);
+        var tableEnd = HEADER_SIZE + (long) blockCount * Integer.BYTES;
+        var consistent = size >= 0
+                && blockCount == (size + (long) BLOCK_SIZE - 1) / BLOCK_SIZE
+                && blocksLength >= 0
+                && tableEnd + blocksLength == buffer.limit();
+        for (var block = 0; consistent && block < blockCount; block++) {
+            var offset = buffer.getInt(HEADER_SIZE + block * Integer.BYTES);
+            consistent = offset >= 0 && offset < blocksLength;
+        }
+        if (!consistent) {
+            throw new IllegalStateException(
+                    format("The model index `%s` is truncated or corrupted.", file));
+        }
+        this.blocksStart = (int) tableEnd;
+    }
+
+    /**
+     * Checks that the given buffer starts with the header of a supported index format.
+     */
+    private static void checkHeader(ByteBuffer buffer, Path file) {
+        if (buffer.limit() < HEADER_SIZE) {
+            throw new IllegalStateException(format(
+                    "The model index `%s` is truncated: %d bytes instead of at least %d.",
+                    file, buffer.limit(), HEADER_SIZE));
+        }
+        var magic = buffer.getInt(0);
+        var version = buffer.getInt(Integer.BYTES);
+        if (magic != MAGIC || version != VERSION) {
+            throw new IllegalStateException(format(
+                    "Unsupported format of the model index `%s`: magic `%x`, version `%d`.",
+                    file, magic, version));
+        }
+    }
+
+    /**
+     * Obtains the path of the index of the given model file.
+     */
+    public static Path pathFor(Path modelFile) {
+        return modelFile.resolveSibling(modelFile.getFileName() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Tells if the given index file is built for the current version of the given model file.
+     *
+     * <p>The length and the modification time of the model file are compared with the ones
+     * recorded in the header of the index, so only the header is read. An index file which is
+     * missing, truncated, or of another format is not up-to-date.
+     */
+    public static boolean isUpToDate(Path indexFile, Path modelFile) {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            try (var channel = FileChannel.open(indexFile, READ)) {
+                int read;
+                do {
+                    read = channel.read(header);
+                } while (read >= 0 && header.hasRemaining());
+            }
+            header.flip();
+            if (header.limit() < HEADER_SIZE
+                    || header.getInt(0) != MAGIC
+                    || header.getInt(Integer.BYTES) != VERSION) {
+                return false;
+            }
+            return header.getLong(MODEL_LENGTH_POSITION) == lengthOf(modelFile)
+                    && header.getLong(MODEL_TIME_POSITION) == modificationTimeOf(modelFile);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to check the model index `%s`.", indexFile), e);
+        }
+    }
+
+    private static long lengthOf(Path modelFile) throws IOException {
+        return Files.exists(modelFile) ? Files.size(modelFile) : NO_MODEL;
+    }
+
+    private static long modificationTimeOf(Path modelFile) throws IOException {
+        return Files.exists(modelFile)
+               ? Files.getLastModifiedTime(modelFile).to(NANOSECONDS)
+               : NO_MODEL;
+    }
+
+    /**
+     * Writes the index of the given type names into the given file.
+     *
+     * <p>The index is written into a temporary file first, which then atomically replaces
+     * the given file. If the file cannot be replaced, for example, because it is mapped by
+     * a reader on Windows, the previous index is left in place. Since it is recorded for
+     * the previous version of the model file, it is not {@linkplain #isUpToDate up-to-date},
+     * and the readers turn to the model file itself.
+     *
+     * @param file
+     *         the file to write the index into
+     * @param names
+     *         the type names to index, possibly unsorted and with duplicates
+     * @param modelFile
+     *         the model file the names are taken from, already written; its length and
+     *         modification time are recorded to {@linkplain #isUpToDate tell} if the index
+     *         is up-to-date
+     */
+    public static void write(Path file, Iterable<String> names, Path modelFile) {
+        var sorted = new TreeSet<byte[]>(UnsignedBytes.lexicographicalComparator());
+        for (var name : names) {
+            sorted.add(name.getBytes(UTF_8));
+        }
+        var blocks = new ByteArrayOutputStream();
+        var offsets = new ArrayList<Integer>();
+        var previous = new byte[0];
+        var count = 0;
+        for (var name : sorted) {
+            if (count % BLOCK_SIZE == 0) {
+                offsets.add(blocks.size());
+                writeVarint(blocks, name.length);
+                blocks.write(name, 0, name.length);
+            } else {
+                var shared = sharedPrefix(previous, name);
+                writeVarint(blocks, shared);
+                writeVarint(blocks, name.length - shared);
+                blocks.write(name, shared, name.length - shared);
+            }
+            previous = name;
+            count++;
+        }
+        var content = ByteBuffer.allocate(HEADER_SIZE + offsets.size() * Integer.BYTES
+                                                  + blocks.size());
+        try {
+            content.putInt(MAGIC)
+                   .putInt(VERSION)
+                   .putLong(lengthOf(modelFile))
+                   .putLong(modificationTimeOf(modelFile));
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to read the attributes of the model file `%s`.", modelFile), e);
+        }
+        content.putInt(sorted.size())
+               .putInt(offsets.size())
+               .putInt(blocks.size());
+        offsets.forEach(content::putInt);
+        content.put(blocks.toByteArray());
+        content.flip();
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (var channel = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(true);
+            }
+            replace(file, temp);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to write the model index `%s`.", file), e);
+        }
+    }
+
+    /**
+     * Atomically replaces the given index file with the given temporary file, leaving
+     * the previous index in place if it cannot be replaced.
+     */
+    private static void replace(Path file, Path temp) throws IOException {
+        try {
+            Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            throw e;
+        } catch (FileSystemException e) {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Opens the index stored in the given file.
+     *
+     * <p>The file is mapped into memory and is not read upfront.
+     *
+     * @throws IllegalStateException
+     *         if the file cannot be read, is not a model index, or is truncated
+     */
+    public static ModelIndex open(Path file) {
+        try (var channel = FileChannel.open(file, READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ModelIndex(buffer, file);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to open the model index `%s`.", file), e);
+        }
+    }
+
+    /**
+     * Obtains the number of the type names in this index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tells if this index contains the given type name.
+     */
+    public boolean contains(String name) {
+        if (size == 0) {
+            return false;
+        }
+        var key = name.getBytes(UTF_8);
+        var low = 0;
+        var high = blockCount - 1;
+        while (low < high) {
+            var middle = (low + high + 1) >>> 1;
+            var head = new Cursor(middle);
+            head.next();
+            if (head.compareTo(key) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        var cursor = new Cursor(low);
+        for (var i = 0; i < BLOCK_SIZE && cursor.hasNext(); i++) {
+            cursor.next();
+            var comparison = cursor.compareTo(key);
+            if (comparison == 0) {
+                return true;
+            }
+            if (comparison > 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterates over the type names in the order of their UTF-8 bytes.
+     *
+     * <p>The names are decoded one by one, as the iteration goes.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        var cursor = new Cursor(0);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!cursor.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                cursor.next();
+                return cursor.current();
+            }
+        };
+    }
+
+    private static int sharedPrefix(byte[] previous, byte[] name) {
+        var limit = Math.min(previous.length, name.length);
+        var result = 0;
+        while (result < limit && previous[result] == name[result]) {
+            result++;
+        }
+        return result;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        var remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+
+    /**
+     * A position in the blocks of the index, which decodes the names one by one.
+     *
+     * <p>The cursor reuses the same array for the decoded names, so that scanning the index
+     * does not allocate memory per name.
+     */
+    private final class Cursor {
+
+        private int position;
+        private int index;
+        private byte[] name = new byte[128];
+        private int length;
+
+        /**
+         * Creates a cursor positioned before the first name of the given block.
+         */
+        private Cursor(int block) {
+            this.index = block * BLOCK_SIZE;
+            this.position = block < blockCount
+                            ? blocksStart + buffer.getInt(HEADER_SIZE + block * Integer.BYTES)
+                            : buffer.limit();
+        }
+
+        private boolean hasNext() {
+            return index < size;
+        }
+
+        /**
+         * Decodes the next name.
+         */
+        private void next() {
+            var shared = index % BLOCK_SIZE == 0 ? 0 : readVarint();
+            var rest = readVarint();
+            length = shared + rest;
+            if (name.length < length) {
+                name = Arrays.copyOf(name, Math.max(length, name.length * 2));
+            }
+            for (var i = shared; i < length; i++) {
+                name[i] = nextByte();
+            }
+            index++;
+        }
+
+        private int readVarint() {
+            var result = 0;
+            var shift = 0;
+            byte current;
+            do {
+                current = nextByte();
+                result |= (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return result;
+        }
+
+        /**
+         * Reads the byte at the current position and advances the position.
+         *
+         * @throws IllegalStateException
+         *         if the position is beyond the index, which means the index is corrupted
+         */
+        private byte nextByte() {
+            if (position >= buffer.limit()) {
+                throw new IllegalStateException("The model index is corrupted.");
+            }
+            return buffer.get(position++);
+        }
+
+        /**
+         * Compares the current name with the given UTF-8 bytes, treating the bytes as unsigned.
+         */
+        private int compareTo(byte[] key) {
+            var limit = Math.min(length, key.length);
+            for (var i = 0; i < limit; i++) {
+                var comparison = UnsignedBytes.compare(name[i], key[i]);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return Integer.compare(length, key.length);
+        }
+
+        private String current() {
+            return new String(name, 0, length, UTF_8);
+        }
+    }
+}
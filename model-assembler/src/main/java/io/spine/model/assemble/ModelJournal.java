@@ -0,0 +1,449 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import io.spine.annotation.Internal;
+import io.spine.model.CommandReceivers;
+import io.spine.model.ModelUpdate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import static io.spine.model.assemble.ModelBytes.toBytes;
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An append-only storage of the model shared by several compilations.
+ *
+ * <p>The storage consists of two files:
+ * <ol>
+ *     <li>the snapshot, which is a sorted {@link CommandReceivers} message written under
+ *         the path given to this journal;
+ *     <li>the journal, which resides next to the snapshot and has the {@code .journal}
+ *         extension appended to the name of the snapshot.
+ * </ol>
+ *
+ * <p>Each compilation {@linkplain #append appends} a {@link ModelUpdate} record with
+ * the receivers it has found to the journal under an exclusive {@link FileLock}. The cost of the append is
+ * proportional to the size of the update and the journal, but not to the size of the whole model.
+ *
+ * <p>When the journal grows over the compaction threshold, the updates are folded into
+ * the snapshot. The new snapshot is written into a temporary file and forced to the storage
+ * device, and then the file atomically replaces the previous snapshot. After that, the journal
+ * is truncated.
+ *
+ * <p>While a {@link ModelDaemon} serves the snapshot, the appends do not compact the journal.
+ * The daemon {@linkplain #drain drains} the journal instead, along with writing the updates
+ * it received.
+ *
+ * <p>Each record of the journal is prefixed with the length of the serialized update and its
+ * CRC32 checksum. A record torn by a crashed compilation is ignored when reading the journal
+ * and is overwritten by the next append.
+ *
+ * <p>Since the snapshot has the same format as the model file written in
+ * the {@linkplain StorageMode#SHARED shared} mode, the readers which are not aware of
+ * the journal still see the model, as of the latest compaction.
+ *
+ * <p>The {@link ModelIndex} of the snapshot is written on each compaction.
+ */
+@Internal
+public final class ModelJournal {
+
+    /**
+     * The extension appended to the name of the snapshot file to obtain the journal file name.
+     */
+    private static final String JOURNAL_EXTENSION = ".journal";
+
+    /**
+     * The size of the journal in bytes, after reaching which the journal is compacted.
+     */
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 64 * 1024;
+
+    /**
+     * The size of the record header: the length of the payload and its checksum.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    /**
+     * The delay before the next attempt to acquire the lock held within the same JVM.
+     */
+    private static final long LOCK_RETRY_MILLIS = 10;
+
+    private final Path snapshot;
+    private final Path journal;
+    private final long compactionThreshold;
+
+    /**
+     * Creates a new journal for the given snapshot file.
+     *
+     * @param snapshot
+     *         the path to the model snapshot file, which may not exist yet
+     */
+    public ModelJournal(Path snapshot) {
+        this(snapshot, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    @VisibleForTesting
+    ModelJournal(Path snapshot, long compactionThreshold) {
+        this.snapshot = snapshot;
+        this.journal = snapshot.resolveSibling(snapshot.getFileName() + JOURNAL_EXTENSION);
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Appends the given update to the journal.
+     *
+     * <p>If the latest recorded update of the same origins is equal to the given one,
+     * nothing is written.
+     *
+     * <p>If the journal grows over the compaction threshold, it is compacted.
+     *
+     * @param update
+     *         the change of the model made by a compilation
+     * @return {@code true} if the update was written, {@code false} if it was
+     *         already recorded
+     */
+    @CanIgnoreReturnValue
+    public boolean append(ModelUpdate update) {
+        try {
+            Files.createDirectories(journal.getParent());
+            try (var channel = FileChannel.open(journal, CREATE, READ, WRITE);
+                 var ignored = lock(channel)) {
+                var records = Records.readFrom(channel);
+                if (isRecorded(update, records.updates())) {
+                    return false;
+                }
+                var position = records.validLength();
+                channel.truncate(position);
+                var written = write(channel, position, update);
+                channel.force(false);
+                if (position + written >= compactionThreshold && !servedByDaemon()) {
+                    var updates = ImmutableList.<ModelUpdate>builder()
+                            .addAll(records.updates())
+                            .add(update)
+                            .build();
+                    compact(channel, updates);
+                }
+                return true;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to append to the model journal `%s`.", journal), e);
+        }
+    }
+
+    /**
+     * Tells if a {@link ModelDaemon} is serving the snapshot, and so is the only writer of it.
+     */
+    private boolean servedByDaemon() {
+        return ModelDaemon.isRunning(snapshot);
+    }
+
+    /**
+     * Passes the snapshot and the updates recorded in the journal to the given writer, and
+     * truncates the journal.
+     *
+     * <p>The writer is expected to write the snapshot along with the given updates.
+     * The journal stays locked while the writer runs, so no update is appended in between.
+     * If the writer throws, the journal is left intact.
+     *
+     * @param writer
+     *         the consumer of the snapshot and the recorded updates
+     */
+    public void drain(BiConsumer<CommandReceivers, ImmutableList<ModelUpdate>> writer) {
+        try {
+            Files.createDirectories(journal.getParent());
+            try (var channel = FileChannel.open(journal, CREATE, READ, WRITE);
+                 var ignored = lock(channel)) {
+                var records = Records.readFrom(channel);
+                writer.accept(readSnapshot(), records.updates());
+                if (channel.size() > 0) {
+                    channel.truncate(0);
+                    channel.force(false);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to drain the model journal `%s`.", journal), e);
+        }
+    }
+
+    /**
+     * Tells if the latest recorded update of the origins processed by the given update
+     * is equal to it.
+     *
+     * <p>An update which processed no origins is considered recorded if any recorded update
+     * is equal to it.
+     */
+    private static boolean isRecorded(ModelUpdate update, ImmutableList<ModelUpdate> recorded) {
+        var origins = update.getProcessedOriginList();
+        if (origins.isEmpty()) {
+            return recorded.contains(update);
+        }
+        for (var record : recorded.reverse()) {
+            if (!Collections.disjoint(origins, record.getProcessedOriginList())) {
+                return record.equals(update);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the model from the snapshot and the journal.
+     *
+     * <p>The updates from the journal are applied to the snapshot in the order of recording.
+     * Both files are read under a shared lock of the journal, so that a concurrent compaction
+     * cannot replace the snapshot and truncate the journal in between.
+     *
+     * <p>If neither the snapshot nor the journal exists, returns an empty model.
+     *
+     * @return the model with the sorted command receiving types without duplicates
+     */
+    public CommandReceivers read() {
+        try {
+            if (!Files.exists(journal)) {
+                return ReceiverIndex.of(readSnapshot())
+                                    .toModel();
+            }
+            try (var channel = FileChannel.open(journal, READ);
+                 var ignored = lock(channel, true)) {
+                var index = ReceiverIndex.of(readSnapshot());
+                Records.readFrom(channel)
+                       .updates()
+                       .forEach(index::apply);
+                return index.toModel();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to read the model journal `%s`.", journal), e);
+        }
+    }
+
+    /**
+     * Obtains the names of the command receiving types of the model.
+     *
+     * <p>If the journal has no records and the {@linkplain ModelIndex index} of the snapshot
+     * is up-to-date, the names are read from the index without parsing the snapshot.
+     * Otherwise, or if the index cannot be read, the model is {@linkplain #read() read}
+     * as a whole.
+     */
+    public Iterable<String> receiverTypes() {
+        var index = ModelIndex.pathFor(snapshot);
+        if (!hasRecords() && ModelIndex.isUpToDate(index, snapshot)) {
+            try {
+                return ImmutableList.copyOf(ModelIndex.open(index));
+            } catch (IllegalStateException ignored) {
+                // The index is corrupted, so the model itself is read.
+            }
+        }
+        return read().getCommandReceivingTypeList();
+    }
+
+    /**
+     * Tells if the journal is not empty.
+     */
+    public boolean hasRecords() {
+        try {
+            return Files.exists(journal) && Files.size(journal) > 0;
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to read the model journal `%s`.", journal), e);
+        }
+    }
+
+    /**
+     * Folds the given updates into the snapshot and truncates the journal.
+     *
+     * <p>Must be called under the journal lock.
+     */
+    private void compact(FileChannel channel, Iterable<ModelUpdate> updates)
+            throws IOException {
+        var index = ReceiverIndex.of(readSnapshot());
+        updates.forEach(index::apply);
+        var model = index.toModel();
+        var temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        var bytes = toBytes(model);
+        try (var out = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, snapshot, REPLACE_EXISTING, ATOMIC_MOVE);
+        ModelIndex.write(ModelIndex.pathFor(snapshot), model.getCommandReceivingTypeList(),
+                         snapshot);
+        channel.truncate(0);
+        channel.force(false);
+    }
+
+    private CommandReceivers readSnapshot() throws IOException {
+        if (!Files.exists(snapshot)) {
+            return CommandReceivers.getDefaultInstance();
+        }
+        try (var in = Files.newInputStream(snapshot)) {
+            return CommandReceivers.parseFrom(in);
+        }
+    }
+
+    /**
+     * Writes the record with the given update at the given position.
+     *
+     * @return the number of written bytes
+     */
+    private static int write(FileChannel channel, long position, ModelUpdate update)
+            throws IOException {
+        var payload = toBytes(update);
+        var buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length)
+              .putInt(checksum(payload, 0, payload.length))
+              .put(payload)
+              .flip();
+        var offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+        return HEADER_SIZE + payload.length;
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        var crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Acquires the exclusive lock on the given channel, waiting for it if necessary.
+     */
+    private static FileLock lock(FileChannel channel) throws IOException {
+        return lock(channel, false);
+    }
+
+    /**
+     * Acquires the lock on the given channel, waiting for it if necessary.
+     *
+     * <p>The file locks are held on behalf of the whole JVM. If another compilation running
+     * in the same JVM holds the lock, the attempt is repeated after a short delay.
+     *
+     * @param channel
+     *         the journal channel to lock
+     * @param shared
+     *         {@code true} for a lock allowing other readers, {@code false} for
+     *         an exclusive lock
+     */
+    private static FileLock lock(FileChannel channel, boolean shared) throws IOException {
+        while (true) {
+            try {
+                return channel.lock(0, Long.MAX_VALUE, shared);
+            } catch (OverlappingFileLockException e) {
+                sleepBeforeRetry();
+            }
+        }
+    }
+
+    private static void sleepBeforeRetry() throws IOException {
+        try {
+            Thread.sleep(LOCK_RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the model journal lock.", e);
+        }
+    }
+
+    /**
+     * The records read from the journal.
+     */
+    private static final class Records {
+
+        private final ImmutableList<ModelUpdate> updates;
+        private final long validLength;
+
+        private Records(ImmutableList<ModelUpdate> updates, long validLength) {
+            this.updates = updates;
+            this.validLength = validLength;
+        }
+
+        /**
+         * Reads the valid records from the given journal channel.
+         *
+         * <p>Reading stops at the first record which is incomplete or does not match
+         * its checksum.
+         */
+        private static Records readFrom(FileChannel channel) throws IOException {
+            var size = channel.size();
+            var bytes = new byte[(int) size];
+            var buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                var read = channel.read(buffer, buffer.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+            var updates = ImmutableList.<ModelUpdate>builder();
+            var position = 0;
+            while (position + HEADER_SIZE <= bytes.length) {
+                var header = ByteBuffer.wrap(bytes, position, HEADER_SIZE);
+                var length = header.getInt();
+                var checksum = header.getInt();
+                var start = position + HEADER_SIZE;
+                var complete = length >= 0 && length <= bytes.length - start;
+                if (!complete || checksum(bytes, start, length) != checksum) {
+                    break;
+                }
+                var payload = ByteBuffer.wrap(bytes, start, length);
+                updates.add(ModelUpdate.parseFrom(payload));
+                position = start + length;
+            }
+            return new Records(updates.build(), position);
+        }
+
+        private ImmutableList<ModelUpdate> updates() {
+            return updates;
+        }
+
+        private long validLength() {
+            return validLength;
+        }
+    }
+}
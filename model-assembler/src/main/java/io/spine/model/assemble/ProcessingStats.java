@@ -0,0 +1,213 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableMap;
+import io.spine.annotation.SPI;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The performance statistics of a {@link ModelAnnotationProcessor} in a single compilation.
+ *
+ * <p>The processor records the time spent in each round and the number of the processed
+ * elements automatically. The implementations of the processor may record the I/O they
+ * perform and {@linkplain #measure(String, Supplier) measure} the named phases of their work.
+ *
+ * <p>The statistics are written as a single-line JSON record, so that the records of many
+ * compilations could be appended to the same file and analyzed later.
+ */
+@SPI
+public final class ProcessingStats {
+
+    private static final double NANOS_PER_MILLI = MILLISECONDS.toNanos(1);
+
+    private final List<Round> rounds = new ArrayList<>();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private long bytesRead;
+    private long bytesWritten;
+
+    /**
+     * Records a processing round.
+     */
+    void recordRound(int types, int elements, long nanos) {
+        rounds.add(new Round(types, elements, nanos));
+    }
+
+    /**
+     * Adds the given number of bytes to the bytes read by the processor.
+     */
+    public void addBytesRead(long count) {
+        bytesRead += count;
+    }
+
+    /**
+     * Adds the given number of bytes to the bytes written by the processor.
+     */
+    public void addBytesWritten(long count) {
+        bytesWritten += count;
+    }
+
+    /**
+     * Performs the given operation adding the time it takes to the given phase.
+     *
+     * @return the result of the operation
+     */
+    public <T> T measure(String phase, Supplier<T> operation) {
+        var start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            phases.merge(phase, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    /**
+     * Performs the given operation adding the time it takes to the given phase.
+     */
+    public void measure(String phase, Runnable operation) {
+        measure(phase, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private long totalNanos() {
+        var roundNanos = rounds.stream()
+                               .mapToLong(round -> round.nanos)
+                               .sum();
+        return roundNanos + phases.getOrDefault(ModelAnnotationProcessor.FLUSH_PHASE, 0L);
+    }
+
+    private int elements() {
+        return rounds.stream()
+                     .mapToInt(round -> round.elements)
+                     .sum();
+    }
+
+    /**
+     * Creates a JSON record of these statistics.
+     *
+     * @param processor
+     *         the name of the processor class
+     * @param options
+     *         the options passed to the processor
+     */
+    String toJson(String processor, ImmutableMap<String, String> options) {
+        var json = new StringBuilder(256);
+        json.append('{')
+            .append("\"processor\":").append(quote(processor))
+            .append(",\"timestamp\":").append(quote(Instant.now().toString()))
+            .append(",\"options\":{");
+        var first = true;
+        for (var option : options.entrySet()) {
+            json.append(first ? "" : ",")
+                .append(quote(option.getKey()))
+                .append(':')
+                .append(quote(option.getValue()));
+            first = false;
+        }
+        json.append("},\"totalMillis\":").append(millis(totalNanos()))
+            .append(",\"elements\":").append(elements())
+            .append(",\"bytesRead\":").append(bytesRead)
+            .append(",\"bytesWritten\":").append(bytesWritten)
+            .append(",\"rounds\":[");
+        for (var i = 0; i < rounds.size(); i++) {
+            var round = rounds.get(i);
+            json.append(i == 0 ? "" : ",")
+                .append("{\"types\":").append(round.types)
+                .append(",\"elements\":").append(round.elements)
+                .append(",\"millis\":").append(millis(round.nanos))
+                .append('}');
+        }
+        json.append("],\"phases\":{");
+        first = true;
+        for (var phase : phases.entrySet()) {
+            json.append(first ? "" : ",")
+                .append(quote(phase.getKey()))
+                .append(':')
+                .append(millis(phase.getValue()));
+            first = false;
+        }
+        json.append("}}");
+        return json.toString();
+    }
+
+    /**
+     * Creates a human-readable summary of these statistics.
+     */
+    String summary(String processor) {
+        return format("`%s` processed %d element(s) in %d round(s) in %.3f ms, " +
+                              "read %d byte(s), wrote %d byte(s).",
+                      processor, elements(), rounds.size(), millis(totalNanos()),
+                      bytesRead, bytesWritten);
+    }
+
+    private static double millis(long nanos) {
+        return (double) nanos / NANOS_PER_MILLI;
+    }
+
+    private static String quote(String value) {
+        var result = new StringBuilder(value.length() + 2);
+        result.append('"');
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < ' ') {
+                result.append(format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * The statistics of a single processing round.
+     */
+    private static final class Round {
+
+        private final int types;
+        private final int elements;
+        private final long nanos;
+
+        private Round(int types, int elements, long nanos) {
+            this.types = types;
+            this.elements = elements;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.annotation.Internal;
+import io.spine.model.CommandReceiver;
+import io.spine.model.CommandReceivers;
+import io.spine.model.ModelUpdate;
+
+import java.util.HashSet;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newTreeMap;
+
+/**
+ * A mutable view on the command receiving types of the model, along with their origins
+ * and details.
+ *
+ * <p>The index applies {@link ModelUpdate}s made by the compilations. When an update is applied,
+ * the types of the origins processed by the update are replaced with the types found by
+ * the update. This way, the receivers which were deleted or renamed since the previous
+ * compilation of their origin are pruned from the model.
+ *
+ * <p>The types without an origin are never pruned.
+ */
+@Internal
+public final class ReceiverIndex {
+
+    /**
+     * The origin of the types recorded without one.
+     */
+    private static final String NO_ORIGIN = "";
+
+    /**
+     * The origins of the command receiving types, mapped by the type names.
+     */
+    private final Map<String, String> origins = newTreeMap();
+
+    /**
+     * The details of the command receiving types, mapped by the type names.
+     */
+    private final Map<String, CommandReceiver> details = newTreeMap();
+
+    private ReceiverIndex() {
+    }
+
+    /**
+     * Creates an empty index.
+     */
+    public static ReceiverIndex empty() {
+        return new ReceiverIndex();
+    }
+
+    /**
+     * Creates an index with the types of the given model.
+     */
+    public static ReceiverIndex of(CommandReceivers model) {
+        var result = empty();
+        result.merge(model);
+        return result;
+    }
+
+    /**
+     * Applies the given update to this index.
+     *
+     * <p>First, the types of the {@linkplain ModelUpdate#getProcessedOriginList() processed}
+     * origins are removed. Then, the types found by the update are added.
+     */
+    public void apply(ModelUpdate update) {
+        var processed = new HashSet<>(update.getProcessedOriginList());
+        var entries = origins.entrySet().iterator();
+        while (entries.hasNext()) {
+            var entry = entries.next();
+            if (processed.contains(entry.getValue())) {
+                details.remove(entry.getKey());
+                entries.remove();
+            }
+        }
+        merge(update.getReceivers());
+    }
+
+    /**
+     * Adds the types of the given model to this index.
+     *
+     * <p>The origins and the details of the types already present in the index are overwritten
+     * by the ones from the given model.
+     */
+    public void merge(CommandReceivers receivers) {
+        var typeOrigins = receivers.getOriginMap();
+        for (var type : receivers.getCommandReceivingTypeList()) {
+            var origin = typeOrigins.getOrDefault(type, NO_ORIGIN);
+            origins.put(type, origin);
+        }
+        for (var receiver : receivers.getReceiverList()) {
+            if (origins.containsKey(receiver.getType())) {
+                details.put(receiver.getType(), receiver);
+            }
+        }
+    }
+
+    /**
+     * Creates a model with the types of this index.
+     *
+     * <p>The types and their details are sorted by the type names and contain no duplicates.
+     */
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    public CommandReceivers toModel() {
+        var result = CommandReceivers.newBuilder();
+        origins.forEach((type, origin) -> {
+            result.addCommandReceivingType(type);
+            if (!NO_ORIGIN.equals(origin)) {
+                result.putOrigin(type, origin);
+            }
+        });
+        result.addAllReceiver(details.values());
+        return result.build();
+    }
+}
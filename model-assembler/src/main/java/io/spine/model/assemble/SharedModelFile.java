@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.spine.annotation.Internal;
+import io.spine.model.CommandReceivers;
+import io.spine.model.ModelUpdate;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.spine.io.Ensure.ensureFile;
+import static io.spine.io.Files2.existsNonEmpty;
+import static io.spine.model.assemble.ModelBytes.toBytes;
+import static io.spine.protobuf.Messages.isDefault;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The model file shared by the compilations of all the modules of a project.
+ *
+ * <p>This is the storage of the {@linkplain StorageMode#SHARED shared} mode. The compilations
+ * {@linkplain #apply(ModelUpdate) apply} their updates to the model stored in the file.
+ *
+ * <p>The content of the file last read or written in this process is kept in memory. While
+ * the length and the modification time of the file stay the same, the file is not read again.
+ * So, the compilations sharing a Gradle daemon do not read the model written by each other.
+ *
+ * <p>The I/O errors are handled by rethrowing them as {@link IllegalStateException}.
+ */
+@Internal
+public final class SharedModelFile {
+
+    /**
+     * The name of the phase of merging the found receivers into the stored model.
+     */
+    private static final String MERGE_PHASE = "merge";
+
+    /**
+     * The content of the model files last read or written in this process, by their paths.
+     */
+    private static final Map<Path, Content> lastContent = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final ProcessingStats stats;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param file
+     *         the model file, which may not exist yet
+     * @param stats
+     *         the statistics to record the I/O and the merge time to
+     */
+    public SharedModelFile(File file, ProcessingStats stats) {
+        this.file = file;
+        this.stats = stats;
+    }
+
+    /**
+     * Reads the model stored in the file.
+     *
+     * @return the stored model or the default instance if the file does not exist or is empty
+     */
+    public CommandReceivers read() {
+        return parse(readExisting());
+    }
+
+    /**
+     * Applies the given update to the stored model and writes the result back.
+     *
+     * <p>The model file is read at most once. If the resulting model is serialized into
+     * the same bytes as the stored one, the file is not written. This way, a compilation which
+     * does not change the model does not change the modification time of the file.
+     *
+     * <p>Along with the model, its {@link ModelIndex} is written next to the file.
+     */
+    public void apply(ModelUpdate update) {
+        var existing = readExisting();
+        var model = stats.measure(MERGE_PHASE, () -> {
+            var index = ReceiverIndex.of(parse(existing));
+            index.apply(update);
+            return index.toModel();
+        });
+        write(model, existing);
+    }
+
+    private void write(CommandReceivers model, byte[] existing) {
+        if (isDefault(model) && existing.length == 0) {
+            return;
+        }
+        var bytes = toBytes(model);
+        if (Arrays.equals(bytes, existing)) {
+            return;
+        }
+        ensureFile(file);
+        var path = path();
+        try (var out = new FileOutputStream(file)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        remember(path, bytes);
+        stats.addBytesWritten(bytes.length);
+        ModelIndex.write(ModelIndex.pathFor(file.toPath()),
+                         model.getCommandReceivingTypeList(), file.toPath());
+    }
+
+    /**
+     * Reads the content of the model file.
+     *
+     * <p>If the file is not changed since it was last read or written in this process,
+     * the remembered content is returned. If the file does not exist or is empty, an empty
+     * array is returned.
+     */
+    private byte[] readExisting() {
+        if (!existsNonEmpty(file)) {
+            return new byte[0];
+        }
+        var path = path();
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            var remembered = lastContent.get(path);
+            if (remembered != null && remembered.matches(attributes)) {
+                return remembered.bytes;
+            }
+            var result = Files.readAllBytes(path);
+            stats.addBytesRead(result.length);
+            lastContent.put(path, new Content(result, attributes));
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void remember(Path path, byte[] bytes) {
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            lastContent.put(path, new Content(bytes, attributes));
+        } catch (IOException e) {
+            lastContent.remove(path);
+        }
+    }
+
+    private Path path() {
+        return file.toPath()
+                   .toAbsolutePath()
+                   .normalize();
+    }
+
+    private static CommandReceivers parse(byte[] content) {
+        try {
+            return CommandReceivers.parseFrom(content);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The content of a model file along with the attributes the file had when the content
+     * was read or written.
+     *
+     * <p>When reading, the attributes are read before the content. So, if the file changes
+     * while it is read, the attributes do not match it, and the content is read again.
+     */
+    private static final class Content {
+
+        private final byte[] bytes;
+        private final long length;
+        private final long modified;
+
+        private Content(byte[] bytes, BasicFileAttributes attributes) {
+            this.bytes = bytes;
+            this.length = attributes.size();
+            this.modified = attributes.lastModifiedTime().to(NANOSECONDS);
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return length == attributes.size()
+                    && modified == attributes.lastModifiedTime().to(NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.sun.source.util.Trees;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import java.util.Optional;
+
+import static javax.lang.model.element.ElementKind.PACKAGE;
+
+/**
+ * Obtains the source files declaring the compiled types.
+ *
+ * <p>The source file of a type is taken from its compilation unit by the means of
+ * the {@link Trees} API of {@code javac}. Build tools may wrap the processing environment of
+ * {@code javac}, as Gradle does to track the incremental processing. Such an environment is
+ * unwrapped to reach the one of {@code javac}.
+ *
+ * <p>If the compilation unit is not available, for example, if the compiler is not
+ * {@code javac}, the name of the source file is deduced from the name of the top-level type.
+ */
+final class SourceFiles {
+
+    private static final String DELEGATE_FIELD = "delegate";
+    private static final String JAVA_EXTENSION = ".java";
+
+    private final @Nullable Trees trees;
+
+    /**
+     * Creates a new instance working with the given environment.
+     */
+    SourceFiles(ProcessingEnvironment environment) {
+        this.trees = treesOf(environment);
+    }
+
+    /**
+     * Obtains the path to the source file declaring the given type, relative to
+     * the source root.
+     *
+     * <p>The path consists of the path of the package of the type and the name of
+     * the source file.
+     */
+    String pathOf(TypeElement type) {
+        Element topLevel = type;
+        while (topLevel.getEnclosingElement().getKind() != PACKAGE) {
+            topLevel = topLevel.getEnclosingElement();
+        }
+        var packageElement = (PackageElement) topLevel.getEnclosingElement();
+        var fileName = compilationUnitName(topLevel)
+                .orElse(topLevel.getSimpleName() + JAVA_EXTENSION);
+        if (packageElement.isUnnamed()) {
+            return fileName;
+        }
+        var packagePath = packageElement.getQualifiedName()
+                                        .toString()
+                                        .replace('.', '/');
+        return packagePath + '/' + fileName;
+    }
+
+    /**
+     * Obtains the name of the file of the compilation unit declaring the given type.
+     *
+     * @return the file name or {@code Optional.empty()} if the compilation unit is
+     *         not available
+     */
+    private Optional<String> compilationUnitName(Element type) {
+        if (trees == null) {
+            return Optional.empty();
+        }
+        var path = trees.getPath(type);
+        if (path == null) {
+            return Optional.empty();
+        }
+        var filePath = path.getCompilationUnit()
+                           .getSourceFile()
+                           .toUri()
+                           .getPath();
+        if (filePath == null || !filePath.endsWith(JAVA_EXTENSION)) {
+            return Optional.empty();
+        }
+        return Optional.of(filePath.substring(filePath.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * Obtains the {@link Trees} of the given environment or of the environment wrapped by it.
+     *
+     * @return the trees or {@code null} if the compiler is not {@code javac}
+     */
+    private static @Nullable Trees treesOf(ProcessingEnvironment environment) {
+        try {
+            return Trees.instance(environment);
+        } catch (IllegalArgumentException e) {
+            var delegate = delegateOf(environment);
+            return delegate == null ? null : treesOf(delegate);
+        }
+    }
+
+    /**
+     * Obtains the environment wrapped by the given one.
+     *
+     * @return the wrapped environment or {@code null} if the given environment does not wrap
+     *         another one, or it cannot be accessed
+     */
+    private static @Nullable ProcessingEnvironment delegateOf(ProcessingEnvironment environment) {
+        for (Class<?> cls = environment.getClass(); cls != null; cls = cls.getSuperclass()) {
+            try {
+                var field = cls.getDeclaredField(DELEGATE_FIELD);
+                field.setAccessible(true);
+                var delegate = field.get(environment);
+                return delegate instanceof ProcessingEnvironment && delegate != environment
+                       ? (ProcessingEnvironment) delegate
+                       : null;
+            } catch (NoSuchFieldException ignored) {
+                // Look up the field in the superclass.
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
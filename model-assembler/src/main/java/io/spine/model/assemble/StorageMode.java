@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.annotation.Internal;
+
+import java.util.Optional;
+
+import static java.util.Arrays.stream;
+
+/**
+ * The ways in which the model assemblers persist the assembled model.
+ *
+ * <p>The mode is selected by the {@code spineModelStorage} processor option.
+ */
+@Internal
+public enum StorageMode {
+
+    /**
+     * The model of all the compiled modules is merged into the single
+     * {@code ${spineDirRoot}/.spine/spine_model.ser} file.
+     *
+     * <p>This is the default mode.
+     */
+    SHARED("shared"),
+
+    /**
+     * Each compilation writes its own model fragment into the class output through
+     * the {@link javax.annotation.processing.Filer Filer}.
+     *
+     * <p>The fragments are merged by the consumers of the model.
+     *
+     * @see ModelFragments
+     */
+    FRAGMENT("fragment"),
+
+    /**
+     * Each compilation appends its part of the model to the journal, which resides next to
+     * the {@code ${spineDirRoot}/.spine/spine_model.ser} file.
+     *
+     * <p>The journal is periodically compacted into {@code spine_model.ser}.
+     *
+     * @see ModelJournal
+     */
+    JOURNAL("journal");
+
+    private final String optionValue;
+
+    StorageMode(String optionValue) {
+        this.optionValue = optionValue;
+    }
+
+    /**
+     * Obtains the value of the annotation processor option which selects this mode.
+     */
+    public String optionValue() {
+        return optionValue;
+    }
+
+    /**
+     * Finds the mode by the given value of the annotation processor option.
+     *
+     * @return the matching mode or {@code Optional.empty()} if the value is not recognized
+     */
+    public static Optional<StorageMode> forOptionValue(String value) {
+        var result = stream(values())
+                .filter(mode -> mode.optionValue.equals(value))
+                .findFirst();
+        return result;
+    }
+}
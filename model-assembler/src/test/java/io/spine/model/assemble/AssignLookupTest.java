@@ -26,10 +26,25 @@
 
 package io.spine.model.assemble;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import io.spine.model.CommandReceivers;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
 
 import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @DisplayName("`AssignLookup` should")
@@ -41,11 +56,121 @@ class AssignLookupTest extends ModelAnnotationProcessorTest {
     }
 
     @Test
-    @DisplayName("support `spineDirRoot` option")
-    void supportSpineDirRoot() {
+    @DisplayName("support `spineDirRoot`, `spineModelStorage`, `spineModule`, " +
+            "`spineCheckDuplicateHandlers`, `spineGenerateDispatchers`, " +
+            "`spineModelSnapshot`, and the statistics options")
+    void supportOptions() {
         var opts = processor().getSupportedOptions();
-        assertEquals(1, opts.size());
+        assertEquals(8, opts.size());
+
+        assertThat(opts).containsExactly(AssignLookup.OUTPUT_OPTION_NAME,
+                                         AssignLookup.STORAGE_OPTION_NAME,
+                                         AssignLookup.MODULE_OPTION_NAME,
+                                         AssignLookup.DUPLICATES_OPTION_NAME,
+                                         AssignLookup.DISPATCHERS_OPTION_NAME,
+                                         AssignLookup.SNAPSHOT_OPTION_NAME,
+                                         ModelAnnotationProcessor.STATS_OPTION_NAME,
+                                         ModelAnnotationProcessor.STATS_NOTE_OPTION_NAME);
+    }
+
+    @Test
+    @DisplayName("be registered as a dynamic incremental annotation processor")
+    void registerIncremental() throws IOException {
+        var registry = Resources.getResource("META-INF/gradle/incremental.annotation.processors");
+        var lines = Resources.readLines(registry, UTF_8);
+
+        assertThat(lines).contains(AssignLookup.class.getName() + ",dynamic");
+    }
+
+    @Test
+    @DisplayName("report itself as aggregating only in the fragment mode")
+    void aggregatingInFragmentMode(@TempDir Path rootDir) throws IOException {
+        var fragment = compile(rootDir, "fragment");
+        var shared = compile(rootDir, "shared");
+
+        assertThat(fragment.getSupportedOptions())
+                .contains(AssignLookup.GRADLE_AGGREGATING_OPTION);
+        assertThat(shared.getSupportedOptions())
+                .doesNotContain(AssignLookup.GRADLE_AGGREGATING_OPTION);
+    }
+
+    /**
+     * Compiles an empty type with a new processor in the given storage mode.
+     *
+     * @return the processor initialized by the compilation
+     */
+    private static AssignLookup compile(Path rootDir, String storageMode) throws IOException {
+        var source = Files.createDirectories(rootDir.resolve("src"))
+                          .resolve("Empty.java");
+        Files.writeString(source, "class Empty {}");
+        var classes = Files.createDirectories(rootDir.resolve("classes"));
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var processor = new AssignLookup();
+        try (var fileManager = compiler.getStandardFileManager(null, null, UTF_8)) {
+            var units = fileManager.getJavaFileObjectsFromPaths(List.of(source));
+            List<String> options = ImmutableList.of(
+                    "-d", classes.toString(),
+                    "-proc:only",
+                    "-A" + AssignLookup.OUTPUT_OPTION_NAME + '=' + rootDir,
+                    "-A" + AssignLookup.STORAGE_OPTION_NAME + '=' + storageMode
+            );
+            var task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(ImmutableList.of(processor));
+            assertThat(task.call()).isTrue();
+        }
+        return processor;
+    }
+
+    @Nested
+    @DisplayName("in the shared storage mode")
+    class SharedStorage {
+
+        private Path modelFile;
+        private AssignLookup processor;
+
+        @BeforeEach
+        void setUp(@TempDir Path rootDir) {
+            modelFile = rootDir.resolve(AssignLookup.DESTINATION_PATH);
+            processor = new AssignLookup();
+            processor.setOptions(ImmutableMap.of(AssignLookup.OUTPUT_OPTION_NAME,
+                                                 rootDir.toString()));
+        }
+
+        @Test
+        @DisplayName("not rewrite the model file if the model is not changed")
+        void skipUnchanged() throws IOException {
+            writeModel("org.example.A", "org.example.B");
+            var modified = FileTime.fromMillis(0);
+            Files.setLastModifiedTime(modelFile, modified);
+
+            processor.onProcessingOver();
+
+            assertThat(Files.getLastModifiedTime(modelFile)).isEqualTo(modified);
+        }
+
+        @Test
+        @DisplayName("rewrite the model file if the model is changed")
+        void rewriteChanged() throws IOException {
+            writeModel("org.example.B", "org.example.A", "org.example.B");
+
+            processor.onProcessingOver();
+
+            try (var in = Files.newInputStream(modelFile)) {
+                var model = CommandReceivers.parseFrom(in);
+                assertThat(model.getCommandReceivingTypeList())
+                        .containsExactly("org.example.A", "org.example.B")
+                        .inOrder();
+            }
+        }
 
-        assertThat(opts).contains(AssignLookup.OUTPUT_OPTION_NAME);
+        private void writeModel(String... types) throws IOException {
+            var model = CommandReceivers.newBuilder()
+                    .addAllCommandReceivingType(List.of(types))
+                    .build();
+            Files.createDirectories(modelFile.getParent());
+            try (var out = Files.newOutputStream(modelFile)) {
+                model.writeTo(out);
+            }
+        }
     }
 }
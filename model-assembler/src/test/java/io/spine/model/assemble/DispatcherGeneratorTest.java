@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableList;
+import io.spine.model.runtime.DispatchWarmUp;
+import io.spine.model.runtime.DispatcherRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.assemble.DispatcherGenerator.DISPATCHER_SUFFIX;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("`DispatcherGenerator` should")
+class DispatcherGeneratorTest {
+
+    private static final String RECEIVER = "org.example.Orders";
+    private static final String DISPATCHER = RECEIVER + DISPATCHER_SUFFIX;
+
+    private Path root;
+    private Path classes;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException {
+        root = tempDir;
+        classes = Files.createDirectories(tempDir.resolve("classes"));
+    }
+
+    @Test
+    @DisplayName("generate a dispatcher calling the handlers directly")
+    void dispatch() throws Exception {
+        compile(source("org.example.Orders",
+                       "package org.example;",
+                       "import io.spine.core.CommandContext;",
+                       "import io.spine.server.command.Assign;",
+                       "public class Orders {",
+                       "    @Assign String place(Place command) { return \"placed\"; }",
+                       "    @Assign String cancel(Cancel command, CommandContext context) {",
+                       "        return \"cancelled\";",
+                       "    }",
+                       "}"));
+        try (var loader = classLoader()) {
+            var receiver = loader.loadClass(RECEIVER);
+            var context = loader.loadClass("io.spine.core.CommandContext");
+            var dispatch = loader.loadClass(DISPATCHER)
+                                 .getMethod("dispatch", receiver, Object.class, context);
+            var instance = receiver.getConstructor().newInstance();
+
+            assertThat(dispatch.invoke(null, instance, newInstance(loader, "Place"), null))
+                    .isEqualTo("placed");
+            assertThat(dispatch.invoke(null, instance, newInstance(loader, "Cancel"), null))
+                    .isEqualTo("cancelled");
+            var error = assertThrows(InvocationTargetException.class,
+                                     () -> dispatch.invoke(null, instance, "unknown", null));
+            assertThat(error.getCause()).isInstanceOf(IllegalArgumentException.class);
+
+            assertThat(DispatcherRegistry.load(loader)).containsEntry(RECEIVER, DISPATCHER);
+        }
+    }
+
+    @Test
+    @DisplayName("generate a warm-up routine routing the default commands without handling them")
+    void warmUp() throws Exception {
+        compile(source("org.example.Orders",
+                       "package org.example;",
+                       "import io.spine.server.command.Assign;",
+                       "public class Orders {",
+                       "    public static int handled;",
+                       "    @Assign String place(Place command) {",
+                       "        handled++;",
+                       "        return \"placed\";",
+                       "    }",
+                       "    @Assign String cancel(Cancel command) {",
+                       "        handled++;",
+                       "        return \"cancelled\";",
+                       "    }",
+                       "}"));
+        try (var loader = classLoader()) {
+            var routed = loader.loadClass(DISPATCHER)
+                               .getMethod(DispatchWarmUp.WARM_UP_METHOD, int.class)
+                               .invoke(null, 3);
+            var report = DispatchWarmUp.run(loader, 3);
+
+            assertThat(routed).isEqualTo(3);
+            assertThat(report.iterations()).isEqualTo(3);
+            assertThat(report.warmedUp()).containsKey(RECEIVER);
+            assertThat(report.skipped()).isEmpty();
+            assertThat(loader.loadClass(RECEIVER)
+                             .getField("handled")
+                             .getInt(null)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    @DisplayName("not warm up the dispatchers unless the iterations are set")
+    void warmUpOff() throws Exception {
+        compile(source("org.example.Orders",
+                       "package org.example;",
+                       "import io.spine.server.command.Assign;",
+                       "public class Orders {",
+                       "    @Assign String place(Place command) { return \"placed\"; }",
+                       "}"));
+        try (var loader = classLoader()) {
+            var report = DispatchWarmUp.run(loader, DispatchWarmUp.iterations());
+
+            assertThat(report.iterations()).isEqualTo(0);
+            assertThat(report.warmedUp()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("not generate a dispatcher for a receiver with `private` handlers")
+    void skipPrivate() throws IOException {
+        compile(source("org.example.Orders",
+                       "package org.example;",
+                       "import io.spine.server.command.Assign;",
+                       "public class Orders {",
+                       "    @Assign private String place(Place command) { return \"placed\"; }",
+                       "}"));
+
+        assertThat(Files.exists(classes.resolve("org/example/Orders_Dispatcher.class")))
+                .isFalse();
+        assertThat(Files.exists(classes.resolve(DispatcherRegistry.REGISTRY_PATH))).isFalse();
+    }
+
+    private void compile(Path receiver, Path... otherSources) throws IOException {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var files = new ArrayList<Path>();
+        files.add(receiver);
+        files.addAll(List.of(otherSources));
+        files.add(source("io.spine.server.command.Assign",
+                         "package io.spine.server.command;",
+                         "public @interface Assign {}"));
+        files.add(source("io.spine.core.CommandContext",
+                         "package io.spine.core;",
+                         "public final class CommandContext {",
+                         "    public static CommandContext getDefaultInstance() {",
+                         "        return new CommandContext();",
+                         "    }",
+                         "}"));
+        files.add(source("org.example.Place",
+                         "package org.example;",
+                         "public final class Place {",
+                         "    public static Place getDefaultInstance() { return new Place(); }",
+                         "}"));
+        files.add(source("org.example.Cancel",
+                         "package org.example;",
+                         "public final class Cancel {",
+                         "    public static Cancel getDefaultInstance() { return new Cancel(); }",
+                         "}"));
+        try (var fileManager = compiler.getStandardFileManager(null, null, UTF_8)) {
+            var units = fileManager.getJavaFileObjectsFromPaths(files);
+            List<String> options = ImmutableList.of(
+                    "-d", classes.toString(),
+                    "-s", Files.createDirectories(root.resolve("generated")).toString(),
+                    "-A" + AssignLookup.OUTPUT_OPTION_NAME + '=' + root,
+                    "-A" + AssignLookup.DISPATCHERS_OPTION_NAME + "=true"
+            );
+            var task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(ImmutableList.of(new AssignLookup()));
+            assertThat(task.call()).isTrue();
+        }
+    }
+
+    private Path source(String className, String... lines) throws IOException {
+        var file = root.resolve("src")
+                       .resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        return Files.write(file, List.of(lines), UTF_8);
+    }
+
+    private URLClassLoader classLoader() throws IOException {
+        return new URLClassLoader(new URL[]{classes.toUri().toURL()},
+                                  getClass().getClassLoader());
+    }
+
+    private static Object newInstance(ClassLoader loader, String simpleName) throws Exception {
+        return loader.loadClass("org.example." + simpleName)
+                     .getConstructor()
+                     .newInstance();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
+import io.spine.model.CommandReceivers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth8.assertThat;
+
+@DisplayName("`DuplicateHandlers` should")
+class DuplicateHandlersTest {
+
+    private static final String CREATE_ORDER = "org.example.CreateOrder";
+    private static final String CANCEL_ORDER = "org.example.CancelOrder";
+
+    @Test
+    @DisplayName("accept the handlers of different commands")
+    void acceptDistinct() {
+        var handlers = DuplicateHandlers.empty();
+
+        assertThat(handlers.register("org.example.Order", handler("handle", CREATE_ORDER)))
+                .isEmpty();
+        assertThat(handlers.register("org.example.Order", handler("handle", CANCEL_ORDER)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("find the handler registered earlier for the same command")
+    void findDuplicate() {
+        var handlers = DuplicateHandlers.empty();
+        handlers.register("org.example.Order", handler("handle", CREATE_ORDER));
+
+        assertThat(handlers.register("org.example.Cart", handler("checkout", CREATE_ORDER)))
+                .hasValue("org.example.Order.handle()");
+    }
+
+    @Test
+    @DisplayName("find the handler recorded in the model")
+    void findRecorded() {
+        var model = CommandReceivers.newBuilder()
+                .addCommandReceivingType("org.example.Order")
+                .addReceiver(CommandReceiver.newBuilder()
+                                     .setType("org.example.Order")
+                                     .addMethod(handler("handle", CREATE_ORDER)))
+                .build();
+        var handlers = DuplicateHandlers.of(model);
+
+        assertThat(handlers.register("org.example.Cart", handler("checkout", CREATE_ORDER)))
+                .hasValue("org.example.Order.handle()");
+    }
+
+    private static CommandHandlerMethod handler(String name, String commandType) {
+        return CommandHandlerMethod.newBuilder()
+                .setName(name)
+                .setCommandType(commandType)
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.assemble.HandlerConventions.ASSIGN_ANNOTATION;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@DisplayName("`ElementBatch` should")
+class ElementBatchTest {
+
+    private Path root;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        root = tempDir;
+    }
+
+    @Test
+    @DisplayName("group the annotated members under their types")
+    void groupByType() throws IOException {
+        var collector = new BatchCollector();
+
+        compile(collector,
+                source("org.example.Orders",
+                       "package org.example;",
+                       "import io.spine.server.command.Assign;",
+                       "public class Orders {",
+                       "    @Assign void place() {}",
+                       "    @Assign void cancel() {}",
+                       "}"));
+
+        assertThat(collector.types).containsExactly("org.example.Orders");
+        assertThat(collector.elementCount).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("skip the annotated elements not enclosed by a type")
+    void skipPackages() throws IOException {
+        var collector = new BatchCollector();
+
+        compile(collector,
+                source("org.example.package-info",
+                       "@io.spine.server.command.Assign",
+                       "package org.example;"),
+                source("org.example.Orders",
+                       "package org.example;",
+                       "import io.spine.server.command.Assign;",
+                       "public class Orders {",
+                       "    @Assign void place() {}",
+                       "}"));
+
+        assertThat(collector.types).containsExactly("org.example.Orders");
+        assertThat(collector.elementCount).isEqualTo(1);
+    }
+
+    private void compile(BatchCollector collector, Path... sources) throws IOException {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var files = new ArrayList<>(List.of(sources));
+        files.add(source("io.spine.server.command.Assign",
+                         "package io.spine.server.command;",
+                         "public @interface Assign {}"));
+        try (var fileManager = compiler.getStandardFileManager(null, null, UTF_8)) {
+            var units = fileManager.getJavaFileObjectsFromPaths(files);
+            var classes = Files.createDirectories(root.resolve("classes"));
+            List<String> options = ImmutableList.of("-d", classes.toString(), "-proc:only");
+            var task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(ImmutableList.of(collector));
+            assertThat(task.call()).isTrue();
+        }
+    }
+
+    private Path source(String className, String... lines) throws IOException {
+        var file = root.resolve("src")
+                       .resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        return Files.write(file, List.of(lines), UTF_8);
+    }
+
+    /**
+     * Collects the names of the types and the number of the elements of the batches
+     * of the {@code Assign} annotation.
+     */
+    private static final class BatchCollector extends AbstractProcessor {
+
+        private final List<String> types = new ArrayList<>();
+        private int elementCount;
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return Set.of(ASSIGN_ANNOTATION);
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations,
+                               RoundEnvironment roundEnv) {
+            if (!annotations.isEmpty()) {
+                var batch = ElementBatch.collect(roundEnv, annotations,
+                                                 processingEnv.getElementUtils());
+                batch.types()
+                     .forEach(type -> types.add(type.getQualifiedName().toString()));
+                elementCount += batch.elementCount();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableList;
+import io.spine.model.ReceiverKind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.assemble.HandlerConventions.receiverKind;
+
+@DisplayName("`HandlerConventions` should")
+class HandlerConventionsTest {
+
+    @Test
+    @DisplayName("obtain the receiver kind from the nearest known base class")
+    void receiverKindOfBaseClass() {
+        var superclasses = ImmutableList.of("org.example.OrderBase",
+                                            "io.spine.server.procman.ProcessManager",
+                                            "io.spine.server.command.AbstractAssignee");
+
+        assertThat(receiverKind(superclasses)).isEqualTo(ReceiverKind.PROCESS_MANAGER);
+    }
+
+    @Test
+    @DisplayName("treat a receiver without known base classes as other receiver")
+    void otherReceiver() {
+        var superclasses = ImmutableList.of("org.example.OrderBase");
+
+        assertThat(receiverKind(superclasses)).isEqualTo(ReceiverKind.OTHER_RECEIVER);
+    }
+}
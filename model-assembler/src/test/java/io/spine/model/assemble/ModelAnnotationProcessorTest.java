@@ -37,11 +37,15 @@ import static javax.tools.Diagnostic.Kind.ERROR;
 import static javax.tools.Diagnostic.Kind.WARNING;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("`ModelAnnotationProcessor` should")
 abstract class ModelAnnotationProcessorTest {
 
+    /**
+     * The pattern of a fully-qualified name of a type in a named package.
+     */
+    private static final String QUALIFIED_NAME = "([a-z_][\\w]*\\.)+[A-Z][\\w$]*";
+
     private ModelAnnotationProcessor processor;
 
     protected abstract ModelAnnotationProcessor processor();
@@ -52,29 +56,32 @@ abstract class ModelAnnotationProcessorTest {
     }
 
     @Test
-    @DisplayName("have constant annotation type")
-    void getAnnotationType() {
-        Class<?> target = processor.getAnnotationType();
-        assertNotNull(target);
-        assertTrue(target.isAnnotation());
+    @DisplayName("have constant annotation types")
+    void getAnnotationTypes() {
+        var targets = processor.getAnnotationTypes();
+        assertThat(targets).isNotEmpty();
+        for (var target : targets) {
+            assertThat(target).matches(QUALIFIED_NAME);
+        }
 
         processor.setOptions(newHashMap());
 
         // Some actions that may change the processor's internal state.
         processor.onRoundStarted();
         processor.onRoundFinished();
+        processor.onProcessingOver();
 
-        assertEquals(target, processor.getAnnotationType());
+        assertEquals(targets, processor.getAnnotationTypes());
     }
 
     @Test
-    @DisplayName("generate supported annotation names based on target annotation")
+    @DisplayName("generate supported annotation names based on target annotations")
     void getSupportedAnnotationTypes() {
-        Class<?> targetType = processor.getAnnotationType();
+        var targetNames = processor.getAnnotationTypes();
         var supportedAnnotations = processor.getSupportedAnnotationTypes();
 
         assertNotNull(supportedAnnotations);
-        assertEquals(targetType.getName(), supportedAnnotations.iterator().next());
+        assertThat(supportedAnnotations).containsExactlyElementsIn(targetNames);
     }
 
     @Test
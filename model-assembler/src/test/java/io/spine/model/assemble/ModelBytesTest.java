@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.model.CommandReceivers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.assemble.ModelBytes.toBytes;
+
+@DisplayName("`ModelBytes` should")
+class ModelBytesTest {
+
+    @Test
+    @DisplayName("serialize the maps regardless of the order of their entries")
+    void serializeDeterministically() {
+        var forward = CommandReceivers.newBuilder()
+                .putOrigin("org.example.Order", ":orders")
+                .putOrigin("org.example.Bill", ":billing")
+                .build();
+        var backward = CommandReceivers.newBuilder()
+                .putOrigin("org.example.Bill", ":billing")
+                .putOrigin("org.example.Order", ":orders")
+                .build();
+
+        assertThat(toBytes(forward)).isEqualTo(toBytes(backward));
+    }
+
+    @Test
+    @DisplayName("produce the bytes parsable into the same message")
+    void roundTrip() throws Exception {
+        var model = CommandReceivers.newBuilder()
+                .addCommandReceivingType("org.example.Order")
+                .putOrigin("org.example.Order", ":orders")
+                .build();
+
+        assertThat(CommandReceivers.parseFrom(toBytes(model))).isEqualTo(model);
+    }
+}
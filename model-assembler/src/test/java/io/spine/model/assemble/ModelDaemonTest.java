@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.assemble;
+
+import io.spine.model.CommandReceivers;
+import io.spine.model.ModelUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@DisplayName("`ModelDaemon` should")
+class ModelDaemonTest {
+
+    private Path model;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        model = tempDir.resolve(".spine/spine_model.ser");
+    }
+
+    @Test
+    @DisplayName("not accept updates if not running")
+    void notRunning() {
+        assertThat(ModelDaemon.send(model, update("a", "org.example.A"))).isFalse();
+        assertThat(Files.exists(model)).isFalse();
+    }
+
+    @Test
+    @DisplayName("tell if it is running")
+    void running() {
+        assertThat(ModelDaemon.isRunning(model)).isFalse();
+        try (var ignored = ModelDaemon.start(model)) {
+            assertThat(ModelDaemon.isRunning(model)).isTrue();
+        }
+        assertThat(ModelDaemon.isRunning(model)).isFalse();
+    }
+
+    @Test
+    @DisplayName("delete the port file left by a stopped daemon")
+    void deleteStalePortFile() throws IOException {
+        var portFile = ModelDaemon.portFileFor(model);
+        Files.createDirectories(portFile.getParent());
+        Files.write(portFile, List.of("49152", "secret"));
+
+        assertThat(ModelDaemon.isRunning(model)).isFalse();
+        assertThat(Files.exists(portFile)).isFalse();
+        assertThat(ModelDaemon.send(model, update("a", "org.example.A"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("not start if another daemon serves the model")
+    void singleDaemon() {
+        try (var ignored = ModelDaemon.start(model)) {
+            assertThrows(IllegalStateException.class, () -> ModelDaemon.start(model));
+            assertThat(ModelDaemon.isRunning(model)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("merge the updates sent concurrently")
+    void mergeConcurrent() throws Exception {
+        var clients = 16;
+        List<Callable<Boolean>> sends = new ArrayList<>();
+        for (var i = 0; i < clients; i++) {
+            var update = update("module" + i, "org.example.Type" + i);
+            sends.add(() -> ModelDaemon.send(model, update));
+        }
+        var executor = Executors.newFixedThreadPool(clients);
+        try (var ignored = ModelDaemon.start(model)) {
+            for (var result : executor.invokeAll(sends)) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        var merged = read();
+        assertThat(merged.getCommandReceivingTypeList()).hasSize(clients);
+        assertThat(Files.exists(ModelIndex.pathFor(model))).isTrue();
+        assertThat(Files.exists(ModelDaemon.portFileFor(model))).isFalse();
+    }
+
+    @Test
+    @DisplayName("fold the journal into the model file when started")
+    void foldJournal() throws IOException {
+        new ModelJournal(model).append(update("a", "org.example.A"));
+
+        try (var daemon = ModelDaemon.start(model)) {
+            assertThat(daemon.port()).isGreaterThan(0);
+            assertThat(ModelDaemon.send(model, update("b", "org.example.B"))).isTrue();
+        }
+
+        assertThat(read().getCommandReceivingTypeList())
+                .containsExactly("org.example.A", "org.example.B")
+                .inOrder();
+        assertThat(new ModelJournal(model).hasRecords()).isFalse();
+    }
+
+    @Test
+    @DisplayName("drain the updates appended to the journal while running")
+    void drainJournal() throws IOException {
+        try (var ignored = ModelDaemon.start(model)) {
+            assertThat(ModelDaemon.send(model, update("a", "org.example.A"))).isTrue();
+            new ModelJournal(model).append(update("b", "org.example.B"));
+            assertThat(ModelDaemon.send(model, update("c", "org.example.C"))).isTrue();
+        }
+
+        assertThat(read().getCommandReceivingTypeList())
+                .containsExactly("org.example.A", "org.example.B", "org.example.C")
+                .inOrder();
+        assertThat(new ModelJournal(model).hasRecords()).isFalse();
+    }
+
+    @Test
+    @DisplayName("accept updates while another client is stalled")
+    void stalledClient() throws IOException {
+        try (var daemon = ModelDaemon.start(model);
+             var stalled = new Socket(InetAddress.getLoopbackAddress(), daemon.port())) {
+            assertThat(stalled.isConnected()).isTrue();
+            assertTimeoutPreemptively(
+                    Duration.ofSeconds(10),
+                    () -> assertThat(ModelDaemon.send(model, update("a", "org.example.A")))
+                            .isTrue());
+        }
+    }
+
+    private CommandReceivers read() throws IOException {
+        return CommandReceivers.parseFrom(Files.readAllBytes(model));
+    }
+
+    private static ModelUpdate update(String origin, String... types) {
+        var receivers = CommandReceivers.newBuilder()
+                .addAllCommandReceivingType(List.of(types));
+        for (var type : types) {
+            receivers.putOrigin(type, origin);
+        }
+        return ModelUpdate.newBuilder()
+                .setReceivers(receivers)
+                .addProcessedOrigin(origin)
+                .build();
+    }
+}
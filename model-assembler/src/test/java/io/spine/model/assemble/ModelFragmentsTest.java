@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.model.CommandReceivers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.assemble.ModelFragments.FRAGMENT_PATH;
+
+@DisplayName("`ModelFragments` should")
+class ModelFragmentsTest {
+
+    @Test
+    @DisplayName("merge fragments from class directories and JARs")
+    void mergeFragments(@TempDir Path tempDir) throws IOException {
+        var classes = tempDir.resolve("classes");
+        var fragment = classes.resolve(FRAGMENT_PATH);
+        Files.createDirectories(fragment.getParent());
+        try (var out = Files.newOutputStream(fragment)) {
+            receivers("org.example.B", "org.example.A").writeTo(out);
+        }
+        var jar = tempDir.resolve("module.jar");
+        try (var out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry(FRAGMENT_PATH));
+            receivers("org.example.C", "org.example.A").writeTo(out);
+            out.closeEntry();
+        }
+
+        var merged = ModelFragments.collect(List.of(classes, jar));
+
+        assertThat(merged.getCommandReceivingTypeList())
+                .containsExactly("org.example.A", "org.example.B", "org.example.C")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("skip locations without fragments")
+    void skipMissing(@TempDir Path tempDir) {
+        var missing = tempDir.resolve("missing");
+
+        var merged = ModelFragments.collect(List.of(tempDir, missing));
+
+        assertThat(merged.getCommandReceivingTypeList()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("merge fragments found by a class loader")
+    void mergeClassLoaderFragments(@TempDir Path tempDir) throws IOException {
+        var first = tempDir.resolve("first");
+        var second = tempDir.resolve("second");
+        writeFragment(first, receivers("org.example.B"));
+        writeFragment(second, receivers("org.example.A"));
+        var urls = new URL[]{first.toUri().toURL(), second.toUri().toURL()};
+
+        try (var classLoader = new URLClassLoader(urls, null)) {
+            var merged = ModelFragments.collect(classLoader);
+
+            assertThat(merged.getCommandReceivingTypeList())
+                    .containsExactly("org.example.A", "org.example.B")
+                    .inOrder();
+        }
+    }
+
+    private static void writeFragment(Path classes, CommandReceivers receivers)
+            throws IOException {
+        var fragment = classes.resolve(FRAGMENT_PATH);
+        Files.createDirectories(fragment.getParent());
+        try (var out = Files.newOutputStream(fragment)) {
+            receivers.writeTo(out);
+        }
+    }
+
+    private static CommandReceivers receivers(String... types) {
+        return CommandReceivers.newBuilder()
+                .addAllCommandReceivingType(List.of(types))
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("`ModelIndex` should")
+class ModelIndexTest {
+
+    private Path file;
+    private Path model;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        model = tempDir.resolve("spine_model.ser");
+        file = tempDir.resolve("spine_model.ser.idx");
+    }
+
+    @Test
+    @DisplayName("iterate over the sorted names without duplicates")
+    void iterateSorted() {
+        ModelIndex.write(file, ImmutableList.of("org.example.c.Order",
+                                                "org.example.a.Cart",
+                                                "org.example.c.Order",
+                                                "org.example.b.Bill"), model);
+        var index = ModelIndex.open(file);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index)
+                .containsExactly("org.example.a.Cart", "org.example.b.Bill", "org.example.c.Order")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("look up the names spanning several blocks")
+    void lookUp() {
+        var names = new ArrayList<String>();
+        for (var i = 0; i < 100; i++) {
+            names.add(format("org.example.p%d.Receiver%d", i % 7, i));
+        }
+        ModelIndex.write(file, names, model);
+        var index = ModelIndex.open(file);
+
+        for (var name : names) {
+            assertThat(index.contains(name)).isTrue();
+        }
+        assertThat(index.contains("org.example.p1.Receiver2")).isFalse();
+        assertThat(index.contains("org.example")).isFalse();
+        assertThat(index.contains("z")).isFalse();
+        assertThat(index).containsExactlyElementsIn(names);
+    }
+
+    @Test
+    @DisplayName("handle an empty index")
+    void empty() {
+        ModelIndex.write(file, ImmutableList.of(), model);
+        var index = ModelIndex.open(file);
+
+        assertThat(index.size()).isEqualTo(0);
+        assertThat(index).isEmpty();
+        assertThat(index.contains("org.example.Order")).isFalse();
+    }
+
+    @Test
+    @DisplayName("reject a file of another format")
+    void rejectUnknown() throws IOException {
+        Files.write(file, new byte[64]);
+
+        assertThrows(IllegalStateException.class, () -> ModelIndex.open(file));
+    }
+
+    @Test
+    @DisplayName("reject an empty file")
+    void rejectEmpty() throws IOException {
+        Files.write(file, new byte[0]);
+
+        assertThrows(IllegalStateException.class, () -> ModelIndex.open(file));
+    }
+
+    @Test
+    @DisplayName("reject a truncated file")
+    void rejectTruncated() throws IOException {
+        ModelIndex.write(file, ImmutableList.of("org.example.Order", "org.example.Cart"), model);
+        var content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 3));
+
+        assertThrows(IllegalStateException.class, () -> ModelIndex.open(file));
+    }
+
+    @Test
+    @DisplayName("tell if it is built for the current version of the model file")
+    void checkUpToDate() throws IOException {
+        Files.write(model, "first".getBytes(UTF_8));
+        ModelIndex.write(file, ImmutableList.of("org.example.Order"), model);
+
+        assertThat(ModelIndex.isUpToDate(file, model)).isTrue();
+
+        var modified = Files.getLastModifiedTime(model);
+        Files.write(model, "second".getBytes(UTF_8));
+        Files.setLastModifiedTime(model, modified);
+
+        assertThat(ModelIndex.isUpToDate(file, model)).isFalse();
+
+        ModelIndex.write(file, ImmutableList.of("org.example.Order"), model);
+        Files.setLastModifiedTime(model, FileTime.fromMillis(modified.toMillis() + 1_000));
+
+        assertThat(ModelIndex.isUpToDate(file, model)).isFalse();
+    }
+
+    @Test
+    @DisplayName("not be up-to-date if it is truncated")
+    void truncatedNotUpToDate() throws IOException {
+        Files.write(file, new byte[0]);
+
+        assertThat(ModelIndex.isUpToDate(file, model)).isFalse();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.model.CommandReceivers;
+import io.spine.model.ModelUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.file.StandardOpenOption.APPEND;
+
+@DisplayName("`ModelJournal` should")
+class ModelJournalTest {
+
+    private Path snapshot;
+    private Path journalFile;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        snapshot = tempDir.resolve(".spine/spine_model.ser");
+        journalFile = snapshot.resolveSibling("spine_model.ser.journal");
+    }
+
+    @Test
+    @DisplayName("read an empty model if nothing is written")
+    void readEmpty() {
+        var journal = new ModelJournal(snapshot);
+
+        assertThat(journal.read().getCommandReceivingTypeList()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("merge appended deltas")
+    void mergeDeltas() {
+        var journal = new ModelJournal(snapshot);
+        journal.append(update("a", "org.example.C", "org.example.A"));
+        journal.append(update("b", "org.example.B", "org.example.A"));
+
+        assertThat(journal.read().getCommandReceivingTypeList())
+                .containsExactly("org.example.A", "org.example.B", "org.example.C")
+                .inOrder();
+        assertThat(Files.exists(snapshot)).isFalse();
+    }
+
+    @Test
+    @DisplayName("compact deltas into the snapshot when reaching the threshold")
+    void compact() throws IOException {
+        var journal = new ModelJournal(snapshot, 1);
+        journal.append(update("b", "org.example.B"));
+        journal.append(update("a", "org.example.A"));
+
+        assertThat(Files.size(journalFile)).isEqualTo(0);
+        try (var in = Files.newInputStream(snapshot)) {
+            var compacted = CommandReceivers.parseFrom(in);
+            assertThat(compacted.getCommandReceivingTypeList())
+                    .containsExactly("org.example.A", "org.example.B")
+                    .inOrder();
+        }
+    }
+
+    @Test
+    @DisplayName("compact deltas if the port file of a stopped daemon is left")
+    void compactAfterDaemon() throws IOException {
+        var portFile = ModelDaemon.portFileFor(snapshot);
+        Files.createDirectories(portFile.getParent());
+        Files.write(portFile, List.of("49152", "secret"));
+        var journal = new ModelJournal(snapshot, 1);
+        journal.append(update("a", "org.example.A"));
+
+        assertThat(Files.size(journalFile)).isEqualTo(0);
+        assertThat(Files.exists(snapshot)).isTrue();
+        assertThat(Files.exists(portFile)).isFalse();
+    }
+
+    @Test
+    @DisplayName("ignore and overwrite a torn record")
+    void ignoreTornRecord() throws IOException {
+        var journal = new ModelJournal(snapshot);
+        journal.append(update("a", "org.example.A"));
+        Files.write(journalFile, new byte[]{0, 0, 0, 42, 1, 2}, APPEND);
+
+        assertThat(journal.read().getCommandReceivingTypeList())
+                .containsExactly("org.example.A");
+
+        journal.append(update("b", "org.example.B"));
+
+        assertThat(journal.read().getCommandReceivingTypeList())
+                .containsExactly("org.example.A", "org.example.B")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("drop the receivers no longer found in their origin")
+    void pruneStale() {
+        var journal = new ModelJournal(snapshot);
+        journal.append(update("a", "org.example.A", "org.example.Old"));
+        journal.append(update("b", "org.example.B"));
+        journal.append(update("a", "org.example.A"));
+
+        assertThat(journal.read().getCommandReceivingTypeList())
+                .containsExactly("org.example.A", "org.example.B")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("not append the update equal to the latest one of the same origin")
+    void skipRecorded() throws IOException {
+        var journal = new ModelJournal(snapshot);
+        journal.append(update("a", "org.example.A"));
+        var size = Files.size(journalFile);
+
+        journal.append(update("a", "org.example.A"));
+
+        assertThat(Files.size(journalFile)).isEqualTo(size);
+    }
+
+    @Test
+    @DisplayName("write the index of the snapshot on compaction")
+    void writeIndex() {
+        var journal = new ModelJournal(snapshot, 1);
+        journal.append(update("a", "org.example.B", "org.example.A"));
+
+        assertThat(Files.exists(ModelIndex.pathFor(snapshot))).isTrue();
+        assertThat(journal.receiverTypes())
+                .containsExactly("org.example.A", "org.example.B")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("read the model if the index of the snapshot is corrupted")
+    void fallBackToModel() throws IOException {
+        var journal = new ModelJournal(snapshot, 1);
+        journal.append(update("a", "org.example.B", "org.example.A"));
+        var index = ModelIndex.pathFor(snapshot);
+        var content = Files.readAllBytes(index);
+        Files.write(index, Arrays.copyOf(content, content.length - 3));
+
+        assertThat(journal.receiverTypes())
+                .containsExactly("org.example.A", "org.example.B")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("not lose the updates being compacted while the model is read")
+    void readWhileCompacting() throws Exception {
+        var writer = new ModelJournal(snapshot, 1);
+        var reader = new ModelJournal(snapshot);
+        var count = 50;
+        var appends = Executors.newSingleThreadExecutor();
+        try {
+            var done = appends.submit(() -> {
+                for (var i = 0; i < count; i++) {
+                    writer.append(update("o" + i, "org.example.R" + i));
+                }
+            });
+            var seen = 0;
+            while (!done.isDone()) {
+                var size = reader.read().getCommandReceivingTypeCount();
+                assertThat(size).isAtLeast(seen);
+                seen = size;
+            }
+            done.get();
+        } finally {
+            appends.shutdownNow();
+        }
+
+        assertThat(reader.read().getCommandReceivingTypeCount()).isEqualTo(count);
+    }
+
+    private static ModelUpdate update(String origin, String... types) {
+        var receivers = CommandReceivers.newBuilder()
+                .addAllCommandReceivingType(List.of(types));
+        for (var type : types) {
+            receivers.putOrigin(type, origin);
+        }
+        return ModelUpdate.newBuilder()
+                .setReceivers(receivers)
+                .addProcessedOrigin(origin)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("`ProcessingStats` should")
+class ProcessingStatsTest {
+
+    private static final String PROCESSOR = AssignLookup.class.getName();
+
+    @Test
+    @DisplayName("write the recorded statistics as a single-line JSON record")
+    void writeJson() {
+        var stats = new ProcessingStats();
+        stats.recordRound(2, 5, 1_000_000);
+        stats.recordRound(0, 0, 500_000);
+        stats.addBytesRead(10);
+        stats.addBytesWritten(20);
+        stats.measure("merge", () -> {});
+
+        var json = stats.toJson(PROCESSOR, ImmutableMap.of("spineModule", ":orders"));
+
+        assertThat(json).doesNotContain("\n");
+        assertThat(json).startsWith("{\"processor\":\"" + PROCESSOR + '"');
+        assertThat(json).contains("\"options\":{\"spineModule\":\":orders\"}");
+        assertThat(json).contains("\"elements\":5,\"bytesRead\":10,\"bytesWritten\":20");
+        assertThat(json).contains("\"rounds\":[{\"types\":2,\"elements\":5,\"millis\":1.0},"
+                                          + "{\"types\":0,\"elements\":0,\"millis\":0.5}]");
+        assertThat(json).contains("\"phases\":{\"merge\":");
+    }
+
+    @Test
+    @DisplayName("escape the strings in the JSON record")
+    void escapeStrings() {
+        var stats = new ProcessingStats();
+
+        var json = stats.toJson(PROCESSOR, ImmutableMap.of("spineDirRoot", "C:\\\"root\""));
+
+        assertThat(json).contains("\"spineDirRoot\":\"C:\\\\\\\"root\\\"\"");
+    }
+
+    @Test
+    @DisplayName("summarize the statistics")
+    void summarize() {
+        var stats = new ProcessingStats();
+        stats.recordRound(1, 3, 2_000_000);
+        stats.addBytesWritten(42);
+
+        var summary = stats.summary(PROCESSOR);
+
+        assertThat(summary).contains("3 element(s) in 1 round(s)");
+        assertThat(summary).contains("wrote 42 byte(s)");
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
+import io.spine.model.CommandReceivers;
+import io.spine.model.ModelUpdate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("`ReceiverIndex` should")
+class ReceiverIndexTest {
+
+    private static final String MODULE = ":orders";
+    private static final String OTHER_MODULE = ":billing";
+
+    @Test
+    @DisplayName("drop the receivers of the processed origins which are no longer found")
+    void pruneStale() {
+        var existing = CommandReceivers.newBuilder()
+                .addCommandReceivingType("org.example.Deleted")
+                .putOrigin("org.example.Deleted", MODULE)
+                .addCommandReceivingType("org.example.Billing")
+                .putOrigin("org.example.Billing", OTHER_MODULE)
+                .addCommandReceivingType("org.example.Legacy")
+                .build();
+        var index = ReceiverIndex.of(existing);
+
+        index.apply(ModelUpdate.newBuilder()
+                            .setReceivers(CommandReceivers.newBuilder()
+                                                  .addCommandReceivingType("org.example.Order")
+                                                  .putOrigin("org.example.Order", MODULE))
+                            .addProcessedOrigin(MODULE)
+                            .build());
+        var model = index.toModel();
+
+        assertThat(model.getCommandReceivingTypeList())
+                .containsExactly("org.example.Billing", "org.example.Legacy", "org.example.Order")
+                .inOrder();
+        assertThat(model.getOriginMap())
+                .containsExactly("org.example.Billing", OTHER_MODULE,
+                                 "org.example.Order", MODULE);
+    }
+
+    @Test
+    @DisplayName("keep the details of the receivers along with their types")
+    void keepDetails() {
+        var order = receiver("org.example.Order", "handle");
+        var deleted = receiver("org.example.Deleted", "on");
+        var existing = CommandReceivers.newBuilder()
+                .addCommandReceivingType(deleted.getType())
+                .putOrigin(deleted.getType(), MODULE)
+                .addReceiver(deleted)
+                .build();
+        var index = ReceiverIndex.of(existing);
+
+        index.apply(ModelUpdate.newBuilder()
+                            .setReceivers(CommandReceivers.newBuilder()
+                                                  .addCommandReceivingType(order.getType())
+                                                  .putOrigin(order.getType(), MODULE)
+                                                  .addReceiver(order))
+                            .addProcessedOrigin(MODULE)
+                            .build());
+
+        assertThat(index.toModel().getReceiverList())
+                .containsExactly(order);
+    }
+
+    private static CommandReceiver receiver(String type, String method) {
+        return CommandReceiver.newBuilder()
+                .setType(type)
+                .addMethod(CommandHandlerMethod.newBuilder()
+                                   .setName(method)
+                                   .setCommandType("org.example.Command"))
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableMap;
+import io.spine.model.CommandReceivers;
+import io.spine.model.ModelUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.assemble.ModelBytes.toBytes;
+
+@DisplayName("`SharedModelFile` should")
+class SharedModelFileTest {
+
+    private File file;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        file = tempDir.resolve(".spine/spine_model.ser")
+                      .toFile();
+    }
+
+    @Test
+    @DisplayName("not read the model file written by itself again")
+    void skipUnchanged() {
+        new SharedModelFile(file, new ProcessingStats()).apply(update("a", "org.example.A"));
+        var stats = new ProcessingStats();
+
+        new SharedModelFile(file, stats).apply(update("b", "org.example.B"));
+
+        var model = new SharedModelFile(file, new ProcessingStats()).read();
+        assertThat(bytesRead(stats)).isEqualTo(0);
+        assertThat(model.getCommandReceivingTypeList())
+                .containsExactly("org.example.A", "org.example.B");
+    }
+
+    @Test
+    @DisplayName("read the model file changed by another writer")
+    void readChanged() throws IOException {
+        new SharedModelFile(file, new ProcessingStats()).apply(update("a", "org.example.A"));
+        var changed = update("c", "org.example.C", "org.example.Changed").getReceivers();
+        Files.write(file.toPath(), toBytes(changed));
+        var stats = new ProcessingStats();
+
+        var model = new SharedModelFile(file, stats).read();
+
+        assertThat(bytesRead(stats)).isGreaterThan(0);
+        assertThat(model.getCommandReceivingTypeList())
+                .containsExactly("org.example.C", "org.example.Changed");
+    }
+
+    private static long bytesRead(ProcessingStats stats) {
+        var json = stats.toJson(SharedModelFile.class.getName(), ImmutableMap.of());
+        var start = json.indexOf("\"bytesRead\":") + "\"bytesRead\":".length();
+        return Long.parseLong(json.substring(start, json.indexOf(',', start)));
+    }
+
+    private static ModelUpdate update(String origin, String... types) {
+        var receivers = CommandReceivers.newBuilder();
+        for (var type : types) {
+            receivers.addCommandReceivingType(type)
+                     .putOrigin(type, origin);
+        }
+        return ModelUpdate.newBuilder()
+                .setReceivers(receivers)
+                .addProcessedOrigin(origin)
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.assemble;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.lang.model.util.ElementFilter.typesIn;
+
+@DisplayName("`SourceFiles` should")
+class SourceFilesTest {
+
+    private Path root;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        root = tempDir;
+    }
+
+    @Test
+    @DisplayName("obtain the source file of a type from its compilation unit")
+    void fromCompilationUnit() throws IOException {
+        var collector = new PathCollector();
+
+        compile(collector,
+                source("org/example/Orders.java",
+                       "package org.example;",
+                       "public class Orders {",
+                       "    public static class Line {}",
+                       "}",
+                       "class OrderHelper {}"),
+                source("Default.java",
+                       "class Default {}"));
+
+        assertThat(collector.paths).containsExactly(
+                "org.example.Orders", "org/example/Orders.java",
+                "org.example.Orders.Line", "org/example/Orders.java",
+                "org.example.OrderHelper", "org/example/Orders.java",
+                "Default", "Default.java"
+        );
+    }
+
+    private void compile(PathCollector collector, Path... sources) throws IOException {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        try (var fileManager = compiler.getStandardFileManager(null, null, UTF_8)) {
+            var units = fileManager.getJavaFileObjectsFromPaths(List.of(sources));
+            var classes = Files.createDirectories(root.resolve("classes"));
+            List<String> options = ImmutableList.of("-d", classes.toString(), "-proc:only");
+            var task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(ImmutableList.of(collector));
+            assertThat(task.call()).isTrue();
+        }
+    }
+
+    private Path source(String path, String... lines) throws IOException {
+        var file = root.resolve("src")
+                       .resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, List.of(lines), UTF_8);
+    }
+
+    /**
+     * Collects the source files of the compiled types and of the types nested in them.
+     */
+    private static final class PathCollector extends AbstractProcessor {
+
+        private final Map<String, String> paths = new TreeMap<>();
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return Set.of("*");
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations,
+                               RoundEnvironment roundEnv) {
+            var sourceFiles = new SourceFiles(processingEnv);
+            for (var type : typesIn(roundEnv.getRootElements())) {
+                collect(sourceFiles, type);
+            }
+            return false;
+        }
+
+        private void collect(SourceFiles sourceFiles, TypeElement type) {
+            paths.put(type.getQualifiedName().toString(), sourceFiles.pathOf(type));
+            typesIn(type.getEnclosedElements()).forEach(nested -> collect(sourceFiles, nested));
+        }
+    }
+}
@@ -24,6 +24,7 @@
  * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import io.spine.internal.dependency.Asm
 import io.spine.internal.dependency.Spine
 import io.spine.internal.gradle.publish.SpinePublishing
 
@@ -43,6 +44,7 @@ dependencies {
     implementation(spine.pluginBase)
 
     implementation(project(":model-assembler"))
+    implementation(Asm.lib)
 
     testImplementation(gradleTestKit())
     testImplementation(spine.testlib)
@@ -52,7 +54,9 @@ dependencies {
 
 tasks.test {
     dependsOn("publishToMavenLocal",
-              ":model-check:publishToMavenLocal")
+              ":model-check:publishToMavenLocal",
+              ":model-assembler:publishToMavenLocal",
+              ":model-runtime:publishToMavenLocal")
 }
 
 /** The publishing settings from the root project. */
@@ -65,12 +69,52 @@ val spinePublishing = rootProject.the<SpinePublishing>()
  */
 val pArtifact = spinePublishing.artifactPrefix + "model-check-bundle"
 
+/**
+ * The ID of the slim plugin artifact.
+ *
+ * The artifact contains only the plugin and the task wiring. The verification engine
+ * is resolved from [pArtifact] when the `checkModel` task is executed.
+ */
+val pluginArtifact = spinePublishing.artifactPrefix + "model-check-plugin"
+
+/**
+ * The JAR with the classes of the plugin, without the verification engine.
+ */
+val pluginJar by tasks.registering(Jar::class) {
+    archiveClassifier.set("plugin")
+    from(sourceSets.main.get().output) {
+        include(
+            "io/spine/model/check/plugin/**",
+            "META-INF/gradle-plugins/**",
+            "versions-*.properties"
+        )
+    }
+}
+
 publishing {
     publications {
         create("fatJar", MavenPublication::class) {
             artifactId = pArtifact
             artifact(tasks.shadowJar)
         }
+        create("plugin", MavenPublication::class) {
+            artifactId = pluginArtifact
+            artifact(pluginJar) {
+                classifier = null
+            }
+            pom.withXml {
+                /* The plugin needs only the plugin base at the configuration time. */
+                val (pluginBaseGroup, pluginBaseName, pluginBaseVersion) =
+                    Spine(project).pluginBase.split(":")
+                asNode().appendNode("dependencies")
+                    .appendNode("dependency").apply {
+                        appendNode("groupId", pluginBaseGroup)
+                        appendNode("artifactId", pluginBaseName)
+                        appendNode("version", pluginBaseVersion)
+                        appendNode("scope", "runtime")
+                    }
+            }
+        }
     }
 }
 
@@ -83,11 +127,20 @@ val publishFatJarPublicationToMavenLocal: Task by tasks.getting {
 }
 
 tasks.publish {
-    dependsOn(tasks.shadowJar)
+    dependsOn(tasks.shadowJar, pluginJar)
 }
 
 tasks.shadowJar {
     exclude(
+        /**
+         * Exclude the plugin published as [pluginArtifact].
+         *
+         * The plugin classes reach the isolated workers along with the work actions,
+         * so the engine does not need another copy of them.
+         */
+        "io/spine/model/check/plugin/**",
+        "META-INF/gradle-plugins/io.spine.tools.spine-model-check.properties",
+
         /**
          * Exclude Gradle types to reduce the size of the resulting JAR.
          *
@@ -129,6 +182,7 @@ tasks.shadowJar {
     archiveClassifier.set("")  /** To prevent Gradle setting something like `osx-x86_64`. */
     mergeServiceFiles("desc.ref")
     mergeServiceFiles("META-INF/services/io.spine.option.OptionsProvider")
+    append("META-INF/gradle/incremental.annotation.processors")
 }
 
 project.afterEvaluate {
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableSet;
+import io.spine.model.VerifiedReceiver;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The classes of the checked project changed since the previous verification of the model.
+ *
+ * <p>If the changes are {@linkplain #unknown() unknown}, the {@link ModelCheckCache} computes
+ * the digests of all the cached receivers to find the changed ones. If the changed classes
+ * are {@linkplain #of(Iterable) known}, the cached receivers none of the covered classes of
+ * which changed are taken as they are.
+ */
+public final class ClassChanges {
+
+    private static final ClassChanges UNKNOWN = new ClassChanges(null);
+
+    private final @Nullable ImmutableSet<String> changedClasses;
+
+    private ClassChanges(@Nullable ImmutableSet<String> changedClasses) {
+        this.changedClasses = changedClasses;
+    }
+
+    /**
+     * Obtains the changes which are not known.
+     */
+    public static ClassChanges unknown() {
+        return UNKNOWN;
+    }
+
+    /**
+     * Creates the changes of the classes with the given names.
+     *
+     * @param changedClasses
+     *         the binary names of the added, modified, and removed classes
+     */
+    public static ClassChanges of(Iterable<String> changedClasses) {
+        return new ClassChanges(ImmutableSet.copyOf(changedClasses));
+    }
+
+    /**
+     * Tells if the given cached receiver is known to be unchanged.
+     */
+    boolean leaveIntact(VerifiedReceiver receiver) {
+        if (changedClasses == null) {
+            return false;
+        }
+        return receiver.getCoveredClassList()
+                       .stream()
+                       .noneMatch(changedClasses::contains);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.check;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.spine.logging.Logging;
+import io.spine.model.AccessLevel;
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.ReceiverKind;
+import io.spine.model.ReturnKind;
+import io.spine.model.check.ClassFileScanner.Handler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.spine.model.assemble.HandlerConventions.COMMAND_CONTEXT_TYPE;
+import static java.lang.String.format;
+
+/**
+ * Verifies the Spine model by reading the class files of the command receivers.
+ *
+ * <p>The receiver classes are neither loaded nor linked. Instead, their class files are read
+ * by the {@link ClassFileScanner}, and the following rules are applied to the handler methods:
+ * <ul>
+ *     <li>a command type is handled by a single method across all the receivers;
+ *     <li>a handler accepts a command message and, optionally, the {@code CommandContext};
+ *     <li>a handler does not accept external commands;
+ *     <li>a handler returns events.
+ * </ul>
+ *
+ * <p>A {@code private} handler is reported as a warning. All the other violations are
+ * collected and reported at once.
+ *
+ * <p>The generic type arguments are not available from the method descriptors. So, the elements
+ * of the returned iterables, optionals, and tuples are not checked.
+ */
+final class ClassFileCheck implements Logging {
+
+    private static final String COMMAND_MESSAGE = "io.spine.base.CommandMessage";
+    private static final String EVENT_MESSAGE = "io.spine.base.EventMessage";
+
+    private final ClassFileScanner scanner;
+
+    /**
+     * Creates a new instance reading the class files found by the given {@code ClassLoader}.
+     */
+    ClassFileCheck(ClassLoader classLoader) {
+        this(new ClassFileScanner(new ClassLookup(classLoader)));
+    }
+
+    /**
+     * Creates a new instance reading the class files with the given scanner.
+     */
+    ClassFileCheck(ClassFileScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Verifies the receivers with the given names.
+     *
+     * @param receiverTypes
+     *         the names of the Spine model classes, possibly with duplicates
+     * @return the names of the classes of which the class files are not found
+     * @throws IllegalArgumentException
+     *         if one of the given types is not a command receiver
+     * @throws IllegalStateException
+     *         if the handler methods of the receivers violate the rules
+     */
+    ImmutableSet<String> verify(Iterable<String> receiverTypes) {
+        var errors = ImmutableList.<String>builder();
+        var handlers = new HashMap<String, String>();
+        var notFound = ImmutableSet.<String>builder();
+        for (var type : ImmutableSet.copyOf(receiverTypes)) {
+            var scanned = scanner.scan(type);
+            if (scanned.isEmpty()) {
+                notFound.add(type);
+                continue;
+            }
+            var receiver = scanned.get().receiver();
+            if (receiver.getKind() == ReceiverKind.OTHER_RECEIVER) {
+                throw new IllegalArgumentException(format(
+                        "The class `%s` is not a command receiver.", receiver.getType()));
+            }
+            for (var handler : scanned.get().handlers()) {
+                var name = format("%s.%s()", receiver.getType(), handler.method().getName());
+                errors.addAll(check(name, handler));
+                checkDuplicate(name, handler.method(), handlers).ifPresent(errors::add);
+            }
+        }
+        var found = errors.build();
+        if (!found.isEmpty()) {
+            throw new IllegalStateException(format(
+                    "The Spine model is invalid:%n  %s", Joiner.on(format("%n  ")).join(found)));
+        }
+        return notFound.build();
+    }
+
+    private ImmutableList<String> check(String name, Handler handler) {
+        var method = handler.method();
+        var result = ImmutableList.<String>builder();
+        var parameters = method.getParameterTypeList();
+        if (parameters.isEmpty() || parameters.size() > 2) {
+            result.add(format("`%s` must accept a command message and, optionally, `%s`.",
+                              name, COMMAND_CONTEXT_TYPE));
+        } else {
+            if (!isCommand(method)) {
+                result.add(format("The first parameter of `%s` must be a command message," +
+                                          " but it is `%s`.", name, parameters.get(0)));
+            }
+            if (parameters.size() == 2 && !COMMAND_CONTEXT_TYPE.equals(parameters.get(1))) {
+                result.add(format("The second parameter of `%s` must be `%s`, but it is `%s`.",
+                                  name, COMMAND_CONTEXT_TYPE, parameters.get(1)));
+            }
+        }
+        if (handler.external()) {
+            result.add(format("`%s` must not accept external commands.", name));
+        }
+        if (!returnsEvents(method)) {
+            result.add(format("`%s` must return events, but it returns `%s`.",
+                              name, method.getReturnType()));
+        }
+        if (method.getAccess() == AccessLevel.PRIVATE) {
+            _warn().log("The command handler `%s` is `private`." +
+                                " Consider making it package-private.", name);
+        }
+        return result.build();
+    }
+
+    private boolean isCommand(CommandHandlerMethod method) {
+        var type = method.getCommandType();
+        return isClass(type) && scanner.isSubtype(type, COMMAND_MESSAGE, true);
+    }
+
+    private boolean returnsEvents(CommandHandlerMethod method) {
+        var kind = method.getReturnKind();
+        if (kind == ReturnKind.RETURNS_VOID) {
+            return false;
+        }
+        if (kind != ReturnKind.SINGLE_MESSAGE) {
+            return true;
+        }
+        var type = method.getReturnType();
+        return isClass(type) && scanner.isSubtype(type, EVENT_MESSAGE, true);
+    }
+
+    /**
+     * Tells if the given type name, obtained from a method descriptor, denotes a class.
+     *
+     * <p>The names of the primitive types have no package. The names of the array types end
+     * with the brackets.
+     */
+    private static boolean isClass(String type) {
+        return type.indexOf('.') > 0 && !type.endsWith("]");
+    }
+
+    /**
+     * Registers the given handler and reports an error if its command type is already
+     * handled by another method.
+     *
+     * <p>The handlers which do not accept a command message are not registered.
+     */
+    private Optional<String> checkDuplicate(String name,
+                                            CommandHandlerMethod method,
+                                            Map<String, String> handlers) {
+        if (!isCommand(method)) {
+            return Optional.empty();
+        }
+        var commandType = method.getCommandType();
+        var registered = handlers.putIfAbsent(commandType, name);
+        if (registered == null) {
+            return Optional.empty();
+        }
+        return Optional.of(format(
+                "The command `%s` is handled by both `%s` and `%s`.",
+                commandType, registered, name));
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.spine.model.AccessLevel;
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
+import io.spine.model.ReturnKind;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.spine.model.assemble.HandlerConventions.ASSIGN_ANNOTATION;
+import static io.spine.model.assemble.HandlerConventions.OPTIONAL_TYPE;
+import static io.spine.model.assemble.HandlerConventions.TUPLE_PACKAGE;
+import static io.spine.model.assemble.HandlerConventions.receiverKind;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.objectweb.asm.ClassReader.SKIP_CODE;
+import static org.objectweb.asm.ClassReader.SKIP_DEBUG;
+import static org.objectweb.asm.ClassReader.SKIP_FRAMES;
+
+/**
+ * Collects the details of the command receiving types and their handler methods
+ * from the class files.
+ *
+ * <p>The class files are read with ASM. The classes are neither loaded nor linked, so
+ * the types they refer to, such as the Spine server types and the message classes, do not
+ * need to be on the classpath of the tool.
+ *
+ * <p>The types are named by their binary names. The instances are not thread-safe.
+ */
+final class ClassFileScanner {
+
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String ITERABLE = "java/lang/Iterable";
+    private static final String ASSIGN_DESCRIPTOR = descriptorOf(ASSIGN_ANNOTATION);
+    private static final String EXTERNAL_DESCRIPTOR = descriptorOf("io.spine.core.External");
+
+    private final ClassLookup lookup;
+
+    /**
+     * The contents of the read class files mapped by the internal names of the classes.
+     *
+     * <p>If there is no class file, the name is mapped to {@code Optional.empty()}.
+     */
+    private final Map<String, Optional<byte[]>> classFiles = new HashMap<>();
+
+    /**
+     * The headers of the read class files mapped by the internal names of the classes.
+     */
+    private final Map<String, Optional<ClassReader>> headers = new HashMap<>();
+
+    ClassFileScanner(ClassLookup lookup) {
+        this.lookup = lookup;
+    }
+
+    private static String descriptorOf(String className) {
+        return 'L' + className.replace('.', '/') + ';';
+    }
+
+    /**
+     * Reads the class file of the receiver with the given name.
+     *
+     * @param name
+     *         the canonical or the binary name of the receiver
+     * @return the receiver with its handler methods, or {@code Optional.empty()} if there is
+     *         no class file
+     */
+    Optional<ScannedReceiver> scan(String name) {
+        return lookup.internalName(name)
+                     .flatMap(this::header)
+                     .map(this::scan);
+    }
+
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    private ScannedReceiver scan(ClassReader reader) {
+        var receiver = CommandReceiver.newBuilder()
+                .setType(binaryName(reader.getClassName()));
+        var superclass = reader.getSuperName();
+        while (superclass != null && !OBJECT.equals(superclass)) {
+            receiver.addSuperclass(binaryName(superclass));
+            superclass = header(superclass).map(ClassReader::getSuperName)
+                                           .orElse(null);
+        }
+        receiver.setKind(receiverKind(receiver.getSuperclassList()));
+        var visitor = new HandlerVisitor();
+        reader.accept(visitor, SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES);
+        var handlers = visitor.handlers.build();
+        for (var handler : handlers) {
+            receiver.addMethod(handler.method());
+        }
+        return new ScannedReceiver(receiver.build(), handlers);
+    }
+
+    /**
+     * Tells whether the type is the given supertype or its subtype.
+     *
+     * <p>If the class file of the type or of one of its supertypes is not found, there is no
+     * way to tell. In such a case, {@code unknown} is returned.
+     *
+     * @param type
+     *         the binary name of the type
+     * @param supertype
+     *         the binary name of the supertype
+     * @param unknown
+     *         the result to return if the hierarchy of the type is not fully available
+     */
+    boolean isSubtype(String type, String supertype, boolean unknown) {
+        var target = internalName(supertype);
+        var visited = new HashSet<String>();
+        var queue = new ArrayDeque<String>();
+        queue.add(internalName(type));
+        var complete = true;
+        while (!queue.isEmpty()) {
+            var current = queue.remove();
+            if (current.equals(target)) {
+                return true;
+            }
+            if (!visited.add(current)) {
+                continue;
+            }
+            var header = header(current);
+            if (header.isEmpty()) {
+                complete = false;
+                continue;
+            }
+            var reader = header.get();
+            if (reader.getSuperName() != null) {
+                queue.add(reader.getSuperName());
+            }
+            queue.addAll(ImmutableList.copyOf(reader.getInterfaces()));
+        }
+        return !complete && unknown;
+    }
+
+    /**
+     * Obtains the binary names of the classes on which the verification of the given
+     * receiver depends.
+     *
+     * <p>These are the receiver itself, its superclasses, and the types referred to by
+     * the signatures of its handler methods.
+     */
+    ImmutableSet<String> coveredClasses(ScannedReceiver scanned) {
+        var receiver = scanned.receiver();
+        var result = ImmutableSet.<String>builder()
+                .add(receiver.getType())
+                .addAll(receiver.getSuperclassList());
+        for (var handler : scanned.handlers()) {
+            var method = handler.method();
+            result.addAll(method.getParameterTypeList())
+                  .add(method.getReturnType())
+                  .addAll(method.getThrownTypeList());
+        }
+        return result.build();
+    }
+
+    /**
+     * Computes the digest of the class files of the {@linkplain #coveredClasses covered
+     * classes} of the given receiver.
+     *
+     * <p>The types without a class file, such as the primitive types, are covered by their
+     * names only.
+     *
+     * @return the SHA-256 hash as a lowercase hex string
+     */
+    String digest(ScannedReceiver scanned) {
+        var hasher = Hashing.sha256()
+                            .newHasher();
+        coveredClasses(scanned).forEach(type -> putClass(hasher, type));
+        return hasher.hash()
+                     .toString();
+    }
+
+    private void putClass(Hasher hasher, String binaryName) {
+        hasher.putString(binaryName, UTF_8);
+        classFile(internalName(binaryName)).ifPresent(hasher::putBytes);
+    }
+
+    private Optional<ClassReader> header(String internalName) {
+        return headers.computeIfAbsent(internalName,
+                                       name -> classFile(name).map(ClassReader::new));
+    }
+
+    private Optional<byte[]> classFile(String internalName) {
+        return classFiles.computeIfAbsent(internalName, this::read);
+    }
+
+    private Optional<byte[]> read(String internalName) {
+        var classLoader = lookup.classLoader();
+        try (var stream = classLoader.getResourceAsStream(internalName + CLASS_EXTENSION)) {
+            if (stream == null) {
+                return Optional.empty();
+            }
+            return Optional.of(stream.readAllBytes());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String binaryName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    private static String internalName(String binaryName) {
+        return binaryName.replace('.', '/');
+    }
+
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    private CommandHandlerMethod methodOf(int access, String name, String descriptor,
+                                          String[] exceptions) {
+        var result = CommandHandlerMethod.newBuilder()
+                .setName(name);
+        var parameters = Type.getArgumentTypes(descriptor);
+        for (var parameter : parameters) {
+            result.addParameterType(parameter.getClassName());
+        }
+        if (parameters.length > 0) {
+            result.setCommandType(parameters[0].getClassName());
+        }
+        if (exceptions != null) {
+            for (var thrown : exceptions) {
+                result.addThrownType(binaryName(thrown));
+            }
+        }
+        var returnType = Type.getReturnType(descriptor);
+        return result.setReturnType(returnType.getClassName())
+                     .setReturnKind(returnKindOf(returnType))
+                     .setAccess(accessOf(access))
+                     .build();
+    }
+
+    private ReturnKind returnKindOf(Type type) {
+        if (type.getSort() == Type.VOID) {
+            return ReturnKind.RETURNS_VOID;
+        }
+        if (type.getSort() != Type.OBJECT) {
+            return ReturnKind.SINGLE_MESSAGE;
+        }
+        var name = type.getClassName();
+        if (OPTIONAL_TYPE.equals(name)) {
+            return ReturnKind.OPTIONAL;
+        }
+        var lastDot = name.lastIndexOf('.');
+        if (lastDot > 0 && TUPLE_PACKAGE.equals(name.substring(0, lastDot))) {
+            return ReturnKind.TUPLE;
+        }
+        if (isSubtype(name, binaryName(ITERABLE), false)) {
+            return ReturnKind.ITERABLE;
+        }
+        return ReturnKind.SINGLE_MESSAGE;
+    }
+
+    private static AccessLevel accessOf(int access) {
+        if ((access & Opcodes.ACC_PUBLIC) != 0) {
+            return AccessLevel.PUBLIC;
+        }
+        if ((access & Opcodes.ACC_PROTECTED) != 0) {
+            return AccessLevel.PROTECTED;
+        }
+        if ((access & Opcodes.ACC_PRIVATE) != 0) {
+            return AccessLevel.PRIVATE;
+        }
+        return AccessLevel.PACKAGE_PRIVATE;
+    }
+
+    /**
+     * A receiver read from its class file.
+     */
+    static final class ScannedReceiver {
+
+        private final CommandReceiver receiver;
+        private final ImmutableList<Handler> handlers;
+
+        private ScannedReceiver(CommandReceiver receiver, ImmutableList<Handler> handlers) {
+            this.receiver = receiver;
+            this.handlers = handlers;
+        }
+
+        /**
+         * Obtains the details of the receiver, including the signatures of its
+         * handler methods.
+         */
+        CommandReceiver receiver() {
+            return receiver;
+        }
+
+        /**
+         * Obtains the handler methods declared by the receiver, in the order of
+         * the class file.
+         */
+        ImmutableList<Handler> handlers() {
+            return handlers;
+        }
+    }
+
+    /**
+     * A command handler method read from a class file.
+     */
+    static final class Handler {
+
+        private final CommandHandlerMethod method;
+        private final boolean external;
+
+        private Handler(CommandHandlerMethod method, boolean external) {
+            this.method = method;
+            this.external = external;
+        }
+
+        /**
+         * Obtains the signature of the method.
+         */
+        CommandHandlerMethod method() {
+            return method;
+        }
+
+        /**
+         * Tells if the first parameter of the method is marked as {@code @External}.
+         */
+        boolean external() {
+            return external;
+        }
+    }
+
+    /**
+     * Collects the methods annotated with {@code @Assign}.
+     */
+    private final class HandlerVisitor extends ClassVisitor {
+
+        private final ImmutableList.Builder<Handler> handlers = ImmutableList.builder();
+
+        private HandlerVisitor() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                         String signature, String[] exceptions) {
+            return new MethodVisitor(Opcodes.ASM9) {
+
+                private boolean assigned;
+                private boolean external;
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String annotation, boolean visible) {
+                    if (ASSIGN_DESCRIPTOR.equals(annotation)) {
+                        assigned = true;
+                    }
+                    return null;
+                }
+
+                @Override
+                public AnnotationVisitor visitParameterAnnotation(int parameter,
+                                                                  String annotation,
+                                                                  boolean visible) {
+                    if (parameter == 0 && EXTERNAL_DESCRIPTOR.equals(annotation)) {
+                        external = true;
+                    }
+                    return null;
+                }
+
+                @Override
+                public void visitEnd() {
+                    if (assigned) {
+                        var method = methodOf(access, name, descriptor, exceptions);
+                        handlers.add(new Handler(method, external));
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableSortedSet;
+import io.spine.logging.Logging;
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
+import io.spine.model.CommandReceivers;
+import io.spine.model.runtime.DispatcherRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.TreeSet;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A list of the classes of the Spine model in the format of the JDK
+ * <a href="https://docs.oracle.com/en/java/javase/11/vm/class-data-sharing.html">AppCDS</a>
+ * class list.
+ *
+ * <p>The list contains the command receivers and their superclasses, the types of
+ * the parameters, the return values and the exceptions of the handler methods, and
+ * the {@linkplain DispatcherRegistry generated dispatchers}. The classes are listed by their
+ * internal names, one per line.
+ *
+ * <p>Only the classes found by the given {@code ClassLoader} are listed.
+ */
+public final class ClassList implements Logging {
+
+    private final ClassLookup lookup;
+    private final TreeSet<String> classes = new TreeSet<>();
+
+    /**
+     * Creates a new empty list of the classes found by the given {@code ClassLoader}.
+     */
+    public ClassList(ClassLoader classLoader) {
+        this.lookup = new ClassLookup(classLoader);
+    }
+
+    /**
+     * Adds the classes of the given model and the dispatchers of its receivers to the list.
+     */
+    public ClassList add(CommandReceivers model) {
+        var dispatchers = DispatcherRegistry.load(lookup.classLoader());
+        for (var type : model.getCommandReceivingTypeList()) {
+            addClass(type);
+        }
+        for (var receiver : model.getReceiverList()) {
+            add(receiver);
+        }
+        dispatchers.values()
+                   .forEach(this::addClass);
+        return this;
+    }
+
+    private void add(CommandReceiver receiver) {
+        addClass(receiver.getType());
+        receiver.getSuperclassList()
+                .forEach(this::addClass);
+        for (var method : receiver.getMethodList()) {
+            add(method);
+        }
+    }
+
+    private void add(CommandHandlerMethod method) {
+        method.getParameterTypeList()
+              .forEach(this::addClass);
+        method.getThrownTypeList()
+              .forEach(this::addClass);
+        addClass(method.getReturnType());
+    }
+
+    private void addClass(String name) {
+        var internalName = lookup.internalName(name);
+        if (internalName.isPresent()) {
+            classes.add(internalName.get());
+        } else {
+            _debug().log("The type `%s` is not a class found on the classpath, skipping.", name);
+        }
+    }
+
+    /**
+     * Obtains the internal names of the listed classes in the alphabetical order.
+     */
+    public ImmutableSortedSet<String> classes() {
+        return ImmutableSortedSet.copyOf(classes);
+    }
+
+    /**
+     * Writes the list into the given file, one internal name per line.
+     */
+    public void writeTo(Path file) {
+        try {
+            var parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(file, classes, UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to write the class list `%s`.", file), e);
+        }
+    }
+}
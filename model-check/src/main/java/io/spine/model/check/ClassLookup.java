@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+
+/**
+ * Looks up the class files of the classes referred to by the Spine model.
+ *
+ * <p>The model refers to the nested classes by their canonical names, which are resolved to
+ * the binary names by looking up the class files. The classes are not loaded.
+ */
+final class ClassLookup {
+
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String ARRAY_SUFFIX = "[]";
+    private static final ImmutableSet<String> PRIMITIVES =
+            Primitives.allPrimitiveTypes()
+                      .stream()
+                      .map(Class::getName)
+                      .collect(toImmutableSet());
+
+    private final ClassLoader classLoader;
+
+    ClassLookup(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Obtains the {@code ClassLoader} looking up the classes.
+     */
+    ClassLoader classLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Obtains the internal name of the class with the given canonical or binary name.
+     *
+     * <p>Starting from the last name segment, the package separators are replaced with
+     * the dollar signs until the class file is found.
+     *
+     * @return the internal name or {@code Optional.empty()} if the name does not denote
+     *         a class, or there is no class file
+     */
+    Optional<String> internalName(String name) {
+        if (name.isEmpty() || name.endsWith(ARRAY_SUFFIX) || PRIMITIVES.contains(name)) {
+            return Optional.empty();
+        }
+        var candidate = name.replace('.', '/');
+        while (true) {
+            if (classLoader.getResource(candidate + CLASS_EXTENSION) != null) {
+                return Optional.of(candidate);
+            }
+            var lastSlash = candidate.lastIndexOf('/');
+            if (lastSlash < 0) {
+                return Optional.empty();
+            }
+            candidate = candidate.substring(0, lastSlash) + '$'
+                    + candidate.substring(lastSlash + 1);
+        }
+    }
+
+    /**
+     * Obtains the binary name of the class with the given canonical or binary name.
+     *
+     * @return the binary name or {@code Optional.empty()} if the name does not denote
+     *         a class, or there is no class file
+     * @see #internalName(String)
+     */
+    Optional<String> binaryName(String name) {
+        return internalName(name).map(internal -> internal.replace('/', '.'));
+    }
+}
@@ -29,14 +29,31 @@ package io.spine.model.check;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 import static java.lang.String.format;
 
 /**
  * Creates a set of classes by their names using the specified {@code ClassLoader}.
+ *
+ * <p>The classes may be loaded concurrently by a bounded pool of threads. Each loaded class is
+ * passed to the given consumer as soon as it is loaded, while the other classes are still
+ * loading. The consumer is always called in the thread creating the set, one class at a time,
+ * so it does not have to be thread-safe.
+ *
+ * <p>To benefit from the concurrent loading, the {@code ClassLoader} should be
+ * {@linkplain ClassLoader#isRegisteredAsParallelCapable() parallel capable}, as
+ * the {@link java.net.URLClassLoader URLClassLoader} is.
  */
 final class ClassSet {
 
@@ -44,24 +61,109 @@ final class ClassSet {
     private final ImmutableSet<Class<?>> elements;
     private final ImmutableList<String> notFound;
 
+    /**
+     * Loads the classes with the given names in the calling thread.
+     */
     ClassSet(ClassLoader classLoader, Iterable<String> classNames) {
+        this(classLoader, classNames, 1, cls -> {});
+    }
+
+    /**
+     * Loads the classes with the given names by the given number of threads.
+     *
+     * @param classLoader
+     *         the loader of the classes
+     * @param classNames
+     *         the names of the classes, possibly with duplicates
+     * @param parallelism
+     *         the maximum number of the classes loaded at once; if {@code 1},
+     *         the classes are loaded in the calling thread
+     * @param onLoaded
+     *         the consumer of the loaded classes
+     */
+    ClassSet(ClassLoader classLoader,
+             Iterable<String> classNames,
+             int parallelism,
+             Consumer<Class<?>> onLoaded) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    format("The parallelism must be positive, but was %d.", parallelism));
+        }
         this.classLoader = classLoader;
+        var names = ImmutableSet.copyOf(classNames);
+        Map<String, Class<?>> loaded = new HashMap<>();
+        Consumer<LoadResult> collector = result -> {
+            if (result.loadedClass != null) {
+                loaded.put(result.className, result.loadedClass);
+                onLoaded.accept(result.loadedClass);
+            }
+        };
+        if (parallelism == 1 || names.size() < 2) {
+            names.forEach(name -> collector.accept(load(name)));
+        } else {
+            loadConcurrently(names, Math.min(parallelism, names.size()), collector);
+        }
         ImmutableSet.Builder<Class<?>> elements = ImmutableSet.builder();
-        ImmutableSet.Builder<String> notFound = ImmutableSet.builder();
-        for (var className : classNames) {
-            Class<?> cls;
-            try {
-                cls = createRawClass(className);
+        List<String> notFound = new ArrayList<>();
+        for (var name : names) {
+            var cls = loaded.get(name);
+            if (cls != null) {
                 elements.add(cls);
-            } catch (ClassNotFoundException e) {
+            } else {
                 // Append the class name already prepared for displaying.
-                notFound.add(format("`%s`", className));
+                notFound.add(format("`%s`", name));
             }
         }
         this.elements = elements.build();
-        List<String> sorted = new ArrayList<>(notFound.build());
-        sorted.sort(Ordering.natural());
-        this.notFound = ImmutableList.copyOf(sorted);
+        notFound.sort(Ordering.natural());
+        this.notFound = ImmutableList.copyOf(notFound);
+    }
+
+    /**
+     * Loads the classes with the given names by a pool of the given number of threads.
+     *
+     * <p>The results are passed to the given collector in the order of completion.
+     */
+    private void loadConcurrently(ImmutableSet<String> names,
+                                  int threads,
+                                  Consumer<LoadResult> collector) {
+        var threadFactory = new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("spine-model-class-loading-%d")
+                .build();
+        var executor = Executors.newFixedThreadPool(threads, threadFactory);
+        try {
+            var completion = new ExecutorCompletionService<LoadResult>(executor);
+            for (var name : names) {
+                completion.submit(() -> load(name));
+            }
+            for (var i = 0; i < names.size(); i++) {
+                collector.accept(completion.take()
+                                           .get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the model classes.", e);
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unable to load the model classes.", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LoadResult load(String className) {
+        try {
+            return new LoadResult(className, createRawClass(className));
+        } catch (ClassNotFoundException e) {
+            return new LoadResult(className, null);
+        }
     }
 
     private Class<?> createRawClass(String fqn) throws ClassNotFoundException {
@@ -81,4 +183,18 @@ final class ClassSet {
     ImmutableList<String> notFound() {
         return notFound;
     }
+
+    /**
+     * The result of loading a class.
+     */
+    private static final class LoadResult {
+
+        private final String className;
+        private final @Nullable Class<?> loadedClass;
+
+        private LoadResult(String className, @Nullable Class<?> loadedClass) {
+            this.className = className;
+            this.loadedClass = loadedClass;
+        }
+    }
 }
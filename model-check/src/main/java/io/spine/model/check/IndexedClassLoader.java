@@ -0,0 +1,308 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.io.ByteStreams;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Optional;
+import java.util.jar.JarFile;
+import java.util.zip.ZipException;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+
+/**
+ * A {@code ClassLoader} of a classpath which finds the classes and the resources by
+ * the index of the classpath.
+ *
+ * <p>When created, the loader indexes the directories and the JAR files of the classpath by
+ * the packages they contain. So, finding a class or a resource takes a single lookup of its
+ * package in the index, instead of probing each entry of the classpath in turn.
+ *
+ * <p>As a usual {@code ClassLoader}, this one delegates to its parent first. The loader is
+ * parallel capable.
+ */
+final class IndexedClassLoader extends ClassLoader implements Closeable {
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final ImmutableList<Location> locations;
+
+    /**
+     * The locations of the classpath mapped by the packages they contain.
+     *
+     * <p>The packages are the directory paths, separated with the slashes. The resources
+     * in the root of a location belong to the package with the empty name.
+     */
+    private final ImmutableListMultimap<String, Location> index;
+
+    /**
+     * Creates a new loader of the given classpath.
+     *
+     * <p>The classpath entries which do not exist are skipped.
+     *
+     * @param classpath
+     *         the directories and the JAR files to load the classes from
+     * @param parent
+     *         the parent loader, or {@code null} for the bootstrap loader
+     */
+    IndexedClassLoader(Iterable<File> classpath, @Nullable ClassLoader parent) {
+        super(parent);
+        var locations = ImmutableList.<Location>builder();
+        var index = ImmutableListMultimap.<String, Location>builder();
+        for (var entry : classpath) {
+            var location = Location.open(entry);
+            if (location.isPresent()) {
+                locations.add(location.get());
+                location.get()
+                        .packages()
+                        .forEach(pkg -> index.put(pkg, location.get()));
+            }
+        }
+        this.locations = locations.build();
+        this.index = index.build();
+    }
+
+    /**
+     * Obtains the directories and the JAR files of the classpath which exist.
+     */
+    ImmutableList<Path> classpath() {
+        return locations.stream()
+                        .map(location -> location.path)
+                        .collect(toImmutableList());
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        var path = name.replace('.', '/') + CLASS_EXTENSION;
+        for (var location : index.get(packageOf(path))) {
+            var bytes = location.read(path);
+            if (bytes.isPresent()) {
+                definePackageOf(name);
+                var content = bytes.get();
+                return defineClass(name, content, 0, content.length, location.domain);
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    private void definePackageOf(String className) {
+        var lastDot = className.lastIndexOf('.');
+        if (lastDot < 0) {
+            return;
+        }
+        var packageName = className.substring(0, lastDot);
+        if (getDefinedPackage(packageName) != null) {
+            return;
+        }
+        try {
+            definePackage(packageName, null, null, null, null, null, null, null);
+        } catch (IllegalArgumentException ignored) {
+            // The package is defined concurrently by another thread.
+        }
+    }
+
+    @Override
+    protected @Nullable URL findResource(String name) {
+        for (var location : index.get(packageOf(name))) {
+            var url = location.find(name);
+            if (url.isPresent()) {
+                return url.get();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected Enumeration<URL> findResources(String name) {
+        var urls = index.get(packageOf(name))
+                        .stream()
+                        .map(location -> location.find(name))
+                        .flatMap(Optional::stream)
+                        .collect(toImmutableList());
+        return Collections.enumeration(urls);
+    }
+
+    private static String packageOf(String path) {
+        var lastSlash = path.lastIndexOf('/');
+        return lastSlash < 0 ? "" : path.substring(0, lastSlash);
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (var location : locations) {
+            try {
+                location.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * A directory or a JAR file of the classpath.
+     */
+    private static final class Location implements Closeable {
+
+        private final Path path;
+        private final URL url;
+        private final ProtectionDomain domain;
+        private final @Nullable JarFile jar;
+
+        private Location(Path path, URL url, @Nullable JarFile jar) {
+            this.path = path;
+            this.url = url;
+            this.domain = new ProtectionDomain(new CodeSource(url, (CodeSigner[]) null), null);
+            this.jar = jar;
+        }
+
+        /**
+         * Opens the given classpath entry.
+         *
+         * @return the location or {@code Optional.empty()} if the entry does not exist
+         */
+        private static Optional<Location> open(File entry) {
+            var path = entry.toPath();
+            try {
+                var url = path.toUri().toURL();
+                if (Files.isDirectory(path)) {
+                    return Optional.of(new Location(path, url, null));
+                }
+                if (Files.isRegularFile(path)) {
+                    return Optional.of(new Location(path, url, new JarFile(entry)));
+                }
+                return Optional.empty();
+            } catch (ZipException e) {
+                // Not an archive, so there are no classes to load.
+                return Optional.empty();
+            } catch (IOException e) {
+                throw new IllegalStateException(
+                        format("Unable to open the classpath entry `%s`.", entry), e);
+            }
+        }
+
+        /**
+         * Obtains the packages of the classes and the resources in this location.
+         */
+        private ImmutableList<String> packages() {
+            if (jar != null) {
+                return jar.stream()
+                          .filter(entry -> !entry.isDirectory())
+                          .map(entry -> packageOf(entry.getName()))
+                          .distinct()
+                          .collect(toImmutableList());
+            }
+            try (var files = Files.walk(path)) {
+                return files.filter(Files::isRegularFile)
+                            .map(file -> path.relativize(file.getParent()))
+                            .map(dir -> dir.toString().replace(File.separatorChar, '/'))
+                            .distinct()
+                            .collect(toImmutableList());
+            } catch (IOException | UncheckedIOException e) {
+                throw new IllegalStateException(
+                        format("Unable to index the classpath directory `%s`.", path), e);
+            }
+        }
+
+        /**
+         * Obtains the URL of the resource with the given name in this location.
+         */
+        private Optional<URL> find(String name) {
+            try {
+                if (jar != null) {
+                    return jar.getJarEntry(name) == null
+                           ? Optional.empty()
+                           : Optional.of(new URL("jar:" + url + "!/" + name));
+                }
+                var file = path.resolve(name);
+                return Files.isRegularFile(file)
+                       ? Optional.of(file.toUri().toURL())
+                       : Optional.empty();
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException(
+                        format("Malformed URL of the resource `%s` in `%s`.", name, path), e);
+            }
+        }
+
+        /**
+         * Reads the resource with the given name in this location.
+         */
+        private Optional<byte[]> read(String name) throws ClassNotFoundException {
+            try {
+                if (jar != null) {
+                    var entry = jar.getJarEntry(name);
+                    if (entry == null) {
+                        return Optional.empty();
+                    }
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        return Optional.of(ByteStreams.toByteArray(in));
+                    }
+                }
+                var file = path.resolve(name);
+                return Files.isRegularFile(file)
+                       ? Optional.of(Files.readAllBytes(file))
+                       : Optional.empty();
+            } catch (IOException e) {
+                throw new ClassNotFoundException(
+                        format("Unable to read `%s` from `%s`.", name, path), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (jar != null) {
+                jar.close();
+            }
+        }
+    }
+}
@@ -26,50 +26,88 @@
 
 package io.spine.model.check;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import io.spine.logging.Logging;
 import io.spine.model.CommandReceivers;
+import io.spine.model.assemble.ModelFragments;
 import io.spine.server.command.model.DuplicateHandlerCheck;
 import io.spine.server.model.Model;
-import io.spine.tools.gradle.project.ProjectHierarchy;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.gradle.api.Project;
-import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.tasks.SourceSet;
 
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.util.Collection;
-import java.util.function.Function;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
 
-import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Streams.stream;
 import static com.google.common.flogger.LazyArgs.lazy;
 import static java.lang.String.format;
-import static java.util.Arrays.deepToString;
-import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toList;
 
 /**
  * A utility for verifying Spine model.
  *
+ * <p>The model is verified upon the runtime classpath of the checked project. The classes of
+ * the classpath are loaded by an {@linkplain IndexedClassLoader indexed} {@code ClassLoader},
+ * which finds a class by its package instead of probing every classpath entry.
+ *
+ * <p>The {@code ClassLoader} keeps the JAR files of the classpath open. So, an instance must be
+ * {@linkplain #close() closed} once the verification is done.
+ *
  * @implNote The full name of this class is used by {@link Model#dropAllModels()} via a
  *           string literal for security check.
  */
-public class ModelCheck implements Logging {
-
-    private static final URL[] EMPTY_URL_ARRAY = new URL[0];
+public class ModelCheck implements Logging, Closeable {
 
-    private final URLClassLoader projectClassLoader;
+    private final IndexedClassLoader projectClassLoader;
 
     /**
      * Creates a new instance.
      *
+     * <p>The model is verified upon the runtime classpath of the {@code main} source set of
+     * the project.
+     *
      * @param project
      *         the Gradle project to verify the model upon
      */
     public ModelCheck(Project project) {
-        this.projectClassLoader = createClassLoader(project);
+        this(runtimeClasspath(project), project.getBuildscript().getClassLoader());
+    }
+
+    /**
+     * Creates a new instance verifying the model upon the given classpath.
+     *
+     * <p>The classes of the classpath are loaded by a {@code ClassLoader} delegating to
+     * the one which loaded this class. So, the Spine server types the verified classes
+     * refer to are resolved along with this class.
+     *
+     * @param classpath
+     *         the runtime classpath of the checked project
+     */
+    public ModelCheck(Iterable<File> classpath) {
+        this(classpath, ModelCheck.class.getClassLoader());
+    }
+
+    private ModelCheck(Iterable<File> classpath, @Nullable ClassLoader parent) {
+        _debug().log("Initializing `ClassLoader` for the classpath `%s`.", lazy(() -> classpath));
+        this.projectClassLoader = new IndexedClassLoader(classpath, parent);
+    }
+
+    private static Iterable<File> runtimeClasspath(Project project) {
+        return project.getExtensions()
+                      .getByType(JavaPluginExtension.class)
+                      .getSourceSets()
+                      .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+                      .getRuntimeClasspath();
     }
 
     /**
@@ -79,23 +117,192 @@ public class ModelCheck implements Logging {
      *         the listing of the Spine model classes
      */
     public void verify(CommandReceivers receivers) {
-        var classSet = new ClassSet(projectClassLoader,
-                                    receivers.getCommandReceivingTypeList());
-        reportNotFoundIfAny(classSet);
-        DuplicateHandlerCheck.newInstance()
-                             .check(classSet.elements());
+        verify(receivers.getCommandReceivingTypeList());
+    }
+
+    /**
+     * Verifies Spine model upon the given Gradle project.
+     *
+     * @param receiverTypes
+     *         the names of the Spine model classes, possibly with duplicates
+     */
+    public void verify(Iterable<String> receiverTypes) {
+        verify(receiverTypes, defaultParallelism());
+    }
+
+    /**
+     * Verifies Spine model upon the given Gradle project.
+     *
+     * <p>The classes are loaded concurrently. Each loaded class is verified while
+     * the other classes are still loading.
+     *
+     * @param receiverTypes
+     *         the names of the Spine model classes, possibly with duplicates
+     * @param parallelism
+     *         the maximum number of the classes loaded at once
+     */
+    public void verify(Iterable<String> receiverTypes, int parallelism) {
+        reportNotFoundIfAny(load(receiverTypes, parallelism));
+    }
+
+    /**
+     * Verifies Spine model upon the given Gradle project, skipping the receivers which did not
+     * change since the previous verification.
+     *
+     * @param receiverTypes
+     *         the names of the Spine model classes, possibly with duplicates
+     * @param parallelism
+     *         the maximum number of the classes loaded at once
+     * @param cacheFile
+     *         the file of the verification cache, which may not exist
+     * @param changes
+     *         the classes changed since the previous verification
+     * @see ModelCheckCache
+     */
+    public void verify(Iterable<String> receiverTypes,
+                       int parallelism,
+                       Path cacheFile,
+                       ClassChanges changes) {
+        verifyCached(receiverTypes, cacheFile, changes,
+                     (types, scanner) -> load(types, parallelism));
+    }
+
+    /**
+     * Loads and verifies the given classes.
+     *
+     * @return the names of the classes which were not loaded
+     */
+    private ImmutableSet<String> load(Iterable<String> receiverTypes, int parallelism) {
+        var check = DuplicateHandlerCheck.newInstance();
+        var classSet = new ClassSet(projectClassLoader, receiverTypes, parallelism,
+                                    cls -> check.check(ImmutableSet.of(cls)));
+        var loaded = classSet.elements()
+                             .stream()
+                             .map(Class::getName)
+                             .collect(toImmutableSet());
+        return stream(receiverTypes)
+                .filter(type -> !loaded.contains(type))
+                .collect(toImmutableSet());
+    }
+
+    /**
+     * Verifies Spine model upon the given Gradle project by reading the class files of
+     * the receivers.
+     *
+     * <p>Unlike {@link #verify(Iterable, int)}, neither the receivers nor the types they refer
+     * to are loaded. The rules are applied to the signatures of the handler methods as recorded
+     * in the class files.
+     *
+     * @param receiverTypes
+     *         the names of the Spine model classes, possibly with duplicates
+     * @throws IllegalStateException
+     *         if the handler methods of the receivers violate the model rules
+     * @see ClassFileCheck
+     */
+    public void verifyClassFiles(Iterable<String> receiverTypes) {
+        var notFound = new ClassFileCheck(projectClassLoader).verify(receiverTypes);
+        reportNotFoundIfAny(notFound);
+    }
+
+    /**
+     * Verifies Spine model upon the given Gradle project by reading the class files of
+     * the receivers, skipping the receivers which did not change since the previous
+     * verification.
+     *
+     * @param receiverTypes
+     *         the names of the Spine model classes, possibly with duplicates
+     * @param cacheFile
+     *         the file of the verification cache, which may not exist
+     * @param changes
+     *         the classes changed since the previous verification
+     * @see #verifyClassFiles(Iterable)
+     * @see ModelCheckCache
+     */
+    public void verifyClassFiles(Iterable<String> receiverTypes,
+                                 Path cacheFile,
+                                 ClassChanges changes) {
+        verifyCached(receiverTypes, cacheFile, changes,
+                     (types, scanner) -> new ClassFileCheck(scanner).verify(types));
+    }
+
+    private void verifyCached(Iterable<String> receiverTypes,
+                              Path cacheFile,
+                              ClassChanges changes,
+                              Verification verification) {
+        var scanner = new ClassFileScanner(new ClassLookup(projectClassLoader));
+        var cache = ModelCheckCache.load(cacheFile, scanner);
+        var selection = cache.select(receiverTypes, changes);
+        var toVerify = selection.toVerify();
+        _debug().log("Verifying %d changed or affected model classes.", toVerify.size());
+        cache.discard();
+        var notFound = verification.verify(toVerify, scanner);
+        cache.store(selection, notFound);
+        reportNotFoundIfAny(Sets.union(notFound, selection.notFound()));
+    }
+
+    /**
+     * Obtains the default number of the classes loaded at once, which is the number of
+     * the available processors.
+     */
+    public static int defaultParallelism() {
+        return Runtime.getRuntime()
+                      .availableProcessors();
+    }
+
+    /**
+     * Collects the model fragments found on the classpath of the checked project.
+     *
+     * @return the merged model fragments or an empty model if there are no fragments
+     * @see ModelFragments
+     */
+    public CommandReceivers collectFragments() {
+        var result = ModelFragments.collect(projectClassLoader.classpath());
+        return result;
+    }
+
+    /**
+     * Selects the types which are found on the classpath of the checked project.
+     *
+     * <p>The shared model lists the receivers of all the modules of the project hierarchy.
+     * The receivers which are not on the classpath of the checked project are verified
+     * along with the projects they belong to. Their names are logged, so that a receiver
+     * missing from the classpath by mistake can still be spotted.
+     *
+     * <p>The model refers to the nested receivers by their canonical names. The found types
+     * are {@linkplain ClassLookup#binaryName resolved} to their binary names.
+     *
+     * @param receiverTypes
+     *         the canonical or binary names of the Spine model classes
+     * @return the binary names of the found classes, in the order of the given names
+     */
+    public ImmutableList<String> selectFound(Iterable<String> receiverTypes) {
+        var lookup = new ClassLookup(projectClassLoader);
+        var found = ImmutableList.<String>builder();
+        var notFound = new TreeSet<String>();
+        for (var type : receiverTypes) {
+            lookup.binaryName(type)
+                  .ifPresentOrElse(found::add, () -> notFound.add(type));
+        }
+        if (!notFound.isEmpty()) {
+            _info().log("Skipping the model classes which are not on the classpath: %s.",
+                        lazy(() -> Joiner.on(", ").join(notFound)));
+        }
+        return found.build();
     }
 
     @SuppressWarnings("FloggerLogString") // Cannot make it compile-time constant here.
-    private void reportNotFoundIfAny(ClassSet classSet) {
-        var notFound = classSet.notFound();
+    private void reportNotFoundIfAny(Set<String> notFound) {
         if (notFound.isEmpty()) {
             return;
         }
+        var names = notFound.stream()
+                            .sorted()
+                            .map(name -> format("`%s`", name))
+                            .collect(toImmutableList());
         var msg = "Failed to load "
-                + (notFound.size() > 1 ? "classes " : "the class ")
+                + (names.size() > 1 ? "classes " : "the class ")
                 + Joiner.on(", ")
-                        .join(notFound)
+                        .join(names)
                 + format(".%n")
                 + "Consider using the `io.spine.tools.spine-model-verifier` plugin" +
                 " only for the modules with the sufficient classpath.";
@@ -103,68 +310,27 @@ public class ModelCheck implements Logging {
     }
 
     /**
-     * Creates a ClassLoader for the passed project.
+     * Closes the JAR files of the classpath of the checked project.
      */
-    private URLClassLoader createClassLoader(Project project) {
-        var tasks = allJavaCompile(project);
-        var compiledCodePath = extractDestinationDirs(tasks);
-        _debug().log("Initializing `ClassLoader` for URLs: `%s`.",
-                     lazy(() -> deepToString(compiledCodePath)));
+    @Override
+    public void close() {
         try {
-            var projectClassloader = project.getBuildscript().getClassLoader();
-            @SuppressWarnings("ClassLoaderInstantiation") // Caught exception.
-            var result = new URLClassLoader(compiledCodePath, projectClassloader);
-            return result;
-        } catch (SecurityException e) {
-            var msg = format("Cannot create `ClassLoader` for the project `%s`.", project);
-            throw new IllegalStateException(msg, e);
+            projectClassLoader.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to close the classpath.", e);
         }
     }
 
-    private static Collection<JavaCompile> allJavaCompile(Project project) {
-        Collection<JavaCompile> tasks = newArrayList();
-        ProjectHierarchy.applyToAll(project.getRootProject(),
-                                    p -> tasks.addAll(javaCompile(p)));
-        return tasks;
-    }
-
-    private static Collection<JavaCompile> javaCompile(Project project) {
-        return project.getTasks()
-                      .withType(JavaCompile.class);
-    }
-
-    private static URL[] extractDestinationDirs(Collection<JavaCompile> tasks) {
-        Collection<URL> urls = tasks.stream()
-                                    .map(GetDestinationDir.FUNCTION)
-                                    .collect(toList());
-        var result = urls.toArray(EMPTY_URL_ARRAY);
-        return result;
-    }
-
     /**
-     * A function which retrieves the output directory from the passed Gradle task.
+     * A verification of the receivers selected by the {@link ModelCheckCache}.
      */
-    @VisibleForTesting
-    enum GetDestinationDir implements Function<JavaCompile, URL> {
-        FUNCTION;
-
-        @Override
-        public @Nullable URL apply(@Nullable JavaCompile task) {
-            requireNonNull(task);
-            var directory = task.getDestinationDirectory();
-            if (!directory.isPresent()) {
-                return null;
-            }
-            var dir = directory.getAsFile().get();
-            var uri = dir.toURI();
-            try {
-                var url = uri.toURL();
-                return url;
-            } catch (MalformedURLException e) {
-                throw new IllegalArgumentException(format(
-                        "Could not retrieve destination directory for task `%s`.",
-                        task.getName()), e);
-            }
-        }
+    private interface Verification {
+
+        /**
+         * Verifies the receivers with the given names.
+         *
+         * @return the names of the receivers which were not found
+         */
+        Set<String> verify(ImmutableList<String> receiverTypes, ClassFileScanner scanner);
     }
 }
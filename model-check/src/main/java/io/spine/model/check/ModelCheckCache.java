@@ -0,0 +1,289 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.check;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.spine.model.VerificationCache;
+import io.spine.model.VerifiedReceiver;
+import io.spine.model.check.ClassFileScanner.ScannedReceiver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.spine.model.assemble.ModelBytes.toBytes;
+import static java.lang.String.format;
+import static java.util.function.Function.identity;
+
+/**
+ * The on-disk {@linkplain VerificationCache cache} of the outcomes of the model verification.
+ *
+ * <p>Each verified receiver is recorded along with the {@linkplain ClassFileScanner#digest
+ * digest} of the class files its verification depends on. The receivers of which the digest
+ * did not change since the previous verification are not {@linkplain #select selected} for
+ * the verification again. The only exception is the unchanged receivers handling the same
+ * command types as the changed ones. Those are verified along with the changed receivers, so
+ * that the duplicate handlers are still found.
+ *
+ * <p>If the classes changed since the previous verification are {@linkplain ClassChanges
+ * known}, the digests are computed only for the receivers covering the changed classes.
+ *
+ * <p>The receivers which were not found by the verification, or have no class file, are
+ * recorded too. Until their digest changes, or their class is known to change, they are
+ * reported as not found without another attempt to load them.
+ *
+ * <p>The cache is {@linkplain #store written} only after a successful verification. A cache
+ * of another version, or one which cannot be parsed, is discarded. The I/O errors are handled
+ * by rethrowing them as {@link IllegalStateException}.
+ */
+final class ModelCheckCache {
+
+    /**
+     * The version of the cache format written and read by this class.
+     */
+    @VisibleForTesting
+    static final int VERSION = 2;
+
+    private final Path file;
+    private final ClassFileScanner scanner;
+    private final ImmutableMap<String, VerifiedReceiver> previous;
+
+    private ModelCheckCache(Path file,
+                            ClassFileScanner scanner,
+                            ImmutableMap<String, VerifiedReceiver> previous) {
+        this.file = file;
+        this.scanner = scanner;
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the cache from the given file.
+     *
+     * @param file
+     *         the cache file, which may not exist
+     * @param scanner
+     *         the scanner of the class files of the verified classpath
+     */
+    static ModelCheckCache load(Path file, ClassFileScanner scanner) {
+        var previous = ImmutableMap.<String, VerifiedReceiver>of();
+        if (Files.exists(file)) {
+            try {
+                var cache = VerificationCache.parseFrom(Files.readAllBytes(file));
+                if (cache.getVersion() == VERSION) {
+                    previous = cache.getReceiverList()
+                                    .stream()
+                                    .collect(toImmutableMap(VerifiedReceiver::getType,
+                                                            identity()));
+                }
+            } catch (InvalidProtocolBufferException ignored) {
+                // The cache is corrupted, so the receivers are verified from scratch.
+            } catch (IOException e) {
+                throw new IllegalStateException(
+                        format("Unable to read the verification cache `%s`.", file), e);
+            }
+        }
+        return new ModelCheckCache(file, scanner, previous);
+    }
+
+    /**
+     * Selects the receivers to verify.
+     *
+     * @param receiverTypes
+     *         the names of the Spine model classes, possibly with duplicates
+     * @param changes
+     *         the classes changed since the previous verification
+     */
+    Selection select(Iterable<String> receiverTypes, ClassChanges changes) {
+        var types = ImmutableSet.copyOf(receiverTypes);
+        var current = new TreeMap<String, VerifiedReceiver>();
+        var changed = new HashSet<String>();
+        for (var type : types) {
+            var intact = previous.get(type);
+            if (intact != null && changes.leaveIntact(intact)) {
+                current.put(type, intact);
+                continue;
+            }
+            var scanned = scanner.scan(type);
+            var entry = scanned.isPresent()
+                        ? entryOf(type, scanned.get())
+                        : notFoundEntry(type);
+            var cached = previous.get(type);
+            if (cached != null && cached.getDigest().equals(entry.getDigest())) {
+                current.put(type, cached);
+            } else {
+                current.put(type, entry);
+                changed.add(type);
+            }
+        }
+        var changedCommands = new HashSet<String>();
+        for (var type : changed) {
+            changedCommands.addAll(current.get(type)
+                                          .getCommandTypeList());
+        }
+        var toVerify = ImmutableList.<String>builder();
+        var notFound = ImmutableSet.<String>builder();
+        for (var type : types) {
+            var entry = current.get(type);
+            if (changed.contains(type)) {
+                toVerify.add(type);
+            } else if (!entry.getFound()) {
+                notFound.add(type);
+            } else if (handlesAny(entry, changedCommands)) {
+                toVerify.add(type);
+            }
+        }
+        return new Selection(toVerify.build(), notFound.build(), current);
+    }
+
+    private VerifiedReceiver entryOf(String type, ScannedReceiver scanned) {
+        var commandTypes = scanned.handlers()
+                                  .stream()
+                                  .map(handler -> handler.method().getCommandType())
+                                  .filter(commandType -> !commandType.isEmpty())
+                                  .distinct()
+                                  .collect(toImmutableList());
+        return VerifiedReceiver.newBuilder()
+                .setType(type)
+                .setDigest(scanner.digest(scanned))
+                .setFound(true)
+                .addAllCommandType(commandTypes)
+                .addAllCoveredClass(scanner.coveredClasses(scanned))
+                .build();
+    }
+
+    /**
+     * Creates the entry of the receiver which has no class file.
+     *
+     * <p>The entry has no digest and covers the class of the receiver, so that it is selected
+     * again once the class is added.
+     */
+    private static VerifiedReceiver notFoundEntry(String type) {
+        return VerifiedReceiver.newBuilder()
+                .setType(type)
+                .setFound(false)
+                .addCoveredClass(type)
+                .build();
+    }
+
+    private static boolean handlesAny(VerifiedReceiver entry, Set<String> commandTypes) {
+        return entry.getCommandTypeList()
+                    .stream()
+                    .anyMatch(commandTypes::contains);
+    }
+
+    /**
+     * Deletes the cache file.
+     *
+     * <p>The file is deleted before the verification, so that a failed verification does not
+     * leave the outcomes of the previous one behind. Otherwise, the receivers which failed
+     * the verification could be taken as verified by a subsequent incremental run.
+     */
+    void discard() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to delete the verification cache `%s`.", file), e);
+        }
+    }
+
+    /**
+     * Records the outcome of the verification of the selected receivers and writes the cache.
+     *
+     * @param selection
+     *         the receivers selected by this cache
+     * @param notFound
+     *         the names of the verified receivers which were not found
+     */
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    void store(Selection selection, Collection<String> notFound) {
+        var cache = VerificationCache.newBuilder()
+                .setVersion(VERSION);
+        var verified = ImmutableSet.copyOf(selection.toVerify);
+        for (var entry : selection.entries.values()) {
+            var type = entry.getType();
+            if (verified.contains(type)) {
+                cache.addReceiver(entry.toBuilder()
+                                       .setFound(!notFound.contains(type))
+                                       .build());
+            } else {
+                cache.addReceiver(entry);
+            }
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, toBytes(cache.build()));
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to write the verification cache `%s`.", file), e);
+        }
+    }
+
+    /**
+     * The receivers selected for the verification.
+     */
+    static final class Selection {
+
+        private final ImmutableList<String> toVerify;
+        private final ImmutableSet<String> notFound;
+        private final ImmutableMap<String, VerifiedReceiver> entries;
+
+        private Selection(ImmutableList<String> toVerify,
+                          ImmutableSet<String> notFound,
+                          Map<String, VerifiedReceiver> entries) {
+            this.toVerify = toVerify;
+            this.notFound = notFound;
+            this.entries = ImmutableMap.copyOf(entries);
+        }
+
+        /**
+         * Obtains the names of the receivers to verify, in the order of the model.
+         */
+        ImmutableList<String> toVerify() {
+            return toVerify;
+        }
+
+        /**
+         * Obtains the names of the receivers which are not verified since they were not found
+         * by the previous verification.
+         */
+        ImmutableSet<String> notFound() {
+            return notFound;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import io.spine.model.CommandReceivers;
+import io.spine.model.assemble.ModelFragments;
+import io.spine.model.assemble.ModelJournal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The runtime classpath of a project along with the Spine model of the project.
+ *
+ * <p>The model is assembled from the shared model file, its {@linkplain ModelJournal journal},
+ * and the {@linkplain ModelFragments model fragments} found on the classpath.
+ *
+ * <p>The classes of the classpath are looked up by an {@linkplain IndexedClassLoader indexed}
+ * {@code ClassLoader} which does not delegate to the one of the tools, so that the classes of
+ * the tools are not confused with the classes of the project.
+ */
+public final class ModelClasspath implements Closeable {
+
+    private final IndexedClassLoader classLoader;
+    private final CommandReceivers model;
+
+    private ModelClasspath(IndexedClassLoader classLoader, CommandReceivers model) {
+        this.classLoader = classLoader;
+        this.model = model;
+    }
+
+    /**
+     * Opens the given classpath and reads the model recorded for it.
+     *
+     * @param classpath
+     *         the runtime classpath of the project
+     * @param sharedModel
+     *         the shared model file, which may not exist
+     */
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    public static ModelClasspath open(Iterable<File> classpath, Path sharedModel) {
+        var classLoader = new IndexedClassLoader(classpath, null);
+        var locations = classLoader.classpath();
+        var model = new ModelJournal(sharedModel).read()
+                                                 .toBuilder()
+                                                 .mergeFrom(ModelFragments.collect(locations))
+                                                 .build();
+        return new ModelClasspath(classLoader, model);
+    }
+
+    /**
+     * Obtains the model of the project.
+     */
+    public CommandReceivers model() {
+        return model;
+    }
+
+    /**
+     * Obtains the {@code ClassLoader} of the classpath.
+     */
+    public ClassLoader classLoader() {
+        return classLoader;
+    }
+
+    @Override
+    public void close() {
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to close the classpath.", e);
+        }
+    }
+}
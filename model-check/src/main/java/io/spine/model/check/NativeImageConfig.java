@@ -0,0 +1,307 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.spine.logging.Logging;
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
+import io.spine.model.CommandReceivers;
+import io.spine.model.ReturnKind;
+import io.spine.model.assemble.ModelFragments;
+import io.spine.model.runtime.DispatcherRegistry;
+import io.spine.model.runtime.ModelSnapshots;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static io.spine.model.assemble.HandlerConventions.COMMAND_CONTEXT_TYPE;
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The GraalVM <a href="https://www.graalvm.org/latest/reference-manual/native-image/metadata/">
+ * native image metadata</a> of the Spine model.
+ *
+ * <p>The reflection metadata registers:
+ * <ul>
+ *     <li>the declared constructors and the handler methods of the command receivers;
+ *     <li>the factory methods of the handled commands and of the messages returned by
+ *         the handlers;
+ *     <li>the thrown rejections, so that they could be looked up by name;
+ *     <li>the {@code dispatch} methods of the {@linkplain DispatcherRegistry generated
+ *         dispatchers}.
+ * </ul>
+ *
+ * <p>The resource metadata includes the model resources written by the tools and
+ * the descriptor sets of the known Protobuf types. The model does not rely on dynamic proxies,
+ * so the proxy metadata is empty.
+ *
+ * <p>Only the classes found by the given {@code ClassLoader} are registered.
+ */
+public final class NativeImageConfig implements Logging {
+
+    /**
+     * The name of the file with the reflection metadata.
+     */
+    public static final String REFLECT_CONFIG = "reflect-config.json";
+
+    /**
+     * The name of the file with the resource metadata.
+     */
+    public static final String RESOURCE_CONFIG = "resource-config.json";
+
+    /**
+     * The name of the file with the dynamic proxy metadata.
+     */
+    public static final String PROXY_CONFIG = "proxy-config.json";
+
+    /**
+     * The methods of a Protobuf message class used to create its instances reflectively.
+     */
+    private static final ImmutableList<String> MESSAGE_FACTORY_METHODS =
+            ImmutableList.of("getDefaultInstance", "newBuilder", "parser");
+
+    /**
+     * The name of the method of the generated dispatchers.
+     */
+    private static final String DISPATCH_METHOD = "dispatch";
+
+    /**
+     * The patterns of the resources read by the Spine runtime.
+     */
+    private static final ImmutableList<String> RESOURCE_PATTERNS = ImmutableList.of(
+            Pattern.quote(ModelFragments.FRAGMENT_PATH),
+            Pattern.quote(ModelSnapshots.SNAPSHOT_PATH),
+            Pattern.quote(DispatcherRegistry.REGISTRY_PATH),
+            Pattern.quote("desc.ref"),
+            ".*\\.desc$"
+    );
+
+    private static final String INDENT = "  ";
+
+    private final ClassLookup lookup;
+    private final Map<String, ReflectedClass> classes = new TreeMap<>();
+
+    /**
+     * Creates new empty metadata of the classes found by the given {@code ClassLoader}.
+     */
+    public NativeImageConfig(ClassLoader classLoader) {
+        this.lookup = new ClassLookup(classLoader);
+    }
+
+    /**
+     * Adds the classes of the given model and the dispatchers of its receivers
+     * to the metadata.
+     */
+    public NativeImageConfig add(CommandReceivers model) {
+        for (var receiver : model.getReceiverList()) {
+            add(receiver);
+        }
+        var dispatchers = DispatcherRegistry.load(lookup.classLoader());
+        dispatchers.forEach(this::addDispatcher);
+        return this;
+    }
+
+    private void add(CommandReceiver receiver) {
+        var type = reflected(receiver.getType());
+        if (type.isEmpty()) {
+            return;
+        }
+        var receiverClass = type.get();
+        receiverClass.allDeclaredConstructors = true;
+        for (var method : receiver.getMethodList()) {
+            var parameterTypes = parameterTypes(method.getParameterTypeList());
+            receiverClass.addMethod(method.getName(), parameterTypes);
+            addMessages(method);
+        }
+    }
+
+    private void addMessages(CommandHandlerMethod method) {
+        addMessage(method.getCommandType());
+        if (method.getReturnKind() == ReturnKind.SINGLE_MESSAGE) {
+            addMessage(method.getReturnType());
+        }
+        method.getThrownTypeList()
+              .forEach(this::reflected);
+    }
+
+    private void addMessage(String type) {
+        reflected(type).ifPresent(message -> MESSAGE_FACTORY_METHODS.forEach(
+                name -> message.addMethod(name, ImmutableList.of())));
+    }
+
+    private void addDispatcher(String receiver, String dispatcher) {
+        reflected(dispatcher).ifPresent(type -> type.addMethod(
+                DISPATCH_METHOD,
+                ImmutableList.of(receiver, Object.class.getName(), COMMAND_CONTEXT_TYPE)));
+    }
+
+    private List<String> parameterTypes(List<String> types) {
+        return types.stream()
+                    .map(type -> lookup.binaryName(type)
+                                       .orElse(type))
+                    .collect(toList());
+    }
+
+    /**
+     * Obtains the metadata of the class with the given name, registering it if needed.
+     *
+     * @return the metadata or {@code Optional.empty()} if the class is not found
+     */
+    private Optional<ReflectedClass> reflected(String name) {
+        var binaryName = lookup.binaryName(name);
+        if (binaryName.isEmpty()) {
+            _debug().log("The type `%s` is not a class found on the classpath, skipping.", name);
+            return Optional.empty();
+        }
+        var result = classes.computeIfAbsent(binaryName.get(), ReflectedClass::new);
+        return Optional.of(result);
+    }
+
+    /**
+     * Writes the metadata files into the given directory.
+     */
+    public void writeTo(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve(REFLECT_CONFIG), reflectConfig(), UTF_8);
+            Files.writeString(directory.resolve(RESOURCE_CONFIG), resourceConfig(), UTF_8);
+            Files.writeString(directory.resolve(PROXY_CONFIG), proxyConfig(), UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to write the native image metadata into `%s`.", directory), e);
+        }
+    }
+
+    /**
+     * Obtains the content of the reflection metadata file.
+     */
+    @VisibleForTesting
+    String reflectConfig() {
+        var entries = classes.values()
+                             .stream()
+                             .map(ReflectedClass::toJson)
+                             .collect(toList());
+        return array(entries, "");
+    }
+
+    /**
+     * Obtains the content of the resource metadata file.
+     */
+    @VisibleForTesting
+    static String resourceConfig() {
+        var includes = RESOURCE_PATTERNS.stream()
+                                        .map(pattern -> "{\"pattern\": " + string(pattern) + '}')
+                                        .collect(toList());
+        var nl = lineSeparator();
+        return "{" + nl
+                + INDENT + "\"resources\": {" + nl
+                + INDENT + INDENT + "\"includes\": " + array(includes, INDENT + INDENT) + nl
+                + INDENT + "}," + nl
+                + INDENT + "\"bundles\": []" + nl
+                + "}" + nl;
+    }
+
+    /**
+     * Obtains the content of the dynamic proxy metadata file.
+     */
+    @VisibleForTesting
+    static String proxyConfig() {
+        return "[]" + lineSeparator();
+    }
+
+    private static String array(List<String> elements, String indent) {
+        if (elements.isEmpty()) {
+            return "[]";
+        }
+        var nl = lineSeparator();
+        var elementIndent = indent + INDENT;
+        var body = elements.stream()
+                           .map(element -> elementIndent + element.replace(nl, nl + elementIndent))
+                           .collect(joining("," + nl));
+        return "[" + nl + body + nl + indent + "]" + (indent.isEmpty() ? nl : "");
+    }
+
+    private static String string(String value) {
+        var escaped = value.replace("\\", "\\\\")
+                           .replace("\"", "\\\"");
+        return '"' + escaped + '"';
+    }
+
+    /**
+     * The reflection metadata of a class.
+     */
+    private static final class ReflectedClass {
+
+        private final String name;
+        private final TreeSet<String> methods = new TreeSet<>();
+        private boolean allDeclaredConstructors;
+
+        private ReflectedClass(String name) {
+            this.name = name;
+        }
+
+        private void addMethod(String name, List<String> parameterTypes) {
+            var parameters = parameterTypes.stream()
+                                           .map(NativeImageConfig::string)
+                                           .collect(joining(", "));
+            methods.add("{\"name\": " + string(name)
+                                + ", \"parameterTypes\": [" + parameters + "]}");
+        }
+
+        private String toJson() {
+            var nl = lineSeparator();
+            var result = new StringBuilder("{").append(nl)
+                    .append(INDENT).append("\"name\": ").append(string(name));
+            if (allDeclaredConstructors) {
+                result.append(',').append(nl)
+                      .append(INDENT).append("\"allDeclaredConstructors\": true");
+            }
+            if (!methods.isEmpty()) {
+                result.append(',').append(nl)
+                      .append(INDENT).append("\"methods\": ")
+                      .append(array(List.copyOf(methods), INDENT));
+            }
+            return result.append(nl)
+                         .append('}')
+                         .toString();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check.plugin;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.gradle.api.tasks.PathSensitivity.NONE;
+
+/**
+ * Verifies the Spine model of the project.
+ *
+ * <p>The verification engine, along with the Spine server runtime, is not a part of
+ * the plugin classpath. Instead, it is resolved as a {@linkplain #getEngineClasspath() separate
+ * classpath} when the task is executed, and the {@linkplain VerifyModel verification} runs
+ * in an isolated class loader. So, the builds which do not execute the task do not pay for
+ * loading the engine.
+ *
+ * <p>The task is incremental. If only the class files in the directories of the classpath
+ * changed since the previous execution, only the receivers covering the changed classes are
+ * verified again, along with the receivers handling the same commands. The changes of
+ * the model files, of the JAR files of the classpath, or of the other inputs cannot be narrowed
+ * to the classes. In this case, the digests of the class files of all the receivers are
+ * computed to find the changed receivers, and the cached outcomes of the others are reused.
+ */
+public abstract class CheckModel extends DefaultTask {
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    /**
+     * Obtains the classpath of the verification engine.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getEngineClasspath();
+
+    /**
+     * Obtains the runtime classpath of the checked project.
+     *
+     * <p>Only the receivers found on the classpath are verified.
+     */
+    @Incremental
+    @Classpath
+    public abstract ConfigurableFileCollection getClasspath();
+
+    /**
+     * Obtains the shared model file written by the annotation processor.
+     *
+     * <p>The file, as well as its journal, may not exist.
+     */
+    @Internal
+    public abstract RegularFileProperty getSharedModel();
+
+    /**
+     * Obtains the files of the {@linkplain #getSharedModel() shared model} which exist.
+     */
+    @Incremental
+    @InputFiles
+    @PathSensitive(NONE)
+    public abstract ConfigurableFileCollection getModelFiles();
+
+    /**
+     * Obtains the file of the cache of the verification outcomes.
+     *
+     * <p>The receivers which did not change since the previous verification are not verified
+     * again.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getCacheFile();
+
+    /**
+     * Obtains the descriptor set file of the {@code main} source set, if the project
+     * has one.
+     */
+    @Internal
+    public abstract RegularFileProperty getDescriptorSet();
+
+    /**
+     * Obtains the maximum number of the model classes loaded at once.
+     *
+     * <p>The classes are verified as soon as they are loaded, while the other classes are
+     * still loading. If {@code 1}, the classes are loaded one by one.
+     */
+    @Internal
+    public abstract Property<Integer> getParallelism();
+
+    /**
+     * Tells if the model is verified by reading the class files of the receivers.
+     *
+     * <p>If {@code true}, the receiver classes are not loaded, and the Spine server does
+     * not validate them. Instead, the model rules are applied to the handler methods as
+     * declared in the class files. The parallelism setting is not used in this case.
+     */
+    @Input
+    public abstract Property<Boolean> getReadsClassFiles();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @TaskAction
+    void verify(InputChanges inputChanges) {
+        var changedClasses = changedClasses(inputChanges);
+        var queue = getWorkerExecutor().classLoaderIsolation(
+                spec -> spec.getClasspath().from(getEngineClasspath())
+        );
+        queue.submit(VerifyModel.class, parameters -> {
+            parameters.getClasspath().from(getClasspath());
+            parameters.getSharedModel().set(getSharedModel());
+            parameters.getCacheFile().set(getCacheFile());
+            parameters.getDescriptorSet().set(getDescriptorSet());
+            parameters.getParallelism().set(getParallelism());
+            parameters.getReadsClassFiles().set(getReadsClassFiles());
+            parameters.getIncremental().set(changedClasses.isPresent());
+            parameters.getChangedClasses().set(changedClasses.orElse(Set.of()));
+        });
+        queue.await();
+    }
+
+    /**
+     * Obtains the binary names of the classes changed since the previous execution.
+     *
+     * @return the names of the added, modified, and removed classes, or
+     *         {@code Optional.empty()} if the changes cannot be narrowed to the classes
+     */
+    private Optional<Set<String>> changedClasses(InputChanges inputChanges) {
+        if (!inputChanges.isIncremental()
+                || inputChanges.getFileChanges(getModelFiles()).iterator().hasNext()) {
+            return Optional.empty();
+        }
+        Set<String> result = new HashSet<>();
+        for (var change : inputChanges.getFileChanges(getClasspath())) {
+            if (change.getFileType() == FileType.DIRECTORY) {
+                continue;
+            }
+            var path = change.getNormalizedPath();
+            if (!change.getFile().getName().endsWith(CLASS_EXTENSION)) {
+                // A JAR file or a resource, which may hold a model fragment.
+                return Optional.empty();
+            }
+            result.add(classNameOf(path));
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Obtains the binary name of the class by the normalized path of its class file.
+     *
+     * @param classFilePath
+     *         the path of the class file relative to the classpath entry,
+     *         with the {@code /} separators
+     */
+    @VisibleForTesting
+    static String classNameOf(String classFilePath) {
+        var internalName = classFilePath.substring(
+                0, classFilePath.length() - CLASS_EXTENSION.length());
+        return internalName.replace('/', '.');
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check.plugin;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.process.ExecOperations;
+
+import javax.inject.Inject;
+import java.io.File;
+
+import static java.util.stream.Collectors.joining;
+import static org.gradle.api.tasks.PathSensitivity.NONE;
+
+/**
+ * Dumps the AppCDS archive of the classes listed by the {@link WriteClassList} task.
+ *
+ * <p>The archive is dumped by the Java launcher of the project toolchain, which must be
+ * the same as the one running the application. The application must be started with
+ * the same {@linkplain #getClasspath() classpath}, or with the one which it prefixes:
+ *
+ * <pre>
+ * java -XX:SharedArchiveFile=model.jsa -cp ${classpath} ...
+ * </pre>
+ *
+ * <p>The JDK does not archive the classes loaded from directories. So, the classpath of
+ * the archive consists of the JAR files only.
+ */
+public abstract class DumpClassArchive extends DefaultTask {
+
+    /**
+     * Obtains the Java launcher dumping the archive.
+     */
+    @Nested
+    public abstract Property<JavaLauncher> getLauncher();
+
+    /**
+     * Obtains the class list written by the {@link WriteClassList} task.
+     */
+    @InputFile
+    @PathSensitive(NONE)
+    public abstract RegularFileProperty getClassList();
+
+    /**
+     * Obtains the JAR files of the application classpath, in the order the application
+     * uses them.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getClasspath();
+
+    /**
+     * Obtains the archive file to dump.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getArchive();
+
+    @Inject
+    protected abstract ExecOperations getExecOperations();
+
+    @TaskAction
+    void dump() {
+        var classpath = getClasspath().getFiles()
+                                      .stream()
+                                      .filter(File::isFile)
+                                      .map(File::getAbsolutePath)
+                                      .collect(joining(File.pathSeparator));
+        var classList = getClassList().getAsFile().get();
+        var archive = getArchive().getAsFile().get();
+        var executable = getLauncher().get()
+                                      .getExecutablePath()
+                                      .getAsFile();
+        getExecOperations().exec(spec -> {
+            spec.setExecutable(executable);
+            spec.setArgs(ImmutableList.of(
+                    "-Xshare:dump",
+                    "-XX:SharedClassListFile=" + classList.getAbsolutePath(),
+                    "-XX:SharedArchiveFile=" + archive.getAbsolutePath(),
+                    "-cp", classpath
+            ));
+        });
+    }
+}
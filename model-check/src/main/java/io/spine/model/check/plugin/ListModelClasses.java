@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check.plugin;
+
+import io.spine.annotation.Internal;
+import io.spine.logging.Logging;
+import io.spine.model.check.ClassList;
+import io.spine.model.check.ModelClasspath;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.workers.WorkAction;
+
+/**
+ * Writes the {@linkplain ClassList class list} of the Spine model in the class loader of
+ * the verification engine.
+ *
+ * <p>The engine types are referred to only from the method bodies, so that the plugin can load
+ * this class without the engine on its classpath.
+ */
+@Internal
+public abstract class ListModelClasses
+        implements WorkAction<ListModelClasses.Parameters>, Logging {
+
+    @Override
+    public void execute() {
+        var parameters = getParameters();
+        var sharedModel = parameters.getSharedModel().getAsFile().get().toPath();
+        var classList = parameters.getClassList().getAsFile().get().toPath();
+        try (var classpath = ModelClasspath.open(parameters.getClasspath(), sharedModel)) {
+            var classes = new ClassList(classpath.classLoader())
+                    .add(classpath.model());
+            classes.writeTo(classList);
+            _debug().log("Listed %d classes in `%s`.", classes.classes().size(), classList);
+        }
+    }
+
+    /**
+     * The parameters of the class listing.
+     */
+    public interface Parameters extends ModelClassesParameters {
+
+        /**
+         * Obtains the file to write the class list to.
+         */
+        RegularFileProperty getClassList();
+    }
+}
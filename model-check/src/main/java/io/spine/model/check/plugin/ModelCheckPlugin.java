@@ -26,145 +26,355 @@
 
 package io.spine.model.check.plugin;
 
-import com.google.common.flogger.FluentLogger;
 import io.spine.annotation.Experimental;
 import io.spine.logging.Logging;
-import io.spine.model.CommandReceivers;
-import io.spine.model.assemble.AssignLookup;
-import io.spine.model.check.ModelCheck;
 import io.spine.tools.code.SourceSetName;
-import io.spine.tools.gradle.task.GradleTask;
-import io.spine.tools.type.MoreKnownTypes;
-import org.gradle.api.Action;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
-import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.tasks.Copy;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.compile.AbstractCompile;
+import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.jvm.toolchain.JavaToolchainService;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.Set;
 
+import static io.spine.model.assemble.AssignLookup.DESTINATION_PATH;
 import static io.spine.model.check.plugin.ModelCheckTaskName.checkModel;
+import static io.spine.model.check.plugin.ModelCheckTaskName.dumpClassArchive;
+import static io.spine.model.check.plugin.ModelCheckTaskName.writeClassList;
+import static io.spine.model.check.plugin.ModelCheckTaskName.writeNativeImageConfig;
 import static io.spine.tools.gradle.project.Projects.descriptorSetFile;
 import static io.spine.tools.gradle.task.JavaTaskName.classes;
 import static io.spine.tools.gradle.task.JavaTaskName.compileJava;
-import static java.nio.file.Files.exists;
-import static java.nio.file.Files.newInputStream;
+import static io.spine.tools.gradle.task.JavaTaskName.processResources;
+import static java.lang.String.format;
+import static org.gradle.api.plugins.JavaPlugin.RUNTIME_CLASSPATH_CONFIGURATION_NAME;
 
 /**
  * The plugin performing the Spine type model verification.
+ *
+ * <p>The plugin adds the {@link CheckModel checkModel} task. The verification engine is
+ * resolved as a detached configuration only when the task is executed. So, the plugin
+ * itself is small and does not bring the Spine server to the buildscript classpath.
+ * The engine is resolved from the repositories of the checked project, which must
+ * include the repository hosting the Spine artifacts.
+ *
+ * <p>The plugin also passes the {@linkplain ProcessorArguments options} of the model
+ * annotation processor to the compilation of the {@code main} source set, and stamps
+ * the {@linkplain SnapshotStamping model snapshot} written by the processor.
+ *
+ * <p>On demand, the {@link WriteClassList writeClassList} and
+ * {@link DumpClassArchive dumpClassArchive} tasks prepare the AppCDS archive of the model
+ * classes, which reduces the class loading time at the application startup.
+ * The {@link WriteNativeImageConfig writeNativeImageConfig} task writes the GraalVM native
+ * image metadata of the model classes.
  */
 @Experimental
 public final class ModelCheckPlugin implements Plugin<Project>, Logging {
 
-    private static final String RELATIVE_RAW_MODEL_PATH = AssignLookup.DESTINATION_PATH;
+    /**
+     * The name of the extension added by the Spine Model Compiler for Java.
+     */
+    private static final String MC_JAVA_EXTENSION_NAME = "java";
+
+    /**
+     * The resource with the version of this plugin.
+     */
+    private static final String VERSIONS_RESOURCE = "/versions-spine-model-check.properties";
+
+    /**
+     * The key of the plugin version in the {@linkplain #VERSIONS_RESOURCE versions resource}.
+     */
+    private static final String VERSION_KEY = "io.spine.tools_spine-model-check";
+
+    /**
+     * The artifact with the verification engine and its dependencies, without the version.
+     */
+    private static final String ENGINE_ARTIFACT = "io.spine.tools:spine-model-check-bundle";
+
+    /**
+     * The name of the Gradle property setting the number of the model classes loaded at once
+     * by the {@link CheckModel checkModel} task.
+     */
+    private static final String PARALLELISM_PROPERTY = "spineModelCheckParallelism";
+
+    /**
+     * The name of the Gradle property which makes the {@link CheckModel checkModel} task
+     * verify the model by reading the class files instead of loading the classes.
+     */
+    private static final String CLASS_FILES_PROPERTY = "spineModelCheckClassFiles";
+
+    /**
+     * The extension appended to the name of the shared model file to obtain
+     * the name of its journal.
+     */
+    private static final String JOURNAL_EXTENSION = ".journal";
+
+    /**
+     * The directory under the build directory, into which the AppCDS files are written.
+     */
+    private static final String CDS_DIR = "spine/cds";
+    private static final String CLASS_LIST_FILE = "model.classlist";
+    private static final String ARCHIVE_FILE = "model.jsa";
+
+    /**
+     * The directory under the build directory, which holds the native image metadata
+     * as a resource root.
+     */
+    private static final String NATIVE_IMAGE_DIR = "spine/native-image";
+
+    /**
+     * The path of the verification cache of the {@link CheckModel checkModel} task, relative
+     * to the build directory.
+     */
+    private static final String CHECK_CACHE_FILE = "spine/model-check/verification.cache";
 
     @Override
     public void apply(Project project) {
         _debug().log("Applying Spine model verifier plugin.");
-        var rawModelStorage = rawModelPath(project);
         // Ensure right environment (`main` scope sources with the `java` plugin)
         if (project.getTasks()
                    .findByPath(classes.name()) != null) {
-            createTask(rawModelStorage, project);
+            var engine = engine(project);
+            createTask(project, engine);
+            passProcessorArguments(project);
+            stampSnapshot(project, engine);
+            createClassListTasks(project, engine);
+            createNativeImageTask(project, engine);
         }
     }
 
-    private void createTask(Path rawModelStorage, Project project) {
-        _debug().log("Adding task `%s`.", checkModel);
-        GradleTask.newBuilder(checkModel, action(rawModelStorage))
-                .insertAfterTask(compileJava)
-                .insertBeforeTask(classes)
-                .applyNowTo(project);
+    /**
+     * Passes the options of the model annotation processor to the compilation of
+     * the {@code main} source set.
+     *
+     * @see ProcessorArguments
+     */
+    private static void passProcessorArguments(Project project) {
+        project.getTasks()
+               .named(compileJava.name(), JavaCompile.class)
+               .configure(task -> task.getOptions()
+                                      .getCompilerArgumentProviders()
+                                      .add(new ProcessorArguments(project)));
+    }
 
+    /**
+     * Makes the compilation of the {@code main} source set stamp
+     * the {@linkplain SnapshotStamping model snapshot}, if the annotation processor writes one.
+     */
+    private static void stampSnapshot(Project project, Object engine) {
+        var stamping = project.getObjects()
+                              .newInstance(SnapshotStamping.class);
+        stamping.getEngineClasspath().from(engine);
+        project.getTasks()
+               .named(compileJava.name(), JavaCompile.class)
+               .configure(task -> task.doLast(stamping));
     }
 
-    private static Path rawModelPath(Project project) {
-        var rootDir = project.getRootDir().toPath();
-        var result = rootDir.resolve(RELATIVE_RAW_MODEL_PATH);
-        return result;
+    private void createTask(Project project, Object engine) {
+        _debug().log("Adding task `%s`.", checkModel);
+        var tasks = project.getTasks();
+        var task = tasks.register(checkModel.name(), CheckModel.class, t -> {
+            t.dependsOn(compileJava.name());
+            t.getEngineClasspath().from(engine);
+            t.getClasspath().from(checkedClasspath(project));
+            var sharedModel = sharedModel(project);
+            var modelFile = sharedModel.getAsFile();
+            t.getSharedModel().set(sharedModel);
+            t.getModelFiles().from(modelFile, modelFile.getPath() + JOURNAL_EXTENSION);
+            t.getCacheFile().set(project.getLayout()
+                                        .getBuildDirectory()
+                                        .file(CHECK_CACHE_FILE));
+            t.getDescriptorSet().fileProvider(project.provider(() -> descriptorSet(project)));
+            t.getParallelism().convention(
+                    project.getProviders()
+                           .gradleProperty(PARALLELISM_PROPERTY)
+                           .map(Integer::valueOf)
+                           .orElse(Runtime.getRuntime().availableProcessors())
+            );
+            t.getReadsClassFiles().convention(
+                    project.getProviders()
+                           .gradleProperty(CLASS_FILES_PROPERTY)
+                           .map(Boolean::valueOf)
+                           .orElse(false)
+            );
+        });
+        tasks.named(classes.name())
+             .configure(t -> t.dependsOn(task));
     }
 
-    private Action<Task> action(Path path) {
-        return new VerifierAction(this, path);
+    /**
+     * Obtains the runtime classpath of the {@code main} source set, as it is before
+     * the {@code classes} task.
+     *
+     * <p>The output of the {@code main} source set is built by the {@code classes} task, which
+     * depends on {@code checkModel}. So, the classpath is composed of the destination directory
+     * of {@code compileJava}, the processed resources, and the runtime classpath configuration.
+     */
+    private static ConfigurableFileCollection checkedClasspath(Project project) {
+        var tasks = project.getTasks();
+        var compilation = tasks.named(compileJava.name(), JavaCompile.class)
+                               .flatMap(AbstractCompile::getDestinationDirectory);
+        var resources = tasks.named(processResources.name(), Copy.class)
+                             .map(Copy::getDestinationDir);
+        var runtime = project.getConfigurations()
+                             .getByName(RUNTIME_CLASSPATH_CONFIGURATION_NAME);
+        return project.files(compilation, resources, runtime);
     }
 
     /**
-     * The action performing the model processing.
+     * Adds the tasks writing the AppCDS {@linkplain WriteClassList class list} of the model
+     * and {@linkplain DumpClassArchive dumping} the archive of the listed classes.
      *
-     * <p>It is executed only if the passed {@code rawModelPath} is present.
+     * <p>The tasks are not a part of the build and are to be executed explicitly.
+     */
+    private static void createClassListTasks(Project project, Object engine) {
+        var tasks = project.getTasks();
+        var java = project.getExtensions()
+                          .getByType(JavaPluginExtension.class);
+        var main = mainSourceSet(project);
+        var cdsDir = project.getLayout()
+                            .getBuildDirectory()
+                            .dir(CDS_DIR);
+        var writeTask = tasks.register(writeClassList.name(), WriteClassList.class, t -> {
+            readModel(project, t, engine, main);
+            t.getClassList().set(cdsDir.map(dir -> dir.file(CLASS_LIST_FILE)));
+        });
+        tasks.register(dumpClassArchive.name(), DumpClassArchive.class, t -> {
+            var toolchains = project.getExtensions()
+                                    .getByType(JavaToolchainService.class);
+            t.getLauncher().set(toolchains.launcherFor(java.getToolchain()));
+            t.getClassList().set(writeTask.flatMap(WriteClassList::getClassList));
+            t.getClasspath().from(tasks.named(JavaPlugin.JAR_TASK_NAME),
+                                  project.getConfigurations()
+                                         .getByName(RUNTIME_CLASSPATH_CONFIGURATION_NAME));
+            t.getArchive().set(cdsDir.map(dir -> dir.file(ARCHIVE_FILE)));
+        });
+    }
+
+    /**
+     * Adds the task writing the GraalVM {@linkplain WriteNativeImageConfig native image
+     * metadata} of the model.
      *
-     * <p>Reads the {@link CommandReceivers} from the given file and
-     * {@linkplain #verifyModel processes} the model.
+     * <p>The task is not a part of the build and is to be executed explicitly.
      */
-    private static class VerifierAction implements Action<Task>, Logging {
+    private static void createNativeImageTask(Project project, Object engine) {
+        var main = mainSourceSet(project);
+        project.getTasks()
+               .register(writeNativeImageConfig.name(), WriteNativeImageConfig.class, t -> {
+                   readModel(project, t, engine, main);
+                   var metadataPath = format("META-INF/native-image/%s/%s",
+                                             project.getGroup(), project.getName());
+                   t.getConfigDirectory().set(project.getLayout()
+                                                     .getBuildDirectory()
+                                                     .dir(NATIVE_IMAGE_DIR + '/' + metadataPath));
+               });
+    }
 
-        public static final String MC_JAVA_EXTENSION_NAME = "java";
-        private final ModelCheckPlugin parent;
-        private final Path rawModelPath;
+    /**
+     * Configures the given task to read the model of the {@code main} source set.
+     */
+    private static void readModel(Project project, ModelClassesTask task,
+                                  Object engine, SourceSet main) {
+        var sharedModel = sharedModel(project);
+        var modelFile = sharedModel.getAsFile();
+        task.getEngineClasspath().from(engine);
+        task.getClasspath().from(main.getRuntimeClasspath());
+        task.getSharedModel().set(sharedModel);
+        task.getModelFiles().from(modelFile, modelFile.getPath() + JOURNAL_EXTENSION);
+    }
 
-        private VerifierAction(ModelCheckPlugin parent, Path rawModelPath) {
-            this.parent = parent;
-            this.rawModelPath = rawModelPath;
-        }
+    private static SourceSet mainSourceSet(Project project) {
+        return project.getExtensions()
+                      .getByType(JavaPluginExtension.class)
+                      .getSourceSets()
+                      .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+    }
 
-        @Override
-        public void execute(Task task) {
-            if (!exists(rawModelPath)) {
-                _warn().log("No Spine model definition found under `%s`.", rawModelPath);
-            } else {
-                var project = task.getProject();
-                extendKnownTypes(project);
-                verifyModel(project);
-            }
-        }
+    /**
+     * Creates a detached configuration with the verification engine.
+     *
+     * <p>The configuration is resolved from the repositories of the project when
+     * the files of the configuration are requested. If the engine cannot be resolved,
+     * the build fails telling which repositories the project is missing.
+     */
+    private static Object engine(Project project) {
+        var notation = ENGINE_ARTIFACT + ':' + pluginVersion();
+        var dependency = project.getDependencies()
+                                .create(notation);
+        var configuration = project.getConfigurations()
+                                   .detachedConfiguration(dependency);
+        var projectPath = project.getPath();
+        return project.files(project.provider(() -> resolve(configuration, notation,
+                                                            projectPath)));
+    }
 
-        private void extendKnownTypes(Project project) {
-            if (project.getExtensions().findByName(MC_JAVA_EXTENSION_NAME) != null) {
-                var descriptorFile = descriptorSetFile(project, SourceSetName.main);
-                tryExtend(descriptorFile);
-            } else {
-                _warn().log(
-                        "`%s` plugin extension is not found." +
-                                " Please apply the Spine model compiler plugin.",
-                        MC_JAVA_EXTENSION_NAME
-                );
-            }
+    private static Set<File> resolve(Configuration engine, String notation, String projectPath) {
+        try {
+            return engine.resolve();
+        } catch (ResolveException e) {
+            throw new IllegalStateException(format(
+                    "Unable to resolve the Spine model verification engine `%s` " +
+                            "for the project `%s`. The engine is resolved from " +
+                            "the repositories of the project, so they must include " +
+                            "the repositories hosting the Spine artifacts.",
+                    notation, projectPath), e);
         }
+    }
 
-        private void tryExtend(File descriptorFile) {
-            if (descriptorFile.exists()) {
-                _debug().log("Extending known types with types from `%s`.", descriptorFile);
-                MoreKnownTypes.extendWith(descriptorFile);
-            } else {
-                _warn().log("Descriptor file `%s` does not exist.", descriptorFile);
+    private static String pluginVersion() {
+        var properties = new Properties();
+        try (var stream = ModelCheckPlugin.class.getResourceAsStream(VERSIONS_RESOURCE)) {
+            if (stream == null) {
+                throw new IllegalStateException(
+                        format("Unable to find the resource `%s`.", VERSIONS_RESOURCE));
             }
+            properties.load(stream);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to read the resource `%s`.", VERSIONS_RESOURCE), e);
         }
-
-        /**
-         * Verifies the {@link CommandReceivers} upon the {@linkplain Project Gradle project}.
-         *
-         * @param project
-         *         the Gradle project to process the model upon
-         */
-        private void verifyModel(Project project) {
-            var verifier = new ModelCheck(project);
-            var commandReceivers = readCommandReceivers();
-            verifier.verify(commandReceivers);
+        var version = properties.getProperty(VERSION_KEY);
+        if (version == null) {
+            throw new IllegalStateException(
+                    format("The version of the plugin is not found in `%s`.", VERSIONS_RESOURCE));
         }
+        return version;
+    }
 
-        private CommandReceivers readCommandReceivers() {
-            try (var in = newInputStream(rawModelPath, StandardOpenOption.READ)) {
-                return CommandReceivers.parseFrom(in);
-            } catch (IOException e) {
-                throw new IllegalStateException(e);
-            }
-        }
+    private static RegularFile sharedModel(Project project) {
+        return project.getRootProject()
+                      .getLayout()
+                      .getProjectDirectory()
+                      .file(DESTINATION_PATH);
+    }
 
-        @Override
-        public FluentLogger logger() {
-            return parent.logger();
+    /**
+     * Obtains the descriptor set file of the {@code main} source set, if the Spine Model
+     * Compiler is applied to the project.
+     *
+     * @return the descriptor set file or {@code null} if the Model Compiler is not applied
+     */
+    private @Nullable File descriptorSet(Project project) {
+        if (project.getExtensions().findByName(MC_JAVA_EXTENSION_NAME) != null) {
+            return descriptorSetFile(project, SourceSetName.main);
         }
+        _warn().log(
+                "`%s` plugin extension is not found." +
+                        " Please apply the Spine model compiler plugin.",
+                MC_JAVA_EXTENSION_NAME
+        );
+        return null;
     }
 }
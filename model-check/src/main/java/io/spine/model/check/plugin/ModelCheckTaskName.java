@@ -36,5 +36,20 @@ public enum ModelCheckTaskName implements TaskName {
     /**
      * Verifies correctness of the domain model definition.
      */
-    checkModel
+    checkModel,
+
+    /**
+     * Writes the AppCDS class list of the domain model classes.
+     */
+    writeClassList,
+
+    /**
+     * Dumps the AppCDS archive of the classes listed by {@link #writeClassList}.
+     */
+    dumpClassArchive,
+
+    /**
+     * Writes the GraalVM native image metadata of the domain model classes.
+     */
+    writeNativeImageConfig
 }
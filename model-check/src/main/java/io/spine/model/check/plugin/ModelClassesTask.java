@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check.plugin;
+
+import org.gradle.api.Action;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+
+import static org.gradle.api.tasks.PathSensitivity.NONE;
+
+/**
+ * A task processing the classes of the Spine model found on the runtime classpath of
+ * the project.
+ *
+ * <p>The model is read from the shared model file and from the model fragments found on
+ * the {@linkplain #getClasspath() classpath}. Like the {@link CheckModel} task, the tasks of
+ * this type process the model in the class loader of the verification engine.
+ */
+public abstract class ModelClassesTask extends DefaultTask {
+
+    /**
+     * Obtains the classpath of the verification engine.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getEngineClasspath();
+
+    /**
+     * Obtains the runtime classpath of the project, which the model classes are
+     * looked up on.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getClasspath();
+
+    /**
+     * Obtains the shared model file written by the annotation processor.
+     *
+     * <p>The file, as well as its journal, may not exist.
+     */
+    @Internal
+    public abstract RegularFileProperty getSharedModel();
+
+    /**
+     * Obtains the files of the {@linkplain #getSharedModel() shared model} which exist.
+     */
+    @InputFiles
+    @PathSensitive(NONE)
+    public abstract ConfigurableFileCollection getModelFiles();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    /**
+     * Executes the given action in the class loader of the verification engine and waits
+     * for its completion.
+     *
+     * @param action
+     *         the type of the action
+     * @param configuration
+     *         the configuration of the parameters specific to the action
+     */
+    <P extends ModelClassesParameters> void submit(Class<? extends WorkAction<P>> action,
+                                                   Action<? super P> configuration) {
+        var queue = getWorkerExecutor().classLoaderIsolation(
+                spec -> spec.getClasspath().from(getEngineClasspath())
+        );
+        queue.submit(action, parameters -> {
+            parameters.getClasspath().from(getClasspath());
+            parameters.getSharedModel().set(getSharedModel());
+            configuration.execute(parameters);
+        });
+        queue.await();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.check.plugin;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.Project;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.process.CommandLineArgumentProvider;
+
+import java.io.File;
+
+import static io.spine.model.assemble.AssignLookup.MODULE_OPTION_NAME;
+import static io.spine.model.assemble.AssignLookup.OUTPUT_OPTION_NAME;
+import static java.lang.String.format;
+
+/**
+ * Passes the options of the {@link io.spine.model.assemble.AssignLookup AssignLookup}
+ * annotation processor to the Java compiler.
+ *
+ * <p>The provider passes:
+ * <ul>
+ *     <li>the {@code spineDirRoot} option set to the root directory of the project;
+ *     <li>the {@code spineModule} option set to the path of the compiled project, so that
+ *         the receivers of the deleted source files are dropped from the model.
+ * </ul>
+ *
+ * <p>Unlike the raw compiler arguments, the properties of the provider, rather than
+ * the arguments it produces, make the cache key of the compilation. The root directory is
+ * the location of the shared model, which is written by the processor and does not affect
+ * the compiled classes. So, it is not an input of the compilation, and the compilation can be
+ * restored from the build cache populated by a checkout in another directory. The path of
+ * the project is the same in any checkout.
+ */
+final class ProcessorArguments implements CommandLineArgumentProvider {
+
+    private final File rootDir;
+    private final String module;
+
+    ProcessorArguments(Project project) {
+        this.rootDir = project.getRootDir();
+        this.module = project.getPath();
+    }
+
+    /**
+     * Obtains the directory under which the shared model is written.
+     */
+    @Internal
+    public File getRootDir() {
+        return rootDir;
+    }
+
+    /**
+     * Obtains the path of the compiled project, which is the origin of the found receivers.
+     */
+    @Input
+    public String getModule() {
+        return module;
+    }
+
+    @Override
+    public Iterable<String> asArguments() {
+        return ImmutableList.of(option(OUTPUT_OPTION_NAME, rootDir.getAbsolutePath()),
+                                option(MODULE_OPTION_NAME, module));
+    }
+
+    private static String option(String name, String value) {
+        return format("-A%s=%s", name, value);
+    }
+}
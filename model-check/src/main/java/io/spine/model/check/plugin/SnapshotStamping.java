@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check.plugin;
+
+import io.spine.model.runtime.ModelSnapshots;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+
+/**
+ * Stamps the {@linkplain ModelSnapshots model snapshot} in the class output of a Java
+ * compilation, once the compilation is done.
+ *
+ * <p>The stamping is performed as the last action of the compilation, so that the stamped
+ * snapshot is a part of the compilation output and is cached along with the classes.
+ * If the compilation did not write the snapshot, the verification engine is not resolved.
+ */
+public abstract class SnapshotStamping implements Action<Task> {
+
+    /**
+     * Obtains the classpath of the verification engine.
+     */
+    public abstract ConfigurableFileCollection getEngineClasspath();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Override
+    public void execute(Task task) {
+        var compile = (JavaCompile) task;
+        var classesDir = compile.getDestinationDirectory();
+        var snapshot = classesDir.file(ModelSnapshots.SNAPSHOT_PATH)
+                                 .get()
+                                 .getAsFile();
+        if (!snapshot.exists()) {
+            return;
+        }
+        var queue = getWorkerExecutor().classLoaderIsolation(
+                spec -> spec.getClasspath().from(getEngineClasspath())
+        );
+        queue.submit(StampModelSnapshot.class,
+                     parameters -> parameters.getClassesDir().set(classesDir));
+        queue.await();
+    }
+}
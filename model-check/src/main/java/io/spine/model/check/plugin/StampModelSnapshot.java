@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check.plugin;
+
+import io.spine.annotation.Internal;
+import io.spine.logging.Logging;
+import io.spine.model.runtime.ModelSnapshots;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+/**
+ * Stamps the {@linkplain ModelSnapshots model snapshot} written by the annotation processor
+ * with the hashes of the compiled classes.
+ *
+ * <p>The engine types are referred to only from the method bodies, so that the plugin can load
+ * this class without the engine on its classpath.
+ */
+@Internal
+public abstract class StampModelSnapshot
+        implements WorkAction<StampModelSnapshot.Parameters>, Logging {
+
+    @Override
+    public void execute() {
+        var classesDir = getParameters().getClassesDir()
+                                        .getAsFile()
+                                        .get();
+        if (ModelSnapshots.stamp(classesDir.toPath())) {
+            _debug().log("Stamped the model snapshot in `%s`.", classesDir);
+        }
+    }
+
+    /**
+     * The parameters of the stamping.
+     */
+    public interface Parameters extends WorkParameters {
+
+        /**
+         * Obtains the class output of the compilation.
+         */
+        DirectoryProperty getClassesDir();
+    }
+}
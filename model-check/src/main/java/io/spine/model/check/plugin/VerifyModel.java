@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check.plugin;
+
+import com.google.common.collect.Iterables;
+import io.spine.annotation.Internal;
+import io.spine.logging.Logging;
+import io.spine.model.assemble.ModelJournal;
+import io.spine.model.check.ClassChanges;
+import io.spine.model.check.ModelCheck;
+import io.spine.tools.type.MoreKnownTypes;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import java.nio.file.Path;
+
+/**
+ * Verifies the Spine model in the class loader of the verification engine.
+ *
+ * <p>The model is assembled from the shared model file, its {@linkplain ModelJournal journal},
+ * and the {@linkplain io.spine.model.assemble.ModelFragments model fragments} found on
+ * the runtime classpath of the checked project. Only the receivers found on the classpath are
+ * verified. The verification is performed only if there are such receivers.
+ *
+ * <p>If {@linkplain Parameters#getReadsClassFiles() requested}, the receivers are verified
+ * by {@linkplain ModelCheck#verifyClassFiles reading} their class files instead of loading
+ * the classes.
+ *
+ * <p>Only the receivers which changed since the previous verification are verified, as told
+ * by the {@linkplain Parameters#getCacheFile() cache} of the verification outcomes and
+ * the {@linkplain Parameters#getChangedClasses() changed classes}, if they are known.
+ *
+ * <p>The engine types are referred to only from the method bodies, so that the plugin can load
+ * this class without the engine on its classpath.
+ */
+@Internal
+public abstract class VerifyModel implements WorkAction<VerifyModel.Parameters>, Logging {
+
+    @Override
+    public void execute() {
+        var parameters = getParameters();
+        try (var verifier = new ModelCheck(parameters.getClasspath())) {
+            verify(verifier, parameters);
+        }
+    }
+
+    private void verify(ModelCheck verifier, Parameters parameters) {
+        var sharedModel = pathOf(parameters.getSharedModel());
+        var shared = new ModelJournal(sharedModel).receiverTypes();
+        var fragments = verifier.collectFragments()
+                                .getCommandReceivingTypeList();
+        var receiverTypes = verifier.selectFound(Iterables.concat(shared, fragments));
+        if (Iterables.isEmpty(receiverTypes)) {
+            _warn().log("No Spine model definition found under `%s` " +
+                                "or on the classpath.", sharedModel);
+            return;
+        }
+        var cacheFile = pathOf(parameters.getCacheFile());
+        var changes = parameters.getIncremental().get()
+                      ? ClassChanges.of(parameters.getChangedClasses().get())
+                      : ClassChanges.unknown();
+        if (parameters.getReadsClassFiles().get()) {
+            verifier.verifyClassFiles(receiverTypes, cacheFile, changes);
+            return;
+        }
+        extendKnownTypes(parameters.getDescriptorSet());
+        var parallelism = parameters.getParallelism().get();
+        verifier.verify(receiverTypes, parallelism, cacheFile, changes);
+    }
+
+    private static Path pathOf(RegularFileProperty file) {
+        return file.getAsFile()
+                   .get()
+                   .toPath();
+    }
+
+    private void extendKnownTypes(RegularFileProperty descriptorSet) {
+        if (!descriptorSet.isPresent()) {
+            return;
+        }
+        var descriptorFile = descriptorSet.getAsFile().get();
+        if (descriptorFile.exists()) {
+            _debug().log("Extending known types with types from `%s`.", descriptorFile);
+            MoreKnownTypes.extendWith(descriptorFile);
+        } else {
+            _warn().log("Descriptor file `%s` does not exist.", descriptorFile);
+        }
+    }
+
+    /**
+     * The parameters of the model verification.
+     */
+    public interface Parameters extends WorkParameters {
+
+        /**
+         * Obtains the runtime classpath of the checked project.
+         */
+        ConfigurableFileCollection getClasspath();
+
+        /**
+         * Obtains the shared model file.
+         */
+        RegularFileProperty getSharedModel();
+
+        /**
+         * Obtains the file of the verification cache.
+         */
+        RegularFileProperty getCacheFile();
+
+        /**
+         * Tells if the {@linkplain #getChangedClasses() changed classes} are known.
+         */
+        Property<Boolean> getIncremental();
+
+        /**
+         * Obtains the binary names of the classes changed since the previous verification.
+         */
+        SetProperty<String> getChangedClasses();
+
+        /**
+         * Obtains the descriptor set file of the verified project, if any.
+         */
+        RegularFileProperty getDescriptorSet();
+
+        /**
+         * Obtains the maximum number of the model classes loaded at once.
+         */
+        Property<Integer> getParallelism();
+
+        /**
+         * Tells if the model is verified by reading the class files instead of
+         * loading the classes.
+         */
+        Property<Boolean> getReadsClassFiles();
+    }
+}
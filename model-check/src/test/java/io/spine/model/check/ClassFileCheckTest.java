@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableList;
+import io.spine.model.check.given.DuplicateCommandAssignee;
+import io.spine.model.check.given.EditAggregate;
+import io.spine.model.check.given.InvalidDeleteAggregate;
+import io.spine.model.check.given.InvalidEnhanceAggregate;
+import io.spine.model.check.given.InvalidRestoreAggregate;
+import io.spine.model.check.given.RenameProcMan;
+import io.spine.model.check.given.UploadCommandAssignee;
+import io.spine.testing.logging.LoggingTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.logging.Level;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("`ClassFileCheck` should")
+class ClassFileCheckTest {
+
+    private static ClassFileCheck newCheck() {
+        return new ClassFileCheck(ClassFileCheckTest.class.getClassLoader());
+    }
+
+    @Test
+    @DisplayName("verify model from class files")
+    void verifyModel() {
+        newCheck().verify(ImmutableList.of(
+                UploadCommandAssignee.class.getName(),
+                EditAggregate.class.getName(),
+                RenameProcMan.class.getName()
+        ));
+    }
+
+    @ParameterizedTest
+    @DisplayName("fail on an invalid command receiving method")
+    @ValueSource(classes = {InvalidDeleteAggregate.class, InvalidEnhanceAggregate.class})
+    void failOnSignatureMismatch(Class<?> badReceiver) {
+        var check = newCheck();
+        var exception = assertThrows(
+                IllegalStateException.class,
+                () -> check.verify(ImmutableList.of(badReceiver.getName()))
+        );
+        assertThat(exception).hasMessageThat()
+                             .contains(badReceiver.getName());
+    }
+
+    @Test
+    @DisplayName("fail on duplicate command receivers")
+    void failOnDuplicateAssignees() {
+        var check = newCheck();
+        var duplicate = DuplicateCommandAssignee.class.getName();
+        var exception = assertThrows(
+                IllegalStateException.class,
+                () -> check.verify(ImmutableList.of(UploadCommandAssignee.class.getName(),
+                                                    duplicate))
+        );
+        assertThat(exception).hasMessageThat()
+                             .contains(duplicate);
+    }
+
+    @Test
+    @DisplayName("return invalid class names as not found")
+    void returnInvalidClassNames() {
+        var invalidClassname = "non.existing.class.Name";
+
+        var notFound = newCheck().verify(ImmutableList.of(invalidClassname));
+
+        assertThat(notFound).containsExactly(invalidClassname);
+    }
+
+    @Test
+    @DisplayName("not accept non-CommandReceiver types")
+    void rejectNonAssigneeTypes() {
+        var check = newCheck();
+        assertThrows(IllegalArgumentException.class,
+                     () -> check.verify(ImmutableList.of(ClassFileCheckTest.class.getName())));
+    }
+
+    @Nested
+    @DisplayName("produce a warning")
+    class WarnLogging extends LoggingTest {
+
+        private final Class<?> aggregateClass = InvalidRestoreAggregate.class;
+
+        WarnLogging() {
+            super(ClassFileCheck.class, Level.WARNING);
+        }
+
+        @BeforeEach
+        void verifyModel() {
+            interceptLogging();
+            newCheck().verify(ImmutableList.of(aggregateClass.getName()));
+        }
+
+        @AfterEach
+        void removeLogHook() {
+            restoreLogging();
+        }
+
+        @Test
+        @DisplayName("on `private` command receiving methods")
+        void onPrivateMethod() {
+            var assertRecord = assertLog().record();
+            assertRecord.hasLevelThat()
+                        .isEqualTo(level());
+            assertRecord.hasMessageThat()
+                        .contains(aggregateClass.getName());
+        }
+    }
+}
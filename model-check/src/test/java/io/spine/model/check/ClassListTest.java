@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
+import io.spine.model.CommandReceivers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.runtime.DispatcherRegistry.REGISTRY_PATH;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@DisplayName("`ClassList` should")
+class ClassListTest {
+
+    @Test
+    @DisplayName("list the receivers, the classes their handlers refer to, and the dispatchers")
+    void listClasses(@TempDir Path classes) throws IOException {
+        touch(classes, "org/example/Receiver.class");
+        touch(classes, "org/example/Base.class");
+        touch(classes, "org/example/Commands$Rename.class");
+        touch(classes, "org/example/Renamed.class");
+        touch(classes, "org/example/Receiver_Dispatcher.class");
+        var registry = classes.resolve(REGISTRY_PATH);
+        Files.createDirectories(registry.getParent());
+        Files.write(registry,
+                    "org.example.Receiver=org.example.Receiver_Dispatcher".getBytes(UTF_8));
+        var model = CommandReceivers.newBuilder()
+                .addCommandReceivingType("org.example.Receiver")
+                .addReceiver(CommandReceiver.newBuilder()
+                                     .setType("org.example.Receiver")
+                                     .addSuperclass("org.example.Base")
+                                     .addMethod(CommandHandlerMethod.newBuilder()
+                                                        .addParameterType(
+                                                                "org.example.Commands.Rename")
+                                                        .addParameterType("int")
+                                                        .addParameterType("byte[]")
+                                                        .addThrownType("org.example.Missing")
+                                                        .setReturnType("org.example.Renamed")))
+                .build();
+
+        try (var loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            var list = new ClassList(loader).add(model);
+
+            assertThat(list.classes()).containsExactly(
+                    "org/example/Base",
+                    "org/example/Commands$Rename",
+                    "org/example/Receiver",
+                    "org/example/Receiver_Dispatcher",
+                    "org/example/Renamed"
+            ).inOrder();
+
+            var file = classes.resolve("cds/model.classlist");
+            list.writeTo(file);
+            assertThat(Files.readAllLines(file, UTF_8))
+                    .containsExactlyElementsIn(list.classes())
+                    .inOrder();
+        }
+    }
+
+    private static void touch(Path root, String classFile) throws IOException {
+        var file = root.resolve(classFile);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{0});
+    }
+}
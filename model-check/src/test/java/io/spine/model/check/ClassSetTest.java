@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("`ClassSet` should")
+class ClassSetTest {
+
+    private static final ImmutableList<String> NAMES = ImmutableList.of(
+            "java.lang.String",
+            "org.example.Missing",
+            "java.util.List",
+            "java.lang.String",
+            "java.util.Map",
+            "org.example.Absent"
+    );
+
+    @Test
+    @DisplayName("load the classes concurrently, consuming them in the calling thread")
+    void loadConcurrently() {
+        var caller = Thread.currentThread();
+        List<Class<?>> consumed = new ArrayList<>();
+        List<Thread> consumers = new ArrayList<>();
+
+        var classSet = new ClassSet(getClass().getClassLoader(), NAMES, 4, cls -> {
+            consumed.add(cls);
+            consumers.add(Thread.currentThread());
+        });
+
+        assertThat(classSet.elements())
+                .containsExactly(String.class, List.class, Map.class)
+                .inOrder();
+        assertThat(consumed).containsExactly(String.class, List.class, Map.class);
+        assertThat(consumers).containsExactly(caller, caller, caller);
+        assertThat(classSet.notFound())
+                .containsExactly("`org.example.Absent`", "`org.example.Missing`")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("load the classes in the calling thread if the parallelism is `1`")
+    void loadSequentially() {
+        List<Class<?>> consumed = new ArrayList<>();
+
+        var classSet = new ClassSet(getClass().getClassLoader(), NAMES, 1, consumed::add);
+
+        assertThat(consumed)
+                .containsExactly(String.class, List.class, Map.class)
+                .inOrder();
+        assertThat(classSet.notFound()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("reject non-positive parallelism")
+    void rejectParallelism() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ClassSet(getClass().getClassLoader(), NAMES, 0, cls -> {}));
+    }
+}
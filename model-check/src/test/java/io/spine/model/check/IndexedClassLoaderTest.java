@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("`IndexedClassLoader` should")
+class IndexedClassLoaderTest {
+
+    private static final String RESOURCE = "META-INF/spine/sample.txt";
+
+    @Test
+    @DisplayName("load classes from a directory")
+    void loadFromDirectory(@TempDir Path tempDir) throws Exception {
+        var classes = tempDir.resolve("classes");
+        var classFile = classes.resolve(classFileOf(Sample.class));
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, bytesOf(Sample.class));
+
+        try (var loader = new IndexedClassLoader(ImmutableList.of(classes.toFile()), null)) {
+            var loaded = loader.loadClass(Sample.class.getName());
+
+            assertThat(loaded.getClassLoader()).isSameInstanceAs(loader);
+            assertThat(loaded.getPackageName()).isEqualTo(Sample.class.getPackageName());
+            assertThrows(ClassNotFoundException.class,
+                         () -> loader.loadClass(IndexedClassLoaderTest.class.getName()));
+        }
+    }
+
+    @Test
+    @DisplayName("find resources in directories and JAR files")
+    void findResources(@TempDir Path tempDir) throws IOException {
+        var directory = tempDir.resolve("resources");
+        var resource = directory.resolve(RESOURCE);
+        Files.createDirectories(resource.getParent());
+        Files.writeString(resource, "directory");
+        var jar = tempDir.resolve("module.jar");
+        try (var out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry(RESOURCE));
+            out.write("jar".getBytes(UTF_8));
+            out.closeEntry();
+        }
+        var missing = tempDir.resolve("missing");
+        var classpath = ImmutableList.of(directory.toFile(), missing.toFile(), jar.toFile());
+
+        try (var loader = new IndexedClassLoader(classpath, null)) {
+            var found = Collections.list(loader.getResources(RESOURCE));
+
+            assertThat(found).hasSize(2);
+            assertThat(Resources.toString(found.get(0), UTF_8)).isEqualTo("directory");
+            assertThat(Resources.toString(found.get(1), UTF_8)).isEqualTo("jar");
+            assertThat(loader.getResource("META-INF/spine/absent.txt")).isNull();
+            assertThat(loader.classpath()).containsExactly(directory, jar).inOrder();
+        }
+    }
+
+    private static String classFileOf(Class<?> cls) {
+        return cls.getName().replace('.', '/') + ".class";
+    }
+
+    private static byte[] bytesOf(Class<?> cls) throws IOException {
+        var resource = Resources.getResource(classFileOf(cls));
+        return Resources.toByteArray(resource);
+    }
+
+    /**
+     * The class loaded by the tested loader.
+     */
+    public static final class Sample {
+    }
+}
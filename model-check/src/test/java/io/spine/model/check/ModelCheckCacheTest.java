@@ -0,0 +1,212 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.check;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.spine.model.VerificationCache;
+import io.spine.model.VerifiedReceiver;
+import io.spine.model.check.given.DuplicateCommandAssignee;
+import io.spine.model.check.given.EditAggregate;
+import io.spine.model.check.given.UploadCommandAssignee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("`ModelCheckCache` should")
+class ModelCheckCacheTest {
+
+    private static final String UPLOAD = UploadCommandAssignee.class.getName();
+    private static final String EDIT = EditAggregate.class.getName();
+    private static final String DUPLICATE = DuplicateCommandAssignee.class.getName();
+    private static final ImmutableList<String> TYPES = ImmutableList.of(UPLOAD, EDIT, DUPLICATE);
+
+    private Path file;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        file = tempDir.resolve("model-check")
+                      .resolve("verification.cache");
+    }
+
+    private ModelCheckCache load() {
+        var lookup = new ClassLookup(ModelCheckCacheTest.class.getClassLoader());
+        return ModelCheckCache.load(file, new ClassFileScanner(lookup));
+    }
+
+    private void verifyAll(ImmutableSet<String> notFound) {
+        var cache = load();
+        cache.store(cache.select(TYPES, ClassChanges.unknown()), notFound);
+    }
+
+    @Test
+    @DisplayName("select all the receivers if there is no cache")
+    void selectAllWithoutCache() {
+        var selection = load().select(TYPES, ClassChanges.unknown());
+
+        assertThat(selection.toVerify())
+                .containsExactlyElementsIn(TYPES)
+                .inOrder();
+        assertThat(selection.notFound()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("skip the unchanged receivers")
+    void skipUnchanged() {
+        verifyAll(ImmutableSet.of());
+
+        var selection = load().select(TYPES, ClassChanges.unknown());
+
+        assertThat(file.toFile().exists()).isTrue();
+        assertThat(selection.toVerify()).isEmpty();
+        assertThat(selection.notFound()).isEmpty();
+    }
+
+    /**
+     * Replaces the digest of the cached {@code DuplicateCommandAssignee}, so that it does not
+     * match the class files anymore.
+     */
+    private void outdateDuplicate() throws IOException {
+        verifyAll(ImmutableSet.of());
+        var cache = VerificationCache.parseFrom(Files.readAllBytes(file));
+        var changed = cache.toBuilder()
+                           .clearReceiver();
+        for (var receiver : cache.getReceiverList()) {
+            changed.addReceiver(receiver.getType().equals(DUPLICATE)
+                                ? receiver.toBuilder()
+                                          .setDigest("outdated")
+                                          .build()
+                                : receiver);
+        }
+        Files.write(file, changed.build().toByteArray());
+    }
+
+    @Test
+    @DisplayName("select the unchanged receivers handling the commands of the changed ones")
+    void selectAffected() throws IOException {
+        outdateDuplicate();
+
+        var selection = load().select(TYPES, ClassChanges.unknown());
+
+        assertThat(selection.toVerify())
+                .containsExactly(UPLOAD, DUPLICATE)
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("trust the receivers not covering the known changed classes")
+    void trustUnaffected() throws IOException {
+        outdateDuplicate();
+
+        var selection = load().select(TYPES, ClassChanges.of(ImmutableSet.of()));
+
+        assertThat(selection.toVerify()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("select the receivers covering the known changed classes")
+    void selectCovering() throws IOException {
+        outdateDuplicate();
+
+        var selection = load().select(TYPES, ClassChanges.of(ImmutableSet.of(DUPLICATE)));
+
+        assertThat(selection.toVerify())
+                .containsExactly(UPLOAD, DUPLICATE)
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("report the unchanged receivers which were not found")
+    void reportNotFound() {
+        verifyAll(ImmutableSet.of(EDIT));
+
+        var selection = load().select(TYPES, ClassChanges.unknown());
+
+        assertThat(selection.toVerify()).isEmpty();
+        assertThat(selection.notFound()).containsExactly(EDIT);
+    }
+
+    @Test
+    @DisplayName("report the receivers without class files")
+    void reportMissing() {
+        var missing = "non.existing.class.Name";
+        var types = ImmutableList.of(missing);
+        var cache = load();
+        var selection = cache.select(types, ClassChanges.unknown());
+        assertThat(selection.toVerify()).containsExactly(missing);
+        cache.store(selection, ImmutableSet.of(missing));
+
+        var next = load().select(types, ClassChanges.unknown());
+
+        assertThat(next.toVerify()).isEmpty();
+        assertThat(next.notFound()).containsExactly(missing);
+    }
+
+    @Test
+    @DisplayName("select the receivers which were not found once their classes are added")
+    void selectAdded() throws IOException {
+        var missingBefore = VerifiedReceiver.newBuilder()
+                .setType(UPLOAD)
+                .setFound(false)
+                .addCoveredClass(UPLOAD)
+                .build();
+        var cache = VerificationCache.newBuilder()
+                .setVersion(ModelCheckCache.VERSION)
+                .addReceiver(missingBefore)
+                .build();
+        Files.createDirectories(file.getParent());
+        Files.write(file, cache.toByteArray());
+
+        var selection = load().select(ImmutableList.of(UPLOAD),
+                                      ClassChanges.of(ImmutableSet.of(UPLOAD)));
+
+        assertThat(selection.toVerify()).containsExactly(UPLOAD);
+        assertThat(selection.notFound()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("discard a cache of another version")
+    void discardOtherVersion() throws IOException {
+        verifyAll(ImmutableSet.of());
+        var cache = VerificationCache.parseFrom(Files.readAllBytes(file))
+                                     .toBuilder()
+                                     .setVersion(ModelCheckCache.VERSION + 1)
+                                     .build();
+        Files.write(file, cache.toByteArray());
+
+        var selection = load().select(TYPES, ClassChanges.unknown());
+
+        assertThat(selection.toVerify()).hasSize(TYPES.size());
+    }
+}
@@ -26,25 +26,24 @@
 
 package io.spine.model.check;
 
+import com.google.common.collect.ImmutableList;
 import io.spine.model.CommandReceivers;
-import io.spine.model.check.ModelCheck.GetDestinationDir;
 import io.spine.model.check.given.DuplicateCommandAssignee;
 import io.spine.model.check.given.EditAggregate;
 import io.spine.model.check.given.InvalidCommander;
 import io.spine.model.check.given.InvalidDeleteAggregate;
 import io.spine.model.check.given.InvalidEnhanceAggregate;
 import io.spine.model.check.given.InvalidRestoreAggregate;
+import io.spine.model.check.given.OuterCommandAssignee;
 import io.spine.model.check.given.RenameProcMan;
 import io.spine.model.check.given.UploadCommandAssignee;
 import io.spine.server.command.model.AssigneeSignature;
 import io.spine.server.model.DuplicateCommandReceptorError;
 import io.spine.server.model.ExternalCommandReceiverMethodError;
 import io.spine.server.model.SignatureMismatchException;
-import io.spine.testing.TempDir;
 import io.spine.testing.logging.LoggingTest;
 import io.spine.testing.logging.mute.MuteLogging;
 import org.gradle.api.Project;
-import org.gradle.api.tasks.compile.JavaCompile;
 import org.gradle.testfixtures.ProjectBuilder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -55,16 +54,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
-import java.io.File;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.stream.Stream;
 
-import static io.spine.tools.gradle.task.JavaTaskName.compileJava;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DisplayName("`ModelCheck` should")
@@ -187,6 +180,18 @@ class ModelCheckTest {
         new ModelCheck(project).verify(spineModel);
     }
 
+    @Test
+    @DisplayName("select nested receivers by their canonical names")
+    void selectNestedReceivers() {
+        var nested = OuterCommandAssignee.NestedAssignee.class;
+        try (var verifier = new ModelCheck(project)) {
+            var found = verifier.selectFound(
+                    ImmutableList.of(nested.getCanonicalName(), "non.existing.class.Name"));
+            assertThat(found).containsExactly(nested.getName());
+            verifier.verify(found);
+        }
+    }
+
     @Test
     @DisplayName("not accept non-CommandReceiver types")
     void rejectNonAssigneeTypes() {
@@ -197,28 +202,4 @@ class ModelCheckTest {
         assertThrows(IllegalArgumentException.class,
                      () -> new ModelCheck(project).verify(spineModel));
     }
-
-    @Test
-    @DisplayName("retrieve compilation destination directory from task")
-    void getCompilationDestDir() throws MalformedURLException {
-        var compileTask = actualProject().getTasks()
-                                         .withType(JavaCompile.class)
-                                         .getByName(compileJava.name());
-        var dest = TempDir.forClass(getClass());
-        compileTask.getDestinationDirectory().set(dest);
-        Function<JavaCompile, URL> func = GetDestinationDir.FUNCTION;
-        var destUrl = dest.toURI().toURL();
-        assertEquals(destUrl, func.apply(compileTask));
-    }
-
-    @Test
-    @DisplayName("retrieve `null` if destination directory is null")
-    void getNullDestDir() {
-        var compileTask = actualProject().getTasks()
-                                         .withType(JavaCompile.class)
-                                         .getByName(compileJava.name());
-        compileTask.getDestinationDirectory().set((File) null);
-        Function<JavaCompile, URL> func = GetDestinationDir.FUNCTION;
-        assertNull(func.apply(compileTask));
-    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.check;
+
+import io.spine.model.CommandHandlerMethod;
+import io.spine.model.CommandReceiver;
+import io.spine.model.CommandReceivers;
+import io.spine.model.ReturnKind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.check.NativeImageConfig.PROXY_CONFIG;
+import static io.spine.model.check.NativeImageConfig.REFLECT_CONFIG;
+import static io.spine.model.check.NativeImageConfig.RESOURCE_CONFIG;
+
+@DisplayName("`NativeImageConfig` should")
+class NativeImageConfigTest {
+
+    @Test
+    @DisplayName("register the receivers, their handlers, and the handled messages")
+    void registerReceivers(@TempDir Path classes) throws IOException {
+        touch(classes, "org/example/Receiver.class");
+        touch(classes, "org/example/Commands$Rename.class");
+        touch(classes, "org/example/Renamed.class");
+        var model = CommandReceivers.newBuilder()
+                .addReceiver(CommandReceiver.newBuilder()
+                                     .setType("org.example.Receiver")
+                                     .addMethod(handler()))
+                .build();
+
+        try (var loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            var config = new NativeImageConfig(loader).add(model);
+            var reflection = config.reflectConfig();
+
+            assertThat(reflection).contains("\"name\": \"org.example.Receiver\"");
+            assertThat(reflection).contains("\"allDeclaredConstructors\": true");
+            assertThat(reflection).contains(
+                    "{\"name\": \"handle\", \"parameterTypes\": " +
+                            "[\"org.example.Commands$Rename\", \"int\"]}");
+            assertThat(reflection).contains("\"name\": \"org.example.Renamed\"");
+            assertThat(reflection).contains("{\"name\": \"getDefaultInstance\"");
+            assertThat(reflection).doesNotContain("org.example.Missing");
+
+            var output = classes.resolve("META-INF/native-image/org.example/app");
+            config.writeTo(output);
+            assertThat(Files.readString(output.resolve(REFLECT_CONFIG))).isEqualTo(reflection);
+            assertThat(Files.readString(output.resolve(RESOURCE_CONFIG)))
+                    .contains("\\\\QMETA-INF/spine/spine_model.ser\\\\E");
+            assertThat(Files.readString(output.resolve(PROXY_CONFIG)).trim()).isEqualTo("[]");
+        }
+    }
+
+    private static CommandHandlerMethod handler() {
+        return CommandHandlerMethod.newBuilder()
+                .setName("handle")
+                .setCommandType("org.example.Commands.Rename")
+                .addParameterType("org.example.Commands.Rename")
+                .addParameterType("int")
+                .addThrownType("org.example.Missing")
+                .setReturnType("org.example.Renamed")
+                .setReturnKind(ReturnKind.SINGLE_MESSAGE)
+                .build();
+    }
+
+    private static void touch(Path root, String classFile) throws IOException {
+        var file = root.resolve(classFile);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{0});
+    }
+}
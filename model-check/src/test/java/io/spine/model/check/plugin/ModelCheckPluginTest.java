@@ -44,7 +44,9 @@ import java.util.stream.Collectors;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.spine.model.check.plugin.ModelCheckTaskName.checkModel;
+import static io.spine.tools.gradle.task.BaseTaskName.build;
 import static org.gradle.testkit.runner.TaskOutcome.FAILED;
+import static org.gradle.testkit.runner.TaskOutcome.SUCCESS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -74,6 +76,16 @@ class ModelCheckPluginTest {
                 .executeTask(checkModel);
     }
 
+    @Test
+    @DisplayName("take part in the `build` task without forming a task cycle")
+    void runBuild() {
+        var project = newProjectWithJava(VALID_AGGREGATE_JAVA);
+        var result = project.executeTask(build);
+        var task = result.task(checkModel.path());
+        assertNotNull(task, result.getOutput());
+        assertEquals(SUCCESS, task.getOutcome(), result.getOutput());
+    }
+
     @Test
     @MuteLogging
     @DisplayName("halt build on duplicate command-handling methods")
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package io.spine.model.check.plugin;
+
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@DisplayName("`ProcessorArguments` should")
+class ProcessorArgumentsTest {
+
+    @Test
+    @DisplayName("pass the root directory and the module path to the processor")
+    void passOptions(@TempDir File rootDir) {
+        var root = ProjectBuilder.builder()
+                .withProjectDir(rootDir)
+                .build();
+        var module = ProjectBuilder.builder()
+                .withName("orders")
+                .withParent(root)
+                .build();
+
+        var arguments = new ProcessorArguments(module);
+
+        assertThat(arguments.getModule()).isEqualTo(":orders");
+        assertThat(arguments.asArguments())
+                .containsExactly("-AspineDirRoot=" + rootDir.getAbsolutePath(),
+                                 "-AspineModule=:orders")
+                .inOrder();
+    }
+
+    @Test
+    @DisplayName("leave the machine-specific root directory out of the cache key")
+    void skipRootDirInput() throws NoSuchMethodException {
+        var rootDir = ProcessorArguments.class.getMethod("getRootDir");
+        var module = ProcessorArguments.class.getMethod("getModule");
+
+        assertThat(rootDir.isAnnotationPresent(Internal.class)).isTrue();
+        assertThat(module.isAnnotationPresent(Input.class)).isTrue();
+    }
+}
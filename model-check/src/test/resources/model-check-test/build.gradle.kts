@@ -44,7 +44,7 @@ buildscript {
     dependencies {
         classpath(io.spine.internal.dependency.Protobuf.GradlePlugin.lib)
         classpath(io.spine.internal.dependency.Spine.McJava.pluginLib)
-        classpath("io.spine.tools:spine-model-check-bundle:${versionToPublish}")
+        classpath("io.spine.tools:spine-model-check-plugin:${versionToPublish}")
     }
 
     io.spine.internal.gradle.doForceVersions(configurations)
@@ -73,8 +73,7 @@ repositories {
 tasks.compileJava {
     options.compilerArgs.addAll(listOf(
         "-processor",
-        "io.spine.model.assemble.AssignLookup",
-        "-AspineDirRoot=${rootDir}"
+        "io.spine.model.assemble.AssignLookup"
     ))
 }
 
@@ -83,7 +82,7 @@ dependencies {
     implementation(spine.validation.runtime)
     implementation(spine.server)
     implementation(spine.baseTypes)
-    annotationProcessor("io.spine.tools:spine-model-check-bundle:$versionToPublish")
+    annotationProcessor("io.spine.tools:spine-model-check-processor:$versionToPublish")
 }
 
 configurations.all {
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.runtime;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.spine.annotation.Internal;
+import io.spine.logging.Logging;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+/**
+ * Warms up the dispatching of the commands before the application starts serving them.
+ *
+ * <p>The warm-up is driven by the generated dispatchers listed in
+ * the {@linkplain DispatcherRegistry registries} found on the classpath. Each dispatcher which
+ * has the {@code warmUp} method routes the default instance of each handled command the given
+ * number of times. So, the JIT compiler compiles the generated routing before the first real
+ * command arrives.
+ *
+ * <p>The warm-up creates no receivers and calls no handlers, so it has no side effects.
+ *
+ * <p>The warm-up is off unless the {@link #ITERATIONS_PROPERTY} is set. It is intended to be
+ * run before the application reports it is ready:
+ * <pre>
+ * var report = DispatchWarmUp.run(getClass().getClassLoader(), DispatchWarmUp.iterations());
+ * </pre>
+ */
+@Internal
+public final class DispatchWarmUp implements Logging {
+
+    /**
+     * The name of the system property which sets the number of the warm-up iterations.
+     */
+    public static final String ITERATIONS_PROPERTY = "io.spine.model.warmUpIterations";
+
+    /**
+     * The name of the warm-up method of the generated dispatchers.
+     */
+    public static final String WARM_UP_METHOD = "warmUp";
+
+    private final ClassLoader classLoader;
+    private final int iterations;
+
+    private DispatchWarmUp(ClassLoader classLoader, int iterations) {
+        this.classLoader = classLoader;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Obtains the number of the warm-up iterations set by the {@link #ITERATIONS_PROPERTY}.
+     *
+     * @return the value of the property or zero if it is not set
+     */
+    public static int iterations() {
+        return Integer.getInteger(ITERATIONS_PROPERTY, 0);
+    }
+
+    /**
+     * Warms up the dispatching of the commands.
+     *
+     * <p>If the number of the iterations is zero, does nothing.
+     *
+     * @param classLoader
+     *         the class loader of the application
+     * @param iterations
+     *         the number of times to route each command
+     * @return the report of the warm-up
+     */
+    public static Report run(ClassLoader classLoader, int iterations) {
+        if (iterations < 0) {
+            throw new IllegalArgumentException(
+                    format("The number of the iterations must not be negative, but was %d.",
+                           iterations));
+        }
+        if (iterations == 0) {
+            return new Report(0, ImmutableMap.of(), ImmutableList.of(), Duration.ZERO);
+        }
+        var warmUp = new DispatchWarmUp(classLoader, iterations);
+        var report = warmUp.run();
+        warmUp._info().log("%s", report);
+        return report;
+    }
+
+    private Report run() {
+        var warmedUp = ImmutableMap.<String, Duration>builder();
+        var skipped = ImmutableList.<String>builder();
+        var start = System.nanoTime();
+        DispatcherRegistry.load(classLoader).forEach((receiver, dispatcher) -> {
+            var duration = warmUp(receiver, dispatcher);
+            if (duration.isPresent()) {
+                warmedUp.put(receiver, duration.get());
+            } else {
+                skipped.add(receiver);
+            }
+        });
+        var total = Duration.ofNanos(System.nanoTime() - start);
+        return new Report(iterations, warmedUp.build(), skipped.build(), total);
+    }
+
+    /**
+     * Warms up the dispatching to the given receiver.
+     *
+     * @return the time taken by the warm-up or {@code Optional.empty()} if the receiver
+     *         was not warmed up
+     */
+    private Optional<Duration> warmUp(String receiverName, String dispatcherName) {
+        try {
+            var dispatcher = Class.forName(dispatcherName, false, classLoader);
+            Method warmUp;
+            try {
+                warmUp = dispatcher.getMethod(WARM_UP_METHOD, int.class);
+            } catch (NoSuchMethodException e) {
+                _debug().log("The dispatcher `%s` has no warm-up method.", dispatcherName);
+                return Optional.empty();
+            }
+            var start = System.nanoTime();
+            warmUp.invoke(null, iterations);
+            return Optional.of(Duration.ofNanos(System.nanoTime() - start));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            _warn().withCause(e)
+                   .log("Unable to warm up the dispatching to `%s`.", receiverName);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The report of the warm-up.
+     */
+    public static final class Report {
+
+        private final int iterations;
+        private final ImmutableMap<String, Duration> warmedUp;
+        private final ImmutableList<String> skipped;
+        private final Duration duration;
+
+        private Report(int iterations,
+                       ImmutableMap<String, Duration> warmedUp,
+                       ImmutableList<String> skipped,
+                       Duration duration) {
+            this.iterations = iterations;
+            this.warmedUp = warmedUp;
+            this.skipped = skipped;
+            this.duration = duration;
+        }
+
+        /**
+         * Obtains the number of times each command was routed.
+         */
+        public int iterations() {
+            return iterations;
+        }
+
+        /**
+         * Obtains the time taken by the warm-up of each receiver, mapped by the name of
+         * the receiver.
+         */
+        public ImmutableMap<String, Duration> warmedUp() {
+            return warmedUp;
+        }
+
+        /**
+         * Obtains the names of the receivers which were not warmed up.
+         */
+        public ImmutableList<String> skipped() {
+            return skipped;
+        }
+
+        /**
+         * Obtains the total time taken by the warm-up.
+         */
+        public Duration duration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return format("Warmed up %d command receivers in %d ms (%d iterations), " +
+                                  "skipped %d.",
+                          warmedUp.size(), duration.toMillis(), iterations, skipped.size());
+        }
+    }
+}
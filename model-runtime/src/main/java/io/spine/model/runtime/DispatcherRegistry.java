@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.runtime;
+
+import com.google.common.collect.ImmutableMap;
+import io.spine.annotation.Internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The registry of the dispatchers generated for the command receivers.
+ *
+ * <p>Each compilation with the dispatcher generation enabled writes the registry of
+ * the dispatchers it has generated under the {@link #REGISTRY_PATH} in the class output.
+ * Each line of the registry maps the binary name of a receiver class to the binary name of
+ * its dispatcher class, separated by {@code =}. The lines are sorted by the receiver names.
+ *
+ * <p>The registries of all the modules are {@linkplain #load(ClassLoader) loaded} from
+ * the classpath, so that the runtime could look up the dispatcher of a receiver without
+ * scanning the receiver reflectively.
+ */
+@Internal
+public final class DispatcherRegistry {
+
+    /**
+     * The path of the registry relative to the root of a class directory or a JAR.
+     */
+    public static final String REGISTRY_PATH = "META-INF/spine/command_dispatchers";
+
+    private static final char SEPARATOR = '=';
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private DispatcherRegistry() {
+    }
+
+    /**
+     * Converts the given mapping of the receivers to their dispatchers into the content of
+     * the registry.
+     */
+    public static String toContent(Map<String, String> dispatchers) {
+        var result = new StringBuilder();
+        new TreeMap<>(dispatchers).forEach(
+                (receiver, dispatcher) -> result.append(receiver)
+                                                .append(SEPARATOR)
+                                                .append(dispatcher)
+                                                .append('\n')
+        );
+        return result.toString();
+    }
+
+    /**
+     * Loads all the registries visible to the given class loader.
+     *
+     * @return the binary names of the dispatcher classes mapped by the binary names of
+     *         the receiver classes
+     */
+    public static ImmutableMap<String, String> load(ClassLoader classLoader) {
+        var result = new TreeMap<String, String>();
+        try {
+            var resources = classLoader.getResources(REGISTRY_PATH);
+            while (resources.hasMoreElements()) {
+                readInto(resources.nextElement(), result);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to read the dispatcher registries `%s`.", REGISTRY_PATH), e);
+        }
+        return ImmutableMap.copyOf(result);
+    }
+
+    private static void readInto(URL resource, Map<String, String> result) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(resource.openStream(), UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                var separator = line.indexOf(SEPARATOR);
+                if (separator > 0) {
+                    result.put(line.substring(0, separator), line.substring(separator + 1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.runtime;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import io.spine.annotation.Internal;
+import io.spine.model.CommandReceiver;
+import io.spine.model.ModelSnapshot;
+import io.spine.model.SnapshotEntry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.lang.String.format;
+
+/**
+ * Utilities for working with the {@linkplain ModelSnapshot snapshots} of the handler metadata.
+ *
+ * <p>The snapshot is written by the model annotation processor into the class output under
+ * the {@link #SNAPSHOT_PATH}. The hashes of the class files are not known at that moment, so
+ * the snapshot is {@linkplain #stamp(Path) stamped} with them after the compilation.
+ *
+ * <p>The snapshots of all the modules are {@linkplain #load(ClassLoader) loaded} from
+ * the classpath. The entries of which the class files have changed since the stamping are
+ * reported as stale, so that the runtime obtains their metadata by reflection.
+ *
+ * <p>The I/O errors are handled by rethrowing them as {@link IllegalStateException}.
+ */
+@Internal
+public final class ModelSnapshots {
+
+    /**
+     * The path of the snapshot relative to the root of a class directory or a JAR.
+     */
+    public static final String SNAPSHOT_PATH = "META-INF/spine/model_snapshot.ser";
+
+    /**
+     * The version of the snapshot format written and read by this class.
+     */
+    public static final int VERSION = 1;
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    /**
+     * Prevents the utility class instantiation.
+     */
+    private ModelSnapshots() {
+    }
+
+    /**
+     * Creates a snapshot of the current version with the given entries.
+     */
+    public static ModelSnapshot create(Iterable<SnapshotEntry> entries) {
+        return ModelSnapshot.newBuilder()
+                .setVersion(VERSION)
+                .addAllEntry(entries)
+                .build();
+    }
+
+    /**
+     * Fills the hashes of the class files in the snapshot written into the given class
+     * directory.
+     *
+     * <p>If there is no snapshot in the directory, does nothing. The entries of which
+     * the class files are not found are left without a hash, and thus are always stale.
+     *
+     * @param classesDir
+     *         the class output of the compilation
+     * @return {@code true} if the snapshot was stamped, {@code false} if there is no snapshot
+     */
+    @SuppressWarnings("CheckReturnValue") // calling builder
+    public static boolean stamp(Path classesDir) {
+        var file = classesDir.resolve(SNAPSHOT_PATH);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try {
+            var snapshot = ModelSnapshot.parseFrom(Files.readAllBytes(file));
+            var stamped = snapshot.toBuilder()
+                                  .clearEntry();
+            for (var entry : snapshot.getEntryList()) {
+                var classFile = classesDir.resolve(classFileOf(entry.getBinaryName()));
+                var hash = Files.exists(classFile)
+                           ? hashOf(Files.readAllBytes(classFile))
+                           : "";
+                stamped.addEntry(entry.toBuilder()
+                                      .setClassHash(hash)
+                                      .build());
+            }
+            Files.write(file, stamped.build().toByteArray());
+            return true;
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to stamp the model snapshot `%s`.", file), e);
+        }
+    }
+
+    /**
+     * Loads the snapshots visible to the given class loader.
+     *
+     * <p>The snapshots of an unsupported version are skipped. The receivers of such snapshots
+     * are neither fresh nor stale, since they are not known to the returned result.
+     */
+    public static Loaded load(ClassLoader classLoader) {
+        var fresh = ImmutableList.<CommandReceiver>builder();
+        var stale = ImmutableList.<String>builder();
+        try {
+            var resources = classLoader.getResources(SNAPSHOT_PATH);
+            while (resources.hasMoreElements()) {
+                var snapshot = read(resources.nextElement());
+                if (snapshot.getVersion() != VERSION) {
+                    continue;
+                }
+                for (var entry : snapshot.getEntryList()) {
+                    if (isFresh(entry, classLoader)) {
+                        fresh.add(entry.getReceiver());
+                    } else {
+                        stale.add(entry.getBinaryName());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    format("Unable to read the model snapshots `%s`.", SNAPSHOT_PATH), e);
+        }
+        return new Loaded(fresh.build(), stale.build());
+    }
+
+    private static ModelSnapshot read(URL resource) throws IOException {
+        try (var in = resource.openStream()) {
+            return ModelSnapshot.parseFrom(in);
+        }
+    }
+
+    private static boolean isFresh(SnapshotEntry entry, ClassLoader classLoader)
+            throws IOException {
+        var hash = entry.getClassHash();
+        if (hash.isEmpty()) {
+            return false;
+        }
+        var classFile = classLoader.getResource(classFileOf(entry.getBinaryName()));
+        if (classFile == null) {
+            return false;
+        }
+        try (InputStream in = classFile.openStream()) {
+            return hash.equals(hashOf(in.readAllBytes()));
+        }
+    }
+
+    private static String classFileOf(String binaryName) {
+        return binaryName.replace('.', '/') + CLASS_EXTENSION;
+    }
+
+    private static String hashOf(byte[] bytes) {
+        return Hashing.sha256()
+                      .hashBytes(bytes)
+                      .toString();
+    }
+
+    /**
+     * The result of {@linkplain #load(ClassLoader) loading} the snapshots.
+     */
+    public static final class Loaded {
+
+        private final ImmutableList<CommandReceiver> receivers;
+        private final ImmutableList<String> staleTypes;
+
+        private Loaded(ImmutableList<CommandReceiver> receivers,
+                       ImmutableList<String> staleTypes) {
+            this.receivers = receivers;
+            this.staleTypes = staleTypes;
+        }
+
+        /**
+         * Obtains the receivers of which the class files match the snapshots.
+         */
+        public ImmutableList<CommandReceiver> receivers() {
+            return receivers;
+        }
+
+        /**
+         * Obtains the binary names of the receivers of which the class files do not match
+         * the snapshots.
+         */
+        public ImmutableList<String> staleTypes() {
+            return staleTypes;
+        }
+    }
+}
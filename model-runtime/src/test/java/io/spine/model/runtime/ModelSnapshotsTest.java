@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022, TeamDev. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Redistribution and use in source and/or binary forms, with or without
+ * modification, must retain the above copyright notice and the following
+ * disclaimer.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+ * THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package io.spine.model.runtime;
+
+import io.spine.model.CommandReceiver;
+import io.spine.model.SnapshotEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.spine.model.runtime.ModelSnapshots.SNAPSHOT_PATH;
+import static java.util.stream.Collectors.toList;
+
+@DisplayName("`ModelSnapshots` should")
+class ModelSnapshotsTest {
+
+    private static final String FRESH = "org.example.Fresh";
+    private static final String CHANGED = "org.example.Changed";
+    private static final String MISSING = "org.example.Missing";
+
+    @Test
+    @DisplayName("load the receivers of which the class files are not changed since stamping")
+    void loadFresh(@TempDir Path classes) throws IOException {
+        writeClass(classes, FRESH, new byte[]{1, 2, 3});
+        writeClass(classes, CHANGED, new byte[]{4, 5, 6});
+        writeSnapshot(classes, FRESH, CHANGED, MISSING);
+
+        assertThat(ModelSnapshots.stamp(classes)).isTrue();
+        writeClass(classes, CHANGED, new byte[]{7, 8, 9});
+        var loaded = load(classes);
+
+        assertThat(loaded.receivers()).containsExactly(receiver(FRESH));
+        assertThat(loaded.staleTypes()).containsExactly(CHANGED, MISSING);
+    }
+
+    @Test
+    @DisplayName("treat the receivers of a snapshot which is not stamped as stale")
+    void notStamped(@TempDir Path classes) throws IOException {
+        writeClass(classes, FRESH, new byte[]{1, 2, 3});
+        writeSnapshot(classes, FRESH);
+
+        var loaded = load(classes);
+
+        assertThat(loaded.receivers()).isEmpty();
+        assertThat(loaded.staleTypes()).containsExactly(FRESH);
+    }
+
+    @Test
+    @DisplayName("not stamp a class directory without a snapshot")
+    void noSnapshot(@TempDir Path classes) {
+        assertThat(ModelSnapshots.stamp(classes)).isFalse();
+        assertThat(load(classes).receivers()).isEmpty();
+    }
+
+    private static ModelSnapshots.Loaded load(Path classes) {
+        try (var loader = new URLClassLoader(new URL[]{toUrl(classes)}, null)) {
+            return ModelSnapshots.load(loader);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static URL toUrl(Path path) {
+        try {
+            return path.toUri()
+                       .toURL();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeClass(Path classes, String binaryName, byte[] bytes)
+            throws IOException {
+        var file = classes.resolve(binaryName.replace('.', '/') + ".class");
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes);
+    }
+
+    private static void writeSnapshot(Path classes, String... types) throws IOException {
+        var entries = List.of(types)
+                          .stream()
+                          .map(type -> SnapshotEntry.newBuilder()
+                                  .setBinaryName(type)
+                                  .setReceiver(receiver(type))
+                                  .build())
+                          .collect(toList());
+        var file = classes.resolve(SNAPSHOT_PATH);
+        Files.createDirectories(file.getParent());
+        Files.write(file, ModelSnapshots.create(entries).toByteArray());
+    }
+
+    private static CommandReceiver receiver(String type) {
+        return CommandReceiver.newBuilder()
+                .setType(type)
+                .build();
+    }
+}
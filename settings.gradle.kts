@@ -35,6 +35,8 @@ rootProject.name = "spine-model-tools"
 
 include(
     "model-assembler",
+    "model-assembler-ksp",
     "model-check",
+    "model-runtime",
     //"model-check-bundle"
 )